@@ -1,8 +1,12 @@
 package dev.lin.exquis.auth;
 
 import dev.lin.exquis.security.JwtService;
+import dev.lin.exquis.security.LoginThrottle;
+import dev.lin.exquis.security.PasswordRehasher;
 import dev.lin.exquis.user.UserEntity;
 import dev.lin.exquis.user.UserRepository;
+import dev.lin.exquis.user.exceptions.UserNotFoundException;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -11,6 +15,7 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.Base64;
 import java.util.Map;
@@ -24,9 +29,11 @@ public class AuthController {
     private final UserRepository userRepository;
     private final UserDetailsService userDetailsService;
     private final PasswordEncoder passwordEncoder;
+    private final LoginThrottle loginThrottle;
+    private final PasswordRehasher passwordRehasher;
 
     @GetMapping("/login")
-    public ResponseEntity<?> login(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> login(@RequestHeader("Authorization") String authHeader, HttpServletRequest request) {
         try {
             // 1️⃣ Validar que el header sea Basic Auth
             if (!authHeader.startsWith("Basic ")) {
@@ -48,6 +55,9 @@ public class AuthController {
             String email = parts[0];
             String password = parts[1];
 
+            // 🚦 Límite de intentos por cuenta e IP antes de gastar CPU en bcrypt (429)
+            loginThrottle.check(email, request.getRemoteAddr());
+
             // 3️⃣ Validar credenciales
             UserDetails userDetails = userDetailsService.loadUserByUsername(email);
             
@@ -60,8 +70,11 @@ public class AuthController {
             UserEntity user = userRepository.findByEmail(email)
                     .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado"));
 
+            // 🔐 Migrar el hash al coste/algoritmo configurado, en segundo plano
+            passwordRehasher.rehashIfNeeded(user, password);
+
             // 5️⃣ Generar token JWT
-            String jwt = jwtService.generateToken(user.getId(), user.getEmail());
+            String jwt = jwtService.generateToken(user);
 
             // 6️⃣ Construir respuesta
             Map<String, Object> response = Map.of(
@@ -75,7 +88,10 @@ public class AuthController {
 
             return ResponseEntity.ok(response);
             
-        } catch (UsernameNotFoundException e) {
+        } catch (ResponseStatusException e) {
+            // 429 por límite de intentos o 503 con el ejecutor de contraseñas saturado
+            throw e;
+        } catch (UsernameNotFoundException | UserNotFoundException e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                 .body(Map.of("error", "Usuario no encontrado"));
         } catch (Exception e) {
@@ -1,31 +1,108 @@
 package dev.lin.exquis.blockedStory;
 
-import lombok.RequiredArgsConstructor;
+import dev.lin.exquis.story.AssignmentPool;
+import dev.lin.exquis.story.StoryCandidate;
+import dev.lin.exquis.story.StoryEvent;
+import dev.lin.exquis.story.StoryEventBroadcaster;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
-@Service // ✅ puedes usar @Service o @Component, ambos sirven
-@RequiredArgsConstructor
+import static dev.lin.exquis.config.TransactionCallbacks.afterCommit;
+
+@Service
 @Slf4j
 public class BlockedStoryCleanupScheduler {
 
     private final BlockedStoryRepository blockedStoryRepository;
+    private final AssignmentPool assignmentPool;
+    private final StoryLeaseTable leaseTable;
+    private final StoryEventBroadcaster eventBroadcaster;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${exquis.leases.expiry-batch-size:200}")
+    private int batchSize;
+
+    public BlockedStoryCleanupScheduler(BlockedStoryRepository blockedStoryRepository,
+                                        AssignmentPool assignmentPool,
+                                        StoryLeaseTable leaseTable,
+                                        StoryEventBroadcaster eventBroadcaster,
+                                        PlatformTransactionManager transactionManager) {
+        this.blockedStoryRepository = blockedStoryRepository;
+        this.assignmentPool = assignmentPool;
+        this.leaseTable = leaseTable;
+        this.eventBroadcaster = eventBroadcaster;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * ⏱️ Avanza la rueda de reservas: las que vencen se borran por lotes
+     * y sus historias vuelven al pool. Sin vencimientos no toca la base de datos.
+     */
+    @Scheduled(fixedDelayString = "${exquis.leases.tick-ms:1000}")
+    public int expireDueLeases() {
+        return expireDueLeases(LocalDateTime.now());
+    }
+
+    int expireDueLeases(LocalDateTime now) {
+        List<StoryLease> due = leaseTable.pollExpired(now);
+        int expired = 0;
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<StoryLease> batch = due.subList(from, Math.min(from + batchSize, due.size()));
+            try {
+                expired += transactionTemplate.execute(status -> expireBatch(batch, now));
+            } catch (RuntimeException e) {
+                log.error("⏱️ Error borrando {} bloqueos vencidos, se reintentará", batch.size(), e);
+                batch.forEach(leaseTable::scheduleExpiry);
+            }
+        }
+        if (expired > 0) {
+            log.info("⏱️ Reservas vencidas: {} bloqueos eliminados", expired);
+        }
+        return expired;
+    }
+
+    private int expireBatch(List<StoryLease> batch, LocalDateTime now) {
+        List<Long> storyIds = batch.stream().map(StoryLease::storyId).toList();
+        List<StoryCandidate> released = blockedStoryRepository.findExpiredCandidatesByStoryIds(storyIds, now);
+        int deleted = blockedStoryRepository.deleteExpiredByStoryIds(storyIds, now);
+
+        // 📦 Al confirmar: fuera de la tabla de reservas, de vuelta al pool y aviso a los clientes
+        afterCommit(() -> {
+            storyIds.forEach(storyId -> leaseTable.releaseIfExpired(storyId, now));
+            released.forEach(c -> assignmentPool.add(c.id(), c.collaborationCount()));
+            batch.forEach(lease -> eventBroadcaster.publish(StoryEvent.leaseExpired(lease.storyId(), lease.expiresAt())));
+            released.forEach(c -> eventBroadcaster.publish(StoryEvent.storyAvailable(c.id())));
+        });
+        return deleted;
+    }
 
     /**
-     * 🕒 Limpia los bloqueos expirados cada 1 minuto (para pruebas).
+     * 🧹 Conciliación de respaldo: borra bloqueos vencidos que la rueda no conoce
+     * (p. ej. creados o modificados directamente en la base de datos).
      */
-    @Scheduled(fixedRate = 60000) // cada 60 segundos
+    @Scheduled(fixedDelayString = "${exquis.leases.reconcile-ms:600000}", initialDelayString = "${exquis.leases.reconcile-ms:600000}")
     @Transactional
     public void cleanupExpiredBlocks() {
         LocalDateTime now = LocalDateTime.now();
-        
-        // 🚨 CAMBIO AQUÍ: Usar el método con el @Query explícito
-        int deleted = blockedStoryRepository.deleteExpiredBlocks(now); 
-        
-        log.info("🧹 Limpieza automática ejecutada a {} — bloqueos eliminados: {}", now, deleted);
+
+        // 📦 Las historias liberadas vuelven al pool de asignación al confirmar
+        List<StoryCandidate> released = blockedStoryRepository.findExpiredCandidates(now);
+
+        int deleted = blockedStoryRepository.deleteExpiredBlocks(now);
+        leaseTable.releaseExpired(now);
+        released.forEach(c -> {
+            assignmentPool.addAfterCommit(c.id(), c.collaborationCount());
+            eventBroadcaster.publishAfterCommit(StoryEvent.storyAvailable(c.id()));
+        });
+
+        log.info("🧹 Conciliación de bloqueos ejecutada a {} — bloqueos eliminados: {}", now, deleted);
     }
 }
@@ -1,6 +1,8 @@
 package dev.lin.exquis.blockedStory;
 
+import dev.lin.exquis.security.SecurityUser;
 import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.Duration;
@@ -14,6 +16,7 @@ import java.util.Map;
 public class BlockedStoryController {
 
     private final BlockedStoryService blockedStoryService;
+    private final LeaseHeartbeatService heartbeatService;
 
     /**
      * 🔒 Bloquea una historia durante 30 minutos para el usuario.
@@ -55,6 +58,24 @@ public class BlockedStoryController {
                 .orElse(Map.of("blocked", false));
     }
 
+    /**
+     * 💓 Latido de la sesión de escritura: renueva la reserva del usuario con un TTL corto.
+     * Pensado para llamarse cada ~30 segundos; si deja de llegar, la historia se libera en minutos.
+     */
+    @PostMapping("/{storyId}/heartbeat")
+    public Map<String, Object> heartbeat(@PathVariable Long storyId, @AuthenticationPrincipal SecurityUser principal) {
+        StoryLease lease = heartbeatService.heartbeat(storyId, principal.getUser().getId());
+
+        long secondsRemaining = Math.max(0, Duration.between(LocalDateTime.now(), lease.expiresAt()).getSeconds());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("storyId", lease.storyId());
+        response.put("blockedUntil", lease.expiresAt());
+        response.put("timeRemaining", secondsRemaining); // en segundos
+        response.put("ttl", heartbeatService.getTtlSeconds());
+        return response;
+    }
+
     /**
      * 🔓 Desbloquea manualmente la historia (por abandono o envío).
      */
@@ -1,5 +1,6 @@
 package dev.lin.exquis.blockedStory;
 
+import dev.lin.exquis.story.StoryCandidate;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -8,6 +9,7 @@ import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -32,8 +34,39 @@ public interface BlockedStoryRepository extends JpaRepository<BlockedStoryEntity
     @Query("DELETE FROM BlockedStoryEntity b WHERE b.blockedUntil < :now")
     int deleteExpiredBlocks(@Param("now") LocalDateTime now);
     
+    // ✅ Historias no finalizadas cuyo bloqueo ha expirado (vuelven al pool de asignación)
+    @Query("""
+        SELECT new dev.lin.exquis.story.StoryCandidate(s.id, s.extension, s.collaborationCount)
+        FROM BlockedStoryEntity b JOIN b.story s
+        WHERE b.blockedUntil < :now AND s.finished = false
+    """)
+    List<StoryCandidate> findExpiredCandidates(@Param("now") LocalDateTime now);
+
+    // ✅ Historias no finalizadas de los bloqueos indicados que ya vencieron (para devolverlas al pool)
+    @Query("""
+        SELECT new dev.lin.exquis.story.StoryCandidate(s.id, s.extension, s.collaborationCount)
+        FROM BlockedStoryEntity b JOIN b.story s
+        WHERE s.id IN :storyIds AND b.blockedUntil <= :now AND s.finished = false
+    """)
+    List<StoryCandidate> findExpiredCandidatesByStoryIds(@Param("storyIds") Collection<Long> storyIds,
+                                                         @Param("now") LocalDateTime now);
+
+    // ✅ Borrado por lotes de los bloqueos vencidos que indica la rueda de reservas
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM BlockedStoryEntity b WHERE b.story.id IN :storyIds AND b.blockedUntil <= :now")
+    int deleteExpiredByStoryIds(@Param("storyIds") Collection<Long> storyIds, @Param("now") LocalDateTime now);
+
+    // ✅ Bloqueo vigente del usuario (ignora los vencidos que aún no se han borrado)
+    @Query("SELECT b FROM BlockedStoryEntity b WHERE b.lockedBy.email = :email AND b.blockedUntil > :now")
+    Optional<BlockedStoryEntity> findActiveByUserEmail(@Param("email") String email, @Param("now") LocalDateTime now);
+
     // ✅ NUEVO: Obtener bloqueos vigentes
     @Query("SELECT b FROM BlockedStoryEntity b WHERE b.blockedUntil > :now")
     List<BlockedStoryEntity> findActiveBlocks(@Param("now") LocalDateTime now);
 
+    // ✅ Todas las reservas para reconstruir la tabla en memoria al arrancar (las vencidas caducan en el primer tick)
+    @Query("SELECT new dev.lin.exquis.blockedStory.StoryLease(b.story.id, b.lockedBy.id, b.blockedUntil) FROM BlockedStoryEntity b")
+    List<StoryLease> findAllLeases();
+
 }
\ No newline at end of file
@@ -2,7 +2,9 @@ package dev.lin.exquis.blockedStory;
 
 import dev.lin.exquis.blockedStory.exceptions.BlockedStoryNotFoundException;
 import dev.lin.exquis.blockedStory.exceptions.StoryAlreadyBlockedException;
+import dev.lin.exquis.story.AssignmentPool;
 import dev.lin.exquis.story.StoryEntity;
+import dev.lin.exquis.story.StoryEventBroadcaster;
 import dev.lin.exquis.story.StoryRepository;
 import dev.lin.exquis.user.UserEntity;
 import dev.lin.exquis.user.UserRepository;
@@ -20,6 +22,9 @@ public class BlockedStoryServiceImpl implements BlockedStoryService {
     private final BlockedStoryRepository blockedStoryRepository;
     private final StoryRepository storyRepository;
     private final UserRepository userRepository;
+    private final AssignmentPool assignmentPool;
+    private final StoryLeaseTable leaseTable;
+    private final StoryEventBroadcaster eventBroadcaster;
 
     // 🔹 Métodos específicos del servicio de bloqueo
 
@@ -34,18 +39,30 @@ public class BlockedStoryServiceImpl implements BlockedStoryService {
         UserEntity user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
 
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime blockedUntil = now.plusMinutes(30);
+        // 🔒 Reserva atómica: si otro usuario la acaba de reservar, no se duplica el bloqueo
+        if (!leaseTable.tryAcquire(storyId, userId, blockedUntil, now)) {
+            throw new StoryAlreadyBlockedException(storyId);
+        }
+        leaseTable.releaseOnRollback(storyId, userId);
+
         BlockedStoryEntity blocked = BlockedStoryEntity.builder()
                 .story(story)
                 .lockedBy(user)
-                .blockedUntil(LocalDateTime.now().plusMinutes(30))
+                .blockedUntil(blockedUntil)
                 .build();
 
-        return blockedStoryRepository.save(blocked);
+        BlockedStoryEntity saved = blockedStoryRepository.save(blocked);
+        assignmentPool.remove(storyId);
+        return saved;
     }
 
     @Override
     public void unblockStory(Long storyId) {
         blockedStoryRepository.deleteByStoryId(storyId);
+        leaseTable.releaseAfterCommit(storyId);
+        storyRepository.findById(storyId).ifPresent(this::releaseToPool);
     }
 
     @Override
@@ -88,10 +105,16 @@ public class BlockedStoryServiceImpl implements BlockedStoryService {
 
     @Override
     public void deleteEntity(Long id) {
-        if (!blockedStoryRepository.existsById(id)) {
-            throw new BlockedStoryNotFoundException(id);
-        }
-        blockedStoryRepository.deleteById(id);
+        BlockedStoryEntity existing = getByID(id);
+        blockedStoryRepository.delete(existing);
+        leaseTable.releaseAfterCommit(existing.getStory().getId());
+        storyRepository.findById(existing.getStory().getId()).ifPresent(this::releaseToPool);
+    }
+
+    // 📦 De vuelta al pool y aviso a los clientes suscritos
+    private void releaseToPool(StoryEntity story) {
+        assignmentPool.release(story);
+        eventBroadcaster.publishReleasedAfterCommit(story.getId(), !story.isFinished());
     }
 
     public void deleteByStoryId(Long storyId) {
@@ -0,0 +1,80 @@
+package dev.lin.exquis.blockedStory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rueda de tiempos con hash: cada vencimiento cae en la casilla de su tick
+ * y avanzar la rueda solo recorre las casillas de los ticks transcurridos,
+ * sin ordenar ni revisar el resto de vencimientos pendientes.
+ * No cancela entradas: quien la usa valida cada vencimiento al recibirlo.
+ */
+final class HashedTimingWheel {
+
+    record Timeout(long key, long deadlineMillis) {
+    }
+
+    private record Entry(Timeout timeout, long deadlineTick) {
+    }
+
+    private final long tickMillis;
+    private final int mask;
+    private final List<List<Entry>> buckets;
+    private long currentTick;
+    private int pending;
+
+    /** @param wheelSize número de casillas; se redondea a potencia de 2 */
+    HashedTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        int size = Integer.highestOneBit(Math.max(2, wheelSize - 1)) << 1;
+        this.tickMillis = tickMillis;
+        this.mask = size - 1;
+        this.buckets = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        this.currentTick = Math.floorDiv(startMillis, tickMillis);
+    }
+
+    /** Programa un vencimiento; si ya pasó, vence en el siguiente avance. */
+    synchronized void schedule(long key, long deadlineMillis) {
+        long deadlineTick = Math.max(ceilDiv(deadlineMillis, tickMillis), currentTick + 1);
+        buckets.get((int) (deadlineTick & mask)).add(new Entry(new Timeout(key, deadlineMillis), deadlineTick));
+        pending++;
+    }
+
+    /** Avanza hasta {@code nowMillis} y devuelve los vencimientos alcanzados. */
+    synchronized List<Timeout> advance(long nowMillis) {
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        if (targetTick <= currentTick) {
+            return List.of();
+        }
+        List<Timeout> due = new ArrayList<>();
+        // Tras una pausa larga basta una vuelta completa: cada casilla se revisa una vez
+        long steps = Math.min(targetTick - currentTick, buckets.size());
+        for (long step = 1; step <= steps; step++) {
+            buckets.get((int) ((currentTick + step) & mask)).removeIf(entry -> {
+                if (entry.deadlineTick() > targetTick) {
+                    return false;
+                }
+                due.add(entry.timeout());
+                return true;
+            });
+        }
+        pending -= due.size();
+        currentTick = targetTick;
+        return due;
+    }
+
+    synchronized int pending() {
+        return pending;
+    }
+
+    synchronized void clear() {
+        buckets.forEach(List::clear);
+        pending = 0;
+    }
+
+    private static long ceilDiv(long value, long divisor) {
+        return -Math.floorDiv(-value, divisor);
+    }
+}
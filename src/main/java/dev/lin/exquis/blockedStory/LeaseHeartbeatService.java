@@ -0,0 +1,101 @@
+package dev.lin.exquis.blockedStory;
+
+import dev.lin.exquis.blockedStory.exceptions.LeaseNotHeldException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latidos de las sesiones de escritura. Cada latido renueva la reserva en
+ * memoria con un TTL corto; las renovaciones se agrupan por historia (gana
+ * la última) y se escriben en blocked_stories por lotes, así un latido no
+ * hace ninguna escritura síncrona en la base de datos.
+ */
+@Service
+@Slf4j
+public class LeaseHeartbeatService {
+
+    private static final String RENEW_SQL =
+            "UPDATE blocked_stories SET blocked_until = ? WHERE story_id = ? AND locked_by = ?";
+
+    private final StoryLeaseTable leaseTable;
+    private final JdbcTemplate jdbcTemplate;
+
+    // Renovaciones pendientes de escribir, por historia
+    private final ConcurrentHashMap<Long, StoryLease> pending = new ConcurrentHashMap<>();
+
+    @Value("${exquis.leases.heartbeat-ttl-seconds:120}")
+    private long ttlSeconds;
+
+    @Value("${exquis.leases.heartbeat-flush-batch-size:500}")
+    private int batchSize;
+
+    public LeaseHeartbeatService(StoryLeaseTable leaseTable, JdbcTemplate jdbcTemplate) {
+        this.leaseTable = leaseTable;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 💓 Renueva la reserva del usuario durante el TTL a partir de ahora.
+     * Lanza {@link LeaseNotHeldException} si la reserva no es suya o ya caducó.
+     */
+    public StoryLease heartbeat(Long storyId, Long userId) {
+        LocalDateTime now = LocalDateTime.now();
+        StoryLease renewed = leaseTable.renew(storyId, userId, now.plusSeconds(ttlSeconds), now)
+                .orElseThrow(() -> new LeaseNotHeldException(storyId));
+        pending.put(storyId, renewed);
+        return renewed;
+    }
+
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    /**
+     * 🕒 Escribe por lotes las renovaciones acumuladas desde la última vez.
+     */
+    @Scheduled(fixedDelayString = "${exquis.leases.heartbeat-flush-ms:5000}")
+    public int flush() {
+        List<StoryLease> renewals = drain();
+        if (renewals.isEmpty()) {
+            return 0;
+        }
+        try {
+            jdbcTemplate.batchUpdate(RENEW_SQL, renewals, batchSize, (statement, lease) -> {
+                statement.setTimestamp(1, Timestamp.valueOf(lease.expiresAt()));
+                statement.setLong(2, lease.storyId());
+                statement.setLong(3, lease.userId());
+            });
+        } catch (RuntimeException e) {
+            log.error("💓 Error guardando {} renovaciones de reservas, se reintentará", renewals.size(), e);
+            // Si entretanto llegó otro latido, ese es más reciente y se conserva
+            renewals.forEach(lease -> pending.putIfAbsent(lease.storyId(), lease));
+            return 0;
+        }
+        log.debug("💓 Guardadas {} renovaciones de reservas", renewals.size());
+        return renewals.size();
+    }
+
+    int pendingCount() {
+        return pending.size();
+    }
+
+    private List<StoryLease> drain() {
+        List<StoryLease> renewals = new ArrayList<>(pending.size());
+        for (Long storyId : pending.keySet()) {
+            StoryLease lease = pending.remove(storyId);
+            if (lease != null) {
+                renewals.add(lease);
+            }
+        }
+        return renewals;
+    }
+}
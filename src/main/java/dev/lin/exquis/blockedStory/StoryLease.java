@@ -0,0 +1,17 @@
+package dev.lin.exquis.blockedStory;
+
+import java.time.LocalDateTime;
+
+/**
+ * Reserva en memoria de una historia por un usuario hasta {@code expiresAt}.
+ */
+public record StoryLease(
+        Long storyId,
+        Long userId,
+        LocalDateTime expiresAt
+) {
+    /** Caduca en el mismo instante de {@code expiresAt}. */
+    public boolean isExpired(LocalDateTime now) {
+        return !expiresAt.isAfter(now);
+    }
+}
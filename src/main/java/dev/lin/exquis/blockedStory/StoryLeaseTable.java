@@ -0,0 +1,159 @@
+package dev.lin.exquis.blockedStory;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static dev.lin.exquis.config.TransactionCallbacks.afterCommit;
+import static dev.lin.exquis.config.TransactionCallbacks.afterRollback;
+
+/**
+ * Tabla en memoria de historias reservadas. Reservar es un compare-and-set
+ * sobre la historia: si dos usuarios compiten por ella solo uno gana, sin
+ * reintentos ni bloqueos de fila. Refleja las filas de blocked_stories.
+ * <p>
+ * Cada reserva se programa en una rueda de tiempos, así las caducadas se
+ * obtienen justo al vencer sin recorrer la tabla ni consultar la base de datos.
+ * La rueda usa como resolución el mismo {@code exquis.leases.tick-ms} con el que
+ * BlockedStoryCleanupScheduler la avanza.
+ */
+@Component
+@Slf4j
+public class StoryLeaseTable {
+
+    private static final int WHEEL_SIZE = 512;
+
+    private final ConcurrentHashMap<Long, StoryLease> leases = new ConcurrentHashMap<>();
+    private final HashedTimingWheel expirations;
+
+    public StoryLeaseTable(@Value("${exquis.leases.tick-ms:1000}") long tickMillis) {
+        this.expirations = new HashedTimingWheel(tickMillis, WHEEL_SIZE, System.currentTimeMillis());
+    }
+
+    /**
+     * Reserva la historia para el usuario. Una reserva caducada se puede
+     * sustituir; una vigente no. Devuelve false si otro usuario la tiene.
+     */
+    public boolean tryAcquire(long storyId, long userId, LocalDateTime expiresAt, LocalDateTime now) {
+        StoryLease lease = new StoryLease(storyId, userId, expiresAt);
+        StoryLease current = leases.putIfAbsent(storyId, lease);
+        boolean acquired = current == null
+                || (current.isExpired(now) && leases.replace(storyId, current, lease));
+        if (acquired) {
+            scheduleExpiry(lease);
+        }
+        return acquired;
+    }
+
+    /**
+     * Renueva la reserva vigente del usuario hasta {@code expiresAt}.
+     * Vacío si la historia no está reservada por él o su reserva ya caducó.
+     */
+    public Optional<StoryLease> renew(long storyId, long userId, LocalDateTime expiresAt, LocalDateTime now) {
+        StoryLease renewed = new StoryLease(storyId, userId, expiresAt);
+        StoryLease result = leases.computeIfPresent(storyId, (id, lease) ->
+                lease.userId() == userId && !lease.isExpired(now) ? renewed : lease);
+        if (result != renewed) {
+            return Optional.empty();
+        }
+        scheduleExpiry(renewed);
+        return Optional.of(renewed);
+    }
+
+    /**
+     * Avanza la rueda y devuelve las reservas que han caducado. Siguen en la
+     * tabla hasta que {@link #releaseIfExpired} las quite tras borrar sus filas.
+     */
+    public List<StoryLease> pollExpired(LocalDateTime now) {
+        Map<Long, StoryLease> expired = new LinkedHashMap<>();
+        for (HashedTimingWheel.Timeout timeout : expirations.advance(toMillis(now))) {
+            StoryLease lease = leases.get(timeout.key());
+            if (lease == null) {
+                continue; // Liberada antes de vencer
+            }
+            if (lease.isExpired(now)) {
+                expired.put(lease.storyId(), lease);
+            } else if (toMillis(lease.expiresAt()) == timeout.deadlineMillis()) {
+                expirations.schedule(timeout.key(), timeout.deadlineMillis()); // Aún no: se reintenta
+            }
+            // Si no, la reserva se sustituyó y ya tiene su propio vencimiento programado
+        }
+        return new ArrayList<>(expired.values());
+    }
+
+    /** Vuelve a programar el vencimiento de la reserva (p. ej. si falló su borrado). */
+    public void scheduleExpiry(StoryLease lease) {
+        expirations.schedule(lease.storyId(), toMillis(lease.expiresAt()));
+    }
+
+    public Optional<StoryLease> find(long storyId) {
+        return Optional.ofNullable(leases.get(storyId));
+    }
+
+    public boolean isLeased(long storyId, LocalDateTime now) {
+        StoryLease lease = leases.get(storyId);
+        return lease != null && !lease.isExpired(now);
+    }
+
+    public void release(long storyId) {
+        leases.remove(storyId);
+    }
+
+    /** Quita la reserva solo si ya caducó (no pisa una reserva nueva de otro usuario). */
+    public void releaseIfExpired(long storyId, LocalDateTime now) {
+        leases.computeIfPresent(storyId, (id, lease) -> lease.isExpired(now) ? null : lease);
+    }
+
+    /** Quita todas las reservas caducadas; devuelve cuántas se quitaron. */
+    public int releaseExpired(LocalDateTime now) {
+        int released = 0;
+        for (StoryLease lease : leases.values()) {
+            if (lease.isExpired(now) && leases.remove(lease.storyId(), lease)) {
+                released++;
+            }
+        }
+        return released;
+    }
+
+    public void releaseAfterCommit(long storyId) {
+        afterCommit(() -> release(storyId));
+    }
+
+    /** Si la transacción que reservó la historia falla, la reserva se deshace. */
+    public void releaseOnRollback(long storyId, long userId) {
+        afterRollback(() -> leases.computeIfPresent(storyId,
+                (id, lease) -> lease.userId() == userId ? null : lease));
+    }
+
+    public void rebuild(Collection<StoryLease> active) {
+        leases.clear();
+        expirations.clear();
+        active.forEach(lease -> {
+            leases.put(lease.storyId(), lease);
+            scheduleExpiry(lease);
+        });
+        log.info("🔒 Tabla de reservas reconstruida: {} historias reservadas", leases.size());
+    }
+
+    public int size() {
+        return leases.size();
+    }
+
+    int pendingExpirations() {
+        return expirations.pending();
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
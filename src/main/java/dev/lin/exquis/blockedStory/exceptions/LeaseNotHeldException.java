@@ -0,0 +1,11 @@
+package dev.lin.exquis.blockedStory.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class LeaseNotHeldException extends RuntimeException {
+    public LeaseNotHeldException(Long storyId) {
+        super("No tienes una reserva vigente sobre la historia con ID " + storyId + ".");
+    }
+}
@@ -0,0 +1,264 @@
+package dev.lin.exquis.collaboration;
+
+import dev.lin.exquis.collaboration.dtos.CollaborationBatchItemDTO;
+import dev.lin.exquis.collaboration.dtos.CollaborationBatchResultDTO;
+import dev.lin.exquis.collaboration.exceptions.InvalidCollaborationException;
+import dev.lin.exquis.collaboration.exceptions.StoryAlreadyFinishedException;
+import dev.lin.exquis.outbox.DomainEventOutbox;
+import dev.lin.exquis.outbox.OutboxEvent;
+import dev.lin.exquis.story.AssignmentPool;
+import dev.lin.exquis.story.StoryCompletedEvent;
+import dev.lin.exquis.story.StoryEntity;
+import dev.lin.exquis.story.StoryReadCache;
+import dev.lin.exquis.story.StoryRepository;
+import dev.lin.exquis.story.UserEligibilityIndex;
+import dev.lin.exquis.user.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Alta masiva de colaboraciones (importación de talleres, carga de datos de prueba).
+ * Usuarios e historias se resuelven con una consulta IN cada uno; las historias se
+ * bloquean juntas, los números de orden se reparten en memoria y todo se escribe
+ * con lotes JDBC en una única transacción.
+ */
+@Service
+@Slf4j
+public class CollaborationBatchService {
+
+    // Mismo límite que la columna collaborations.text
+    private static final int MAX_TEXT_LENGTH = 260;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO collaborations (text, order_number, created_at, story_id, user_id) VALUES (?, ?, ?, ?, ?)";
+    private static final String UPDATE_STORY_SQL =
+            "UPDATE stories SET collaboration_count = ?, last_order_number = ?, finished = ?, "
+                    + "updated_at = COALESCE(?, updated_at) WHERE id = ?";
+
+    private record Accepted(int index, CollaborationBatchItemDTO item, long userId, int orderNumber) {
+    }
+
+    private final UserRepository userRepository;
+    private final StoryRepository storyRepository;
+    private final AssignmentPool assignmentPool;
+    private final UserEligibilityIndex eligibilityIndex;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DomainEventOutbox outbox;
+    private final StoryReadCache readCache;
+    // Solo existe con exquis.collaborations.write-behind.enabled=true
+    private final Optional<CollaborationIngestService> ingestService;
+
+    @Value("${exquis.collaborations.batch.max-items:5000}")
+    private int maxItems;
+
+    @Value("${exquis.collaborations.batch.jdbc-batch-size:500}")
+    private int jdbcBatchSize;
+
+    public CollaborationBatchService(UserRepository userRepository,
+                                     StoryRepository storyRepository,
+                                     AssignmentPool assignmentPool,
+                                     UserEligibilityIndex eligibilityIndex,
+                                     JdbcTemplate jdbcTemplate,
+                                     ApplicationEventPublisher eventPublisher,
+                                     DomainEventOutbox outbox,
+                                     StoryReadCache readCache,
+                                     Optional<CollaborationIngestService> ingestService) {
+        this.userRepository = userRepository;
+        this.storyRepository = storyRepository;
+        this.assignmentPool = assignmentPool;
+        this.eligibilityIndex = eligibilityIndex;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.outbox = outbox;
+        this.readCache = readCache;
+        this.ingestService = ingestService;
+    }
+
+    /**
+     * Crea las colaboraciones válidas y devuelve un resultado por elemento, en el mismo orden.
+     * Los elementos inválidos, de usuarios o historias inexistentes o que no caben en su
+     * historia se rechazan sin afectar al resto.
+     */
+    @Transactional
+    public List<CollaborationBatchResultDTO> createCollaborations(List<CollaborationBatchItemDTO> items, Long defaultUserId) {
+        if (items == null || items.isEmpty()) {
+            return List.of();
+        }
+        if (items.size() > maxItems) {
+            throw new InvalidCollaborationException("Como máximo " + maxItems + " colaboraciones por petición");
+        }
+
+        // 🔍 Una consulta para todos los usuarios y otra (con bloqueo) para todas las historias
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> storyIds = new HashSet<>();
+        for (CollaborationBatchItemDTO item : items) {
+            userIds.add(item.getUserId() != null ? item.getUserId() : defaultUserId);
+            if (item.getStoryId() != null) {
+                storyIds.add(item.getStoryId());
+            }
+        }
+        userIds.remove(null);
+        Set<Long> existingUsers = userIds.isEmpty() ? Set.of() : userRepository.findExistingIds(userIds);
+        if (ingestService.isPresent()) {
+            return enqueue(items, defaultUserId, existingUsers, ingestService.get());
+        }
+        Map<Long, StoryEntity> stories = storyIds.isEmpty() ? Map.of()
+                : storyRepository.findAllByIdForUpdate(storyIds).stream()
+                        .collect(Collectors.toMap(StoryEntity::getId, Function.identity()));
+
+        // 🔢 Reparto de números de orden por historia, respetando su extensión
+        CollaborationBatchResultDTO[] results = new CollaborationBatchResultDTO[items.size()];
+        List<Accepted> accepted = new ArrayList<>(items.size());
+        Map<Long, int[]> counters = new HashMap<>(); // historia → {colaboraciones, último orden}
+        for (int i = 0; i < items.size(); i++) {
+            CollaborationBatchItemDTO item = items.get(i);
+            Long userId = item.getUserId() != null ? item.getUserId() : defaultUserId;
+            StoryEntity story = item.getStoryId() != null ? stories.get(item.getStoryId()) : null;
+
+            String error = validate(item, userId, existingUsers, story);
+            if (error != null) {
+                results[i] = CollaborationBatchResultDTO.rejected(i, item.getStoryId(), error);
+                continue;
+            }
+            int[] counter = counters.computeIfAbsent(story.getId(),
+                    id -> new int[] {story.getCollaborationCount(), story.getLastOrderNumber()});
+            if (counter[0] >= story.getExtension()) {
+                results[i] = CollaborationBatchResultDTO.rejected(i, story.getId(), "La historia ya está completa");
+                continue;
+            }
+            counter[0]++;
+            counter[1]++;
+            accepted.add(new Accepted(i, item, userId, counter[1]));
+            results[i] = CollaborationBatchResultDTO.created(i, story.getId(), counter[1]);
+        }
+
+        if (!accepted.isEmpty()) {
+            write(accepted, counters, stories);
+        }
+        log.info("📥 Alta masiva: {} creadas, {} rechazadas", accepted.size(), items.size() - accepted.size());
+        return List.of(results);
+    }
+
+    /**
+     * Con escritura diferida la numeración vive en la secuencia en memoria de
+     * {@link CollaborationIngestService}: cada elemento válido se encola con ella, igual
+     * que un envío individual, y se guarda en segundo plano. Numerar aquí desde
+     * {@code stories.last_order_number} duplicaría números ya repartidos y aún sin guardar.
+     */
+    private List<CollaborationBatchResultDTO> enqueue(List<CollaborationBatchItemDTO> items, Long defaultUserId,
+                                                      Set<Long> existingUsers, CollaborationIngestService ingest) {
+        List<CollaborationBatchResultDTO> results = new ArrayList<>(items.size());
+        int created = 0;
+        for (int i = 0; i < items.size(); i++) {
+            CollaborationBatchItemDTO item = items.get(i);
+            Long userId = item.getUserId() != null ? item.getUserId() : defaultUserId;
+            String error = validateItem(item, userId, existingUsers);
+            if (error == null && item.getStoryId() == null) {
+                error = "Historia no encontrada: null";
+            }
+            if (error != null) {
+                results.add(CollaborationBatchResultDTO.rejected(i, item.getStoryId(), error));
+                continue;
+            }
+            try {
+                PendingCollaboration pending = ingest.submit(item.getStoryId(), userId, item.getText());
+                results.add(CollaborationBatchResultDTO.created(i, item.getStoryId(), pending.orderNumber()));
+                created++;
+            } catch (StoryAlreadyFinishedException e) {
+                results.add(CollaborationBatchResultDTO.rejected(i, item.getStoryId(), "La historia ya está completa"));
+            } catch (RuntimeException e) {
+                // Historia inexistente o cola llena: se rechaza solo este elemento
+                results.add(CollaborationBatchResultDTO.rejected(i, item.getStoryId(), e.getMessage()));
+            }
+        }
+        log.info("📥 Alta masiva en cola: {} aceptadas, {} rechazadas", created, items.size() - created);
+        return List.copyOf(results);
+    }
+
+    private String validate(CollaborationBatchItemDTO item, Long userId, Set<Long> existingUsers, StoryEntity story) {
+        String error = validateItem(item, userId, existingUsers);
+        if (error != null) {
+            return error;
+        }
+        if (story == null) {
+            return "Historia no encontrada: " + item.getStoryId();
+        }
+        if (story.isFinished()) {
+            return "La historia ya está completa";
+        }
+        return null;
+    }
+
+    private String validateItem(CollaborationBatchItemDTO item, Long userId, Set<Long> existingUsers) {
+        if (item.getText() == null || item.getText().isBlank() || item.getText().length() > MAX_TEXT_LENGTH) {
+            return "El texto debe tener entre 1 y " + MAX_TEXT_LENGTH + " caracteres";
+        }
+        if (userId == null || !existingUsers.contains(userId)) {
+            return "Usuario no encontrado: " + userId;
+        }
+        return null;
+    }
+
+    private void write(List<Accepted> accepted, Map<Long, int[]> counters, Map<Long, StoryEntity> stories) {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp createdAt = Timestamp.valueOf(now);
+        jdbcTemplate.batchUpdate(INSERT_SQL, accepted, jdbcBatchSize, (statement, a) -> {
+            statement.setString(1, a.item().getText());
+            statement.setInt(2, a.orderNumber());
+            statement.setTimestamp(3, createdAt);
+            statement.setLong(4, a.item().getStoryId());
+            statement.setLong(5, a.userId());
+        });
+
+        // Las filas de las historias están bloqueadas: se escriben los contadores finales
+        List<Map.Entry<Long, int[]>> updates = new ArrayList<>(counters.entrySet());
+        jdbcTemplate.batchUpdate(UPDATE_STORY_SQL, updates, jdbcBatchSize, (statement, entry) -> {
+            int collaborationCount = entry.getValue()[0];
+            boolean finished = collaborationCount >= stories.get(entry.getKey()).getExtension();
+            statement.setInt(1, collaborationCount);
+            statement.setInt(2, entry.getValue()[1]);
+            statement.setBoolean(3, finished);
+            statement.setTimestamp(4, finished ? createdAt : null);
+            statement.setLong(5, entry.getKey());
+        });
+
+        // 📦 Al confirmar: pool de asignación e índice de elegibilidad al día
+        List<DomainEventOutbox.Draft> events = new ArrayList<>(accepted.size() + updates.size());
+        updates.forEach(entry -> {
+            long storyId = entry.getKey();
+            int collaborationCount = entry.getValue()[0];
+            // También la saca de la caché de segundo nivel: el UPDATE por JDBC no pasa por Hibernate
+            readCache.evictStoryAfterCommit(storyId);
+            if (collaborationCount >= stories.get(storyId).getExtension()) {
+                assignmentPool.removeAfterCommit(storyId);
+                eventPublisher.publishEvent(new StoryCompletedEvent(storyId, now));
+                events.add(new DomainEventOutbox.Draft(OutboxEvent.STORY_FINISHED, storyId, Map.of("finishedAt", now.toString())));
+            } else {
+                assignmentPool.updateAfterCommit(storyId, collaborationCount);
+            }
+        });
+        accepted.forEach(a -> {
+            eligibilityIndex.recordAfterCommit(a.userId(), a.item().getStoryId(), a.orderNumber());
+            events.add(new DomainEventOutbox.Draft(OutboxEvent.COLLABORATION_ADDED, a.item().getStoryId(),
+                    Map.of("orderNumber", a.orderNumber(), "userId", a.userId())));
+        });
+        outbox.recordAll(events);
+    }
+}
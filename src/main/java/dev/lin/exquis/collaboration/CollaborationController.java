@@ -1,14 +1,28 @@
 package dev.lin.exquis.collaboration;
 
+import dev.lin.exquis.collaboration.dtos.CollaborationBatchItemDTO;
+import dev.lin.exquis.collaboration.dtos.CollaborationBatchResultDTO;
 import dev.lin.exquis.collaboration.dtos.CollaborationRequestDTO;
 import dev.lin.exquis.collaboration.dtos.CollaborationResponseDTO;
+import dev.lin.exquis.security.SecurityUser;
+import dev.lin.exquis.story.StorySnapshotEntity;
+import dev.lin.exquis.story.StorySnapshotService;
+import dev.lin.exquis.user.UserEntity;
 import lombok.RequiredArgsConstructor;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @RestController
@@ -17,6 +31,13 @@ import java.util.stream.Collectors;
 public class CollaborationController {
 
     private final CollaborationService collaborationService;
+    private final CollaborationBatchService batchService;
+    // Solo existe con exquis.collaborations.write-behind.enabled=true
+    private final Optional<CollaborationIngestService> ingestService;
+    private final StorySnapshotService snapshotService;
+
+    @Value("${exquis.stories.snapshots.max-age-seconds:86400}")
+    private long snapshotMaxAgeSeconds;
 
     // 🔹 Obtener todas las colaboraciones (solo para pruebas o administración)
     @GetMapping
@@ -34,13 +55,42 @@ public class CollaborationController {
     }
 
     // 🔹 Crear una nueva colaboración (se llama al enviar la aportación)
+    // Con escritura diferida responde 202 con el número de orden ya asignado; se guarda en segundo plano
     @PostMapping
-    public CollaborationResponseDTO createCollaboration(
+    public ResponseEntity<CollaborationResponseDTO> createCollaboration(
             @RequestBody CollaborationRequestDTO request,
             Authentication authentication) {
+        if (ingestService.isPresent() && authentication.getPrincipal() instanceof SecurityUser principal) {
+            UserEntity user = principal.getUser();
+            PendingCollaboration pending = ingestService.get().submit(request.getStoryId(), user, request.getText());
+            // Sin tocar la base de datos: el autor sale del principal. Con tokens sin estado solo
+            // trae id, email y roles, así que los nombres llegan al leer la historia
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(CollaborationResponseDTO.builder()
+                    .text(pending.text())
+                    .orderNumber(pending.orderNumber())
+                    .createdAt(pending.createdAt())
+                    .storyId(pending.storyId())
+                    .user(CollaborationResponseDTO.UserBasicDTO.builder()
+                            .id(user.getId())
+                            .username(user.getUsername())
+                            .name(user.getName())
+                            .surname(user.getSurname())
+                            .build())
+                    .build());
+        }
+
         String username = authentication.getName();
         CollaborationEntity created = collaborationService.createCollaboration(request, username);
-        return CollaborationResponseDTO.fromEntity(created);
+        return ResponseEntity.ok(CollaborationResponseDTO.fromEntity(created));
+    }
+
+    // 🔹 Alta masiva (solo ADMIN): importación de talleres y carga de datos de prueba.
+    // Devuelve un resultado por elemento, en el mismo orden que la petición
+    @PostMapping("/batch")
+    public List<CollaborationBatchResultDTO> createCollaborations(
+            @RequestBody List<CollaborationBatchItemDTO> items,
+            @AuthenticationPrincipal SecurityUser principal) {
+        return batchService.createCollaborations(items, principal.getUser().getId());
     }
 
     // 🔹 Actualizar colaboración (rara vez usado, pero mantenido por coherencia)
@@ -60,8 +110,36 @@ public class CollaborationController {
     }
 
     // 🔹 Obtener todas las colaboraciones de una historia específica
+    // Las historias finalizadas no cambian: se sirven de su instantánea, con ETag y caché HTTP,
+    // ya comprimida con gzip si el cliente lo acepta
     @GetMapping("/story/{storyId}")
-    public ResponseEntity<List<CollaborationResponseDTO>> getCollaborationsByStory(@PathVariable Long storyId) {
+    public ResponseEntity<?> getCollaborationsByStory(
+            @PathVariable Long storyId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        Optional<StorySnapshotEntity> found = snapshotService.find(storyId);
+        if (found.isPresent()) {
+            StorySnapshotEntity snapshot = found.get();
+            boolean gzip = snapshot.getBodyGzip() != null && StorySnapshotService.acceptsGzip(acceptEncoding);
+            String etag = gzip ? snapshot.getGzipEtag() : snapshot.getEtag();
+            CacheControl cacheControl = CacheControl.maxAge(Duration.ofSeconds(snapshotMaxAgeSeconds)).cachePublic();
+            if (StorySnapshotService.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(etag)
+                        .cacheControl(cacheControl)
+                        .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                        .build();
+            }
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(cacheControl)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .contentType(MediaType.APPLICATION_JSON);
+            if (gzip) {
+                response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+            return response.body(gzip ? snapshot.getBodyGzip() : snapshot.getBody());
+        }
         List<CollaborationResponseDTO> dtos = collaborationService.getCollaborationsByStory(storyId);
         return ResponseEntity.ok(dtos);
     }
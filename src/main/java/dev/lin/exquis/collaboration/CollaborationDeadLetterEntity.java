@@ -0,0 +1,61 @@
+package dev.lin.exquis.collaboration;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Colaboración aceptada por la escritura diferida (el cliente ya recibió su 202 y su
+ * número de orden) que no se pudo guardar ni reintentándola sola. Se aparta aquí, sin
+ * claves foráneas, para revisarla y reintroducirla a mano en lugar de perderla.
+ * El número de orden es el que se comunicó; al reintroducirla puede haber que renumerar.
+ */
+@Entity
+@Table(name = "collaboration_dead_letters")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CollaborationDeadLetterEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "story_id", nullable = false)
+    private Long storyId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "order_number", nullable = false)
+    private Integer orderNumber;
+
+    @Column(nullable = false, length = 260)
+    private String text;
+
+    // Momento en que se aceptó
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "failed_at", nullable = false)
+    @Builder.Default
+    private LocalDateTime failedAt = LocalDateTime.now();
+
+    // Causa del último fallo, recortada
+    @Column(length = 500)
+    private String error;
+
+    static CollaborationDeadLetterEntity from(PendingCollaboration pending, Throwable cause) {
+        String error = String.valueOf(cause.getMessage());
+        return CollaborationDeadLetterEntity.builder()
+                .storyId(pending.storyId())
+                .userId(pending.userId())
+                .orderNumber(pending.orderNumber())
+                .text(pending.text())
+                .createdAt(pending.createdAt())
+                .error(error.length() > 500 ? error.substring(0, 500) : error)
+                .build();
+    }
+}
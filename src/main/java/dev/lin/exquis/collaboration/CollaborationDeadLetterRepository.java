@@ -0,0 +1,12 @@
+package dev.lin.exquis.collaboration;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CollaborationDeadLetterRepository extends JpaRepository<CollaborationDeadLetterEntity, Long> {
+
+    List<CollaborationDeadLetterEntity> findByStoryIdOrderByOrderNumberAsc(Long storyId);
+}
@@ -7,7 +7,10 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "collaborations")
+@Table(name = "collaborations", uniqueConstraints = {
+        // Un número de orden por historia: última defensa frente a asignaciones duplicadas
+        @UniqueConstraint(name = "uk_collaborations_story_order", columnNames = {"story_id", "order_number"})
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,364 @@
+package dev.lin.exquis.collaboration;
+
+import dev.lin.exquis.collaboration.exceptions.IngestionQueueFullException;
+import dev.lin.exquis.collaboration.exceptions.InvalidCollaborationException;
+import dev.lin.exquis.collaboration.exceptions.StoryAlreadyFinishedException;
+import dev.lin.exquis.collaboration.exceptions.SynchronousWriteDisabledException;
+import dev.lin.exquis.outbox.DomainEventOutbox;
+import dev.lin.exquis.outbox.OutboxEvent;
+import dev.lin.exquis.story.AssignmentPool;
+import dev.lin.exquis.story.StoryCompletedEvent;
+import dev.lin.exquis.story.StoryState;
+import dev.lin.exquis.story.StoryProgress;
+import dev.lin.exquis.story.StoryReadCache;
+import dev.lin.exquis.story.StoryRepository;
+import dev.lin.exquis.story.UserEligibilityIndex;
+import dev.lin.exquis.user.UserEntity;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static dev.lin.exquis.config.TransactionCallbacks.afterCommit;
+
+/**
+ * Escritura diferida de colaboraciones (opcional, {@code exquis.collaborations.write-behind.enabled}).
+ * <p>
+ * Al enviar, la colaboración se valida, recibe su número de orden de una secuencia
+ * en memoria por historia y entra en una cola acotada; la petición responde en el acto.
+ * Un único hilo vacía la cola por lotes: un INSERT por lotes JDBC y los contadores de
+ * cada historia en una sola transacción por lote. Si la cola está llena se rechaza
+ * con 503 en lugar de acumular hilos de Tomcat esperando.
+ * <p>
+ * La secuencia conoce la extensión de la historia, así que nunca acepta más
+ * colaboraciones de las que caben y la finalización sigue siendo exacta. Por eso,
+ * con la escritura diferida activada, es el único que numera: el alta masiva también
+ * pasa por aquí y la escritura síncrona se rechaza ({@link SynchronousWriteDisabledException}).
+ * <p>
+ * Una colaboración aceptada no se descarta: si su lote falla se reintenta sola, si
+ * vuelve a fallar se aparta en {@code collaboration_dead_letters}, y si ni eso se
+ * puede escribir (base de datos caída) el hilo la conserva y reintenta con espera creciente.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "exquis.collaborations.write-behind.enabled", havingValue = "true")
+public class CollaborationIngestService {
+
+    // Mismo límite que la columna collaborations.text
+    private static final int MAX_TEXT_LENGTH = 260;
+
+    private static final long RETRY_BACKOFF_MIN_MILLIS = 100;
+    private static final long RETRY_BACKOFF_MAX_MILLIS = 5_000;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO collaborations (text, order_number, created_at, story_id, user_id) VALUES (?, ?, ?, ?, ?)";
+
+    /** Números de orden de una historia con colaboraciones aún sin guardar. */
+    private static final class StorySequence {
+        final int extension;
+        int lastOrderNumber;
+        int collaborationCount;
+        int pending;
+        boolean retired;
+
+        StorySequence(StoryState story) {
+            this.extension = story.extension();
+            this.lastOrderNumber = story.lastOrderNumber();
+            this.collaborationCount = story.collaborationCount();
+        }
+    }
+
+    private final StoryRepository storyRepository;
+    private final AssignmentPool assignmentPool;
+    private final UserEligibilityIndex eligibilityIndex;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DomainEventOutbox outbox;
+    private final StoryReadCache readCache;
+    private final CollaborationDeadLetterRepository deadLetters;
+    private final TransactionTemplate transactionTemplate;
+
+    private final BlockingQueue<PendingCollaboration> queue;
+    private final ConcurrentHashMap<Long, StorySequence> sequences = new ConcurrentHashMap<>();
+    private final int batchSize;
+    private volatile boolean running;
+    private Thread flusher;
+
+    // Solo las usa el hilo de vaciado: pendientes que ni se guardaron ni se apartaron
+    private final List<PendingCollaboration> retry = new ArrayList<>();
+    private long retryBackoffMillis = RETRY_BACKOFF_MIN_MILLIS;
+
+    private final Counter accepted;
+    private final Counter rejected;
+    private final Counter flushed;
+    private final Counter failed;
+    private final Counter deadLettered;
+    private final Timer batchTimer;
+
+    public CollaborationIngestService(StoryRepository storyRepository,
+                                      AssignmentPool assignmentPool,
+                                      UserEligibilityIndex eligibilityIndex,
+                                      JdbcTemplate jdbcTemplate,
+                                      ApplicationEventPublisher eventPublisher,
+                                      DomainEventOutbox outbox,
+                                      StoryReadCache readCache,
+                                      CollaborationDeadLetterRepository deadLetters,
+                                      PlatformTransactionManager transactionManager,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${exquis.collaborations.write-behind.queue-capacity:10000}") int queueCapacity,
+                                      @Value("${exquis.collaborations.write-behind.batch-size:200}") int batchSize) {
+        this.storyRepository = storyRepository;
+        this.assignmentPool = assignmentPool;
+        this.eligibilityIndex = eligibilityIndex;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.outbox = outbox;
+        this.readCache = readCache;
+        this.deadLetters = deadLetters;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+
+        Gauge.builder("exquis.collaborations.ingest.queue.size", queue, BlockingQueue::size)
+                .description("Colaboraciones aceptadas pendientes de guardar")
+                .register(meterRegistry);
+        this.accepted = meterRegistry.counter("exquis.collaborations.ingest.accepted");
+        this.rejected = meterRegistry.counter("exquis.collaborations.ingest.rejected");
+        this.flushed = meterRegistry.counter("exquis.collaborations.ingest.flushed");
+        this.failed = meterRegistry.counter("exquis.collaborations.ingest.failed");
+        this.deadLettered = meterRegistry.counter("exquis.collaborations.ingest.dead-lettered");
+        this.batchTimer = meterRegistry.timer("exquis.collaborations.ingest.batch");
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        flusher = new Thread(this::flushLoop, "collaboration-ingest");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("📥 Escritura diferida de colaboraciones activada (cola de {})", queue.remainingCapacity());
+    }
+
+    /**
+     * Numera la colaboración y la deja en cola. Lanza {@link StoryAlreadyFinishedException}
+     * si la historia ya no admite más y {@link IngestionQueueFullException} si la cola está llena.
+     */
+    public PendingCollaboration submit(Long storyId, UserEntity user, String text) {
+        return submit(storyId, user.getId(), text);
+    }
+
+    /** Igual que {@link #submit(Long, UserEntity, String)}, con el autor por id (alta masiva). */
+    public PendingCollaboration submit(Long storyId, Long userId, String text) {
+        // Lo que fallaría al guardar se rechaza ya: una colaboración aceptada no puede perderse
+        if (storyId == null) {
+            throw new InvalidCollaborationException("Falta la historia de la colaboración");
+        }
+        if (text == null || text.isBlank() || text.length() > MAX_TEXT_LENGTH) {
+            throw new InvalidCollaborationException("El texto debe tener entre 1 y " + MAX_TEXT_LENGTH + " caracteres");
+        }
+        while (true) {
+            StorySequence sequence = sequences.computeIfAbsent(storyId, this::seed);
+            synchronized (sequence) {
+                if (sequence.retired) {
+                    continue; // Se acaba de retirar: se vuelve a cargar desde la base de datos
+                }
+                if (sequence.collaborationCount >= sequence.extension) {
+                    throw new StoryAlreadyFinishedException(storyId);
+                }
+                PendingCollaboration pending = new PendingCollaboration(
+                        storyId, userId, text, sequence.lastOrderNumber + 1, LocalDateTime.now());
+                // Se encola dentro del lock: el orden de la cola coincide con el de los números
+                if (!queue.offer(pending)) {
+                    rejected.increment();
+                    if (sequence.pending == 0) {
+                        sequence.retired = true;
+                        sequences.remove(storyId, sequence);
+                    }
+                    throw new IngestionQueueFullException();
+                }
+                sequence.lastOrderNumber++;
+                sequence.collaborationCount++;
+                sequence.pending++;
+                accepted.increment();
+                return pending;
+            }
+        }
+    }
+
+    public int queueSize() {
+        return queue.size();
+    }
+
+    private StorySequence seed(long storyId) {
+        // Desde la base de datos, no de la caché de segundo nivel: un contador atrasado
+        // repetiría números de orden ya usados
+        StoryState story = storyRepository.findState(storyId)
+                .orElseThrow(() -> new RuntimeException("Historia no encontrada: " + storyId));
+        if (story.finished()) {
+            throw new StoryAlreadyFinishedException(storyId);
+        }
+        return new StorySequence(story);
+    }
+
+    // ---------- Vaciado por lotes ----------
+
+    private void flushLoop() {
+        List<PendingCollaboration> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty() || !retry.isEmpty()) {
+            try {
+                if (!retry.isEmpty()) {
+                    // Van primero: sus números de orden son anteriores a los de la cola
+                    Thread.sleep(retryBackoffMillis);
+                    batch.addAll(retry);
+                    retry.clear();
+                } else {
+                    PendingCollaboration first = queue.poll(200, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                }
+                queue.drainTo(batch, Math.max(0, batchSize - batch.size()));
+                flush(batch);
+                retryBackoffMillis = retry.isEmpty() ? RETRY_BACKOFF_MIN_MILLIS
+                        : Math.min(retryBackoffMillis * 2, RETRY_BACKOFF_MAX_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (RuntimeException e) {
+                log.error("📥 Error inesperado en la escritura diferida", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Guarda el lote en una transacción; si falla, cada colaboración se reintenta por separado
+     * y las que tampoco se guardan solas se apartan ({@link #deadLetter}).
+     */
+    void flush(List<PendingCollaboration> batch) {
+        try {
+            batchTimer.record(() -> transactionTemplate.executeWithoutResult(status -> write(batch)));
+            flushed.increment(batch.size());
+        } catch (RuntimeException e) {
+            log.warn("📥 Falló un lote de {} colaboraciones, se guardan una a una", batch.size(), e);
+            for (PendingCollaboration pending : batch) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> write(List.of(pending)));
+                    flushed.increment();
+                } catch (RuntimeException single) {
+                    failed.increment();
+                    deadLetter(pending, single);
+                }
+            }
+        }
+    }
+
+    /**
+     * Aparta una colaboración que no se pudo guardar. Si tampoco se puede apartar, se
+     * conserva para el siguiente intento y su secuencia sigue viva: los números de orden
+     * repartidos no se vuelven a dar.
+     */
+    private void deadLetter(PendingCollaboration pending, RuntimeException cause) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    deadLetters.save(CollaborationDeadLetterEntity.from(pending, cause)));
+        } catch (RuntimeException e) {
+            log.error("📥 No se pudo apartar la colaboración de la historia {}, orden {}: se reintentará",
+                    pending.storyId(), pending.orderNumber(), e);
+            retry.add(pending);
+            return;
+        }
+        deadLettered.increment();
+        log.error("📥 Colaboración apartada en collaboration_dead_letters: historia {}, orden {}",
+                pending.storyId(), pending.orderNumber(), cause);
+        settle(pending.storyId(), 1);
+    }
+
+    private void write(List<PendingCollaboration> batch) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch, batchSize, (statement, pending) -> {
+            statement.setString(1, pending.text());
+            statement.setInt(2, pending.orderNumber());
+            statement.setTimestamp(3, Timestamp.valueOf(pending.createdAt()));
+            statement.setLong(4, pending.storyId());
+            statement.setLong(5, pending.userId());
+        });
+
+        Map<Long, List<PendingCollaboration>> byStory = new LinkedHashMap<>();
+        batch.forEach(pending -> byStory.computeIfAbsent(pending.storyId(), id -> new ArrayList<>()).add(pending));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<DomainEventOutbox.Draft> events = new ArrayList<>(batch.size());
+        byStory.forEach((storyId, appended) -> {
+            int lastOrderNumber = appended.get(appended.size() - 1).orderNumber();
+            storyRepository.applyCollaborations(storyId, appended.size(), lastOrderNumber);
+            readCache.evictStoryAfterCommit(storyId);
+            appended.forEach(pending -> {
+                eligibilityIndex.recordAfterCommit(pending.userId(), storyId, pending.orderNumber());
+                events.add(new DomainEventOutbox.Draft(OutboxEvent.COLLABORATION_ADDED, storyId,
+                        Map.of("orderNumber", pending.orderNumber(), "userId", pending.userId())));
+            });
+
+            // ✅ Misma regla que la escritura síncrona: solo una transacción la completa
+            if (storyRepository.markFinishedIfComplete(storyId, now) > 0) {
+                assignmentPool.removeAfterCommit(storyId);
+                eventPublisher.publishEvent(new StoryCompletedEvent(storyId, now));
+                events.add(new DomainEventOutbox.Draft(OutboxEvent.STORY_FINISHED, storyId, Map.of("finishedAt", now.toString())));
+            } else {
+                StoryProgress progress = storyRepository.findProgress(storyId);
+                assignmentPool.updateAfterCommit(storyId, progress.collaborationCount());
+            }
+            afterCommit(() -> settle(storyId, appended.size()));
+        });
+        outbox.recordAll(events);
+    }
+
+    /** Descuenta lo ya guardado; sin pendientes, la secuencia se retira y la próxima se carga de la BD. */
+    private void settle(long storyId, int written) {
+        StorySequence sequence = sequences.get(storyId);
+        if (sequence == null) {
+            return;
+        }
+        synchronized (sequence) {
+            sequence.pending -= written;
+            if (sequence.pending <= 0) {
+                sequence.retired = true;
+                sequences.remove(storyId, sequence);
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        // Se termina de vaciar la cola antes de parar
+        running = false;
+        if (flusher != null) {
+            flusher.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        if (!queue.isEmpty() || !retry.isEmpty()) {
+            log.error("📥 Quedaron {} colaboraciones sin guardar al parar", queue.size() + retry.size());
+        }
+    }
+}
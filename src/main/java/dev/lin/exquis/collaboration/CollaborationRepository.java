@@ -4,6 +4,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -31,9 +32,44 @@ public interface CollaborationRepository extends JpaRepository<CollaborationEnti
     """)
     Optional<CollaborationEntity> findLastByUserAndStory(@Param("userId") Long userId, @Param("storyId") Long storyId);
 
+    @Query("""
+        SELECT c FROM CollaborationEntity c
+        JOIN FETCH c.user
+        WHERE c.story.id = :storyId
+        ORDER BY c.orderNumber DESC
+        LIMIT 1
+    """)
+    Optional<CollaborationEntity> findLastWithUserByStoryId(@Param("storyId") Long storyId);
+
+    @Query("""
+        SELECT c FROM CollaborationEntity c
+        JOIN FETCH c.user
+        WHERE c.story.id = :storyId
+        ORDER BY c.orderNumber ASC
+        LIMIT 1
+    """)
+    Optional<CollaborationEntity> findFirstWithUserByStoryId(@Param("storyId") Long storyId);
+
     @Query("SELECT COALESCE(MAX(c.orderNumber), 0) FROM CollaborationEntity c WHERE c.story.id = :storyId")
     Integer findMaxOrderNumberByStory(@Param("storyId") Long storyId);
 
     Optional<CollaborationEntity> findTopByUserIdAndStoryIdOrderByOrderNumberDesc(Long userId, Long storyId);
 
+    // ✅ Última participación del usuario en cada historia, en una sola consulta agrupada
+    @Query("""
+        SELECT new dev.lin.exquis.collaboration.LastOrderByStory(c.story.id, MAX(c.orderNumber))
+        FROM CollaborationEntity c
+        WHERE c.user.id = :userId
+        GROUP BY c.story.id
+    """)
+    List<LastOrderByStory> findLastOrderNumbersByUser(@Param("userId") Long userId);
+
+    // 📚 Textos de varias historias en una sola consulta (catálogo de completadas)
+    @Query("""
+        SELECT new dev.lin.exquis.collaboration.StoryText(c.story.id, c.text)
+        FROM CollaborationEntity c
+        WHERE c.story.id IN :storyIds
+    """)
+    List<StoryText> findTextsByStoryIds(@Param("storyIds") Collection<Long> storyIds);
+
 }
@@ -3,16 +3,30 @@ package dev.lin.exquis.collaboration;
 import dev.lin.exquis.collaboration.dtos.CollaborationRequestDTO;
 import dev.lin.exquis.collaboration.dtos.CollaborationResponseDTO;
 import dev.lin.exquis.collaboration.exceptions.CollaborationNotFoundException;
+import dev.lin.exquis.collaboration.exceptions.StoryAlreadyFinishedException;
+import dev.lin.exquis.collaboration.exceptions.SynchronousWriteDisabledException;
+import dev.lin.exquis.outbox.DomainEventOutbox;
+import dev.lin.exquis.outbox.OutboxEvent;
+import dev.lin.exquis.story.AssignmentPool;
+import dev.lin.exquis.story.StoryCompletedEvent;
 import dev.lin.exquis.story.StoryEntity;
+import dev.lin.exquis.story.StoryProgress;
+import dev.lin.exquis.story.StoryReadCache;
 import dev.lin.exquis.story.StoryRepository;
+import dev.lin.exquis.story.UserEligibilityIndex;
 import dev.lin.exquis.user.UserEntity;
 import dev.lin.exquis.user.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,6 +37,15 @@ public class CollaborationServiceImpl implements CollaborationService {
     private final CollaborationRepository collaborationRepository;
     private final UserRepository userRepository;
     private final StoryRepository storyRepository;
+    private final AssignmentPool assignmentPool;
+    private final UserEligibilityIndex eligibilityIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DomainEventOutbox outbox;
+    private final StoryReadCache readCache;
+
+    // Con escritura diferida los números de orden los reparte CollaborationIngestService
+    @Value("${exquis.collaborations.write-behind.enabled:false}")
+    private boolean writeBehind;
 
     @Override
     public List<CollaborationEntity> getEntities() {
@@ -37,14 +60,13 @@ public class CollaborationServiceImpl implements CollaborationService {
 
     @Override
     public CollaborationEntity createEntity(CollaborationEntity collaboration) {
-        // Asignar el número de orden automáticamente
-        int nextOrder = (int) (collaborationRepository.countByStoryId(collaboration.getStory().getId()) + 1);
-        collaboration.setOrderNumber(nextOrder);
-        return collaborationRepository.save(collaboration);
+        // El número de orden se asigna al guardar, a partir del contador de la historia
+        StoryEntity story = storyRepository.findById(collaboration.getStory().getId())
+                .orElseThrow(() -> new RuntimeException("Historia no encontrada: " + collaboration.getStory().getId()));
+        collaboration.setStory(story);
+        return appendToStory(collaboration);
     }
 
-    // ✅ REEMPLAZAR el método createCollaboration() en CollaborationServiceImpl.java
-
     @Override
     public CollaborationEntity createCollaboration(CollaborationRequestDTO request, String username) {
         UserEntity user = userRepository.findByEmail(username)
@@ -53,25 +75,57 @@ public class CollaborationServiceImpl implements CollaborationService {
         StoryEntity story = storyRepository.findById(request.getStoryId())
                 .orElseThrow(() -> new RuntimeException("Historia no encontrada: " + request.getStoryId()));
 
-        int nextOrder = (int) (collaborationRepository.countByStoryId(request.getStoryId()) + 1);
-
         CollaborationEntity collaboration = CollaborationEntity.builder()
                 .text(request.getText())
-                .orderNumber(nextOrder)
                 .createdAt(LocalDateTime.now())
                 .story(story)
                 .user(user)
                 .build();
 
+        return appendToStory(collaboration);
+    }
+
+    /**
+     * Reserva el número de orden con un UPDATE atómico y condicional sobre el contador de la
+     * historia (si ya está finalizada o completa se rechaza, como en la escritura diferida),
+     * guarda la colaboración y la marca como finalizada si se completó. Los escritores de
+     * una misma historia se ordenan por el bloqueo de su fila; los de otras no se esperan.
+     * La historia se marca como finalizada en la misma sentencia que comprueba la extensión,
+     * así solo una transacción la completa.
+     */
+    private CollaborationEntity appendToStory(CollaborationEntity collaboration) {
+        if (writeBehind) {
+            throw new SynchronousWriteDisabledException();
+        }
+        StoryEntity story = collaboration.getStory();
+
+        // Igual que la escritura diferida: una historia finalizada o completa no admite más
+        if (storyRepository.allocateOrderNumber(story.getId()) == 0) {
+            throw new StoryAlreadyFinishedException(story.getId());
+        }
+        StoryProgress progress = storyRepository.findProgress(story.getId());
+        collaboration.setOrderNumber(progress.lastOrderNumber());
         CollaborationEntity saved = collaborationRepository.save(collaboration);
+        readCache.evictStoryAfterCommit(story.getId());
 
-        // ✅ Verificar si la historia debe marcarse como finalizada
-        long totalCollaborations = collaborationRepository.countByStoryId(story.getId());
-        if (totalCollaborations >= story.getExtension() && !story.isFinished()) {
-            System.out.println("✅ Historia " + story.getId() + " completada: " + totalCollaborations + "/" + story.getExtension());
-            story.setFinished(true);
-            story.setUpdatedAt(LocalDateTime.now());
-            storyRepository.save(story);
+        if (saved.getUser() != null) {
+            eligibilityIndex.recordAfterCommit(saved.getUser().getId(), story.getId(), saved.getOrderNumber());
+        }
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("collaborationId", saved.getId());
+        payload.put("orderNumber", saved.getOrderNumber());
+        payload.put("userId", saved.getUser() != null ? saved.getUser().getId() : null);
+        outbox.record(OutboxEvent.COLLABORATION_ADDED, story.getId(), payload);
+
+        // ✅ Verificar si la historia debe marcarse como finalizada; el resto del trabajo
+        // de fin de historia va en segundo plano tras el commit (StoryCompletedEvent)
+        LocalDateTime now = LocalDateTime.now();
+        if (storyRepository.markFinishedIfComplete(story.getId(), now) > 0) {
+            assignmentPool.removeAfterCommit(story.getId());
+            eventPublisher.publishEvent(new StoryCompletedEvent(story.getId(), now));
+            outbox.record(OutboxEvent.STORY_FINISHED, story.getId(), Map.of("finishedAt", now.toString()));
+        } else {
+            assignmentPool.updateAfterCommit(story.getId(), progress.collaborationCount());
         }
 
         return saved;
@@ -81,6 +135,8 @@ public class CollaborationServiceImpl implements CollaborationService {
     public CollaborationEntity updateEntity(Long id, CollaborationEntity updated) {
         CollaborationEntity existing = getByID(id);
         existing.setText(updated.getText());
+        readCache.evictStoryAfterCommit(existing.getStory().getId());
+        recordRevisionIfFinished(existing);
         return collaborationRepository.save(existing);
     }
 
@@ -88,19 +144,34 @@ public class CollaborationServiceImpl implements CollaborationService {
     public CollaborationEntity updateCollaboration(Long id, CollaborationRequestDTO request) {
         CollaborationEntity existing = getByID(id);
         existing.setText(request.getText());
+        readCache.evictStoryAfterCommit(existing.getStory().getId());
+        recordRevisionIfFinished(existing);
         return collaborationRepository.save(existing);
     }
 
     @Override
     public void deleteEntity(Long id) {
-        if (!collaborationRepository.existsById(id)) {
-            throw new CollaborationNotFoundException(id);
+        CollaborationEntity existing = getByID(id);
+        collaborationRepository.delete(existing);
+        storyRepository.removeCollaboration(existing.getStory().getId());
+        readCache.evictStoryAfterCommit(existing.getStory().getId());
+        if (existing.getUser() != null) {
+            eligibilityIndex.invalidateAfterCommit(existing.getUser().getId());
+        }
+        recordRevisionIfFinished(existing);
+    }
+
+    // Las historias finalizadas tienen catálogo e instantánea: se regeneran al entregarse el evento
+    private void recordRevisionIfFinished(CollaborationEntity collaboration) {
+        StoryEntity story = collaboration.getStory();
+        if (story != null && story.isFinished()) {
+            outbox.record(OutboxEvent.STORY_REVISED, story.getId(), Map.of("collaborationId", collaboration.getId()));
         }
-        collaborationRepository.deleteById(id);
     }
 
     @Override
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = StoryReadCache.STORY_COLLABORATIONS, key = "#storyId", sync = true)
     public List<CollaborationResponseDTO> getCollaborationsByStory(Long storyId) {
         List<CollaborationEntity> collaborations = collaborationRepository
                 .findByStoryIdWithUserOrderByOrderNumberAsc(storyId);
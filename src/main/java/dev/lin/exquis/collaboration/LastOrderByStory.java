@@ -0,0 +1,10 @@
+package dev.lin.exquis.collaboration;
+
+/**
+ * Último número de orden con el que un usuario participó en una historia.
+ */
+public record LastOrderByStory(
+    Long storyId,
+    Integer lastOrderNumber
+) {
+}
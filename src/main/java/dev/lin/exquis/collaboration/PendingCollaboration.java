@@ -0,0 +1,15 @@
+package dev.lin.exquis.collaboration;
+
+import java.time.LocalDateTime;
+
+/**
+ * Colaboración aceptada y numerada que aún no se ha guardado en la base de datos.
+ */
+public record PendingCollaboration(
+    long storyId,
+    long userId,
+    String text,
+    int orderNumber,
+    LocalDateTime createdAt
+) {
+}
@@ -0,0 +1,10 @@
+package dev.lin.exquis.collaboration;
+
+/**
+ * Texto de una colaboración junto a su historia (para el recuento de palabras del catálogo).
+ */
+public record StoryText(
+    Long storyId,
+    String text
+) {
+}
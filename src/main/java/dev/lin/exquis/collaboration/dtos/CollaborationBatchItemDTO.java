@@ -0,0 +1,19 @@
+package dev.lin.exquis.collaboration.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CollaborationBatchItemDTO {
+
+    private Long storyId;
+    private String text;
+
+    // Autor de la colaboración; si falta, el usuario autenticado
+    private Long userId;
+}
@@ -0,0 +1,30 @@
+package dev.lin.exquis.collaboration.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CollaborationBatchResultDTO {
+
+    public enum Status { CREATED, REJECTED }
+
+    // Posición del elemento en la petición
+    private int index;
+    private Long storyId;
+    private Status status;
+    private Integer orderNumber;
+    private String error;
+
+    public static CollaborationBatchResultDTO created(int index, Long storyId, int orderNumber) {
+        return new CollaborationBatchResultDTO(index, storyId, Status.CREATED, orderNumber, null);
+    }
+
+    public static CollaborationBatchResultDTO rejected(int index, Long storyId, String error) {
+        return new CollaborationBatchResultDTO(index, storyId, Status.REJECTED, null, error);
+    }
+}
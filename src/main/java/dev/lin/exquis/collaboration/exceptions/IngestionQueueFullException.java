@@ -0,0 +1,11 @@
+package dev.lin.exquis.collaboration.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class IngestionQueueFullException extends RuntimeException {
+    public IngestionQueueFullException() {
+        super("Hay demasiadas colaboraciones pendientes de guardar, inténtalo de nuevo en unos segundos.");
+    }
+}
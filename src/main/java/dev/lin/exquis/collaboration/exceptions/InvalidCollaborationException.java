@@ -0,0 +1,11 @@
+package dev.lin.exquis.collaboration.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidCollaborationException extends RuntimeException {
+    public InvalidCollaborationException(String message) {
+        super(message);
+    }
+}
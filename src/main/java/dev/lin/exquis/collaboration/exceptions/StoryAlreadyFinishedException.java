@@ -0,0 +1,11 @@
+package dev.lin.exquis.collaboration.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class StoryAlreadyFinishedException extends RuntimeException {
+    public StoryAlreadyFinishedException(Long storyId) {
+        super("La historia " + storyId + " ya está completa");
+    }
+}
@@ -0,0 +1,12 @@
+package dev.lin.exquis.collaboration.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// Con escritura diferida, numerar fuera de la secuencia en memoria duplicaría números de orden
+@ResponseStatus(HttpStatus.CONFLICT)
+public class SynchronousWriteDisabledException extends RuntimeException {
+    public SynchronousWriteDisabledException() {
+        super("Con la escritura diferida activada las colaboraciones se envían por la cola (POST /collaborations)");
+    }
+}
@@ -0,0 +1,54 @@
+package dev.lin.exquis.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+@Slf4j
+public class AsyncConfiguration {
+
+    public static final String STORY_EVENTS_EXECUTOR = "storyEventsExecutor";
+    public static final String PASSWORD_REHASH_EXECUTOR = "passwordRehashExecutor";
+
+    /**
+     * Ejecutor acotado para el trabajo posterior a completar una historia.
+     * Si la cola se llena, el evento se descarta y se registra: quien envía la
+     * colaboración nunca espera por este trabajo.
+     */
+    @Bean(name = STORY_EVENTS_EXECUTOR)
+    ThreadPoolTaskExecutor storyEventsExecutor(
+            @Value("${exquis.events.completion.threads:2}") int threads,
+            @Value("${exquis.events.completion.queue-capacity:1000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("story-completion-");
+        executor.setRejectedExecutionHandler((task, pool) ->
+                log.error("🏁 Cola de eventos de historia llena ({}), evento descartado", queueCapacity));
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+
+    /**
+     * Ejecutor para regenerar hashes de contraseñas tras un login correcto. Un solo hilo:
+     * la migración no tiene prisa (el hash en sí pasa por el ejecutor acotado de
+     * BoundedPasswordEncoder, el mismo que los logins). Si la cola se
+     * llena, la tarea se rechaza (PasswordRehasher la descarta y el siguiente login
+     * de ese usuario lo reintenta).
+     */
+    @Bean(name = PASSWORD_REHASH_EXECUTOR)
+    ThreadPoolTaskExecutor passwordRehashExecutor(
+            @Value("${exquis.auth.rehash.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("password-rehash-");
+        return executor;
+    }
+}
@@ -14,14 +14,16 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.HeadersConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import dev.lin.exquis.security.BoundedPasswordEncoder;
 import dev.lin.exquis.security.JpaUserDetailsService;
 import dev.lin.exquis.security.JwtAuthenticationFilter;
+import dev.lin.exquis.security.PasswordEncoders;
 
 @Configuration
 @EnableWebSecurity
@@ -55,8 +57,10 @@ public class SecurityConfiguration {
             // --- Desactivar formulario de login por defecto ---
             .formLogin(form -> form.disable())
 
-            // 🔑 HABILITAR AUTENTICACIÓN BÁSICA (Basic Auth) para el login
-            .httpBasic(withDefaults())
+            // 🔑 Sin httpBasic: GET /login decodifica las credenciales Basic en AuthController,
+            // después del límite de intentos. El filtro de Spring comprobaría bcrypt antes
+            // (saltándose el límite) y otra vez en cada login correcto
+            .httpBasic(basic -> basic.disable())
             // Deshabilita el "desafío" (challenge) para evitar el popup del navegador
             .exceptionHandling(exceptions -> exceptions
                 .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)) 
@@ -67,6 +71,8 @@ public class SecurityConfiguration {
             // Acceso público
             .requestMatchers("/h2-console/**").permitAll()
             .requestMatchers("/error").permitAll()
+            .requestMatchers("/actuator/health").permitAll()
+            .requestMatchers("/actuator/**").hasRole("ADMIN")
 
             .requestMatchers(HttpMethod.POST, endpoint + "/users/register").permitAll()
             .requestMatchers(HttpMethod.GET, endpoint + "/login").permitAll()
@@ -79,6 +85,7 @@ public class SecurityConfiguration {
             .requestMatchers(endpoint + "/users/**").hasRole("ADMIN")
             
             // 📚 STORIES - Reglas específicas por método HTTP
+            .requestMatchers(HttpMethod.POST, endpoint + "/stories/completed/rebuild").hasRole("ADMIN")
             .requestMatchers(HttpMethod.GET, endpoint + "/stories/**").authenticated()
             .requestMatchers(HttpMethod.POST, endpoint + "/stories/**").authenticated()
             .requestMatchers(HttpMethod.PUT, endpoint + "/stories/**").hasRole("ADMIN")
@@ -87,6 +94,7 @@ public class SecurityConfiguration {
             // 🔒 OTROS ENDPOINTS PROTEGIDOS
             .requestMatchers(HttpMethod.GET, endpoint + "/blocked-stories/**").authenticated()
             .requestMatchers(HttpMethod.POST, endpoint + "/blocked-stories/**").authenticated()
+            .requestMatchers(HttpMethod.POST, endpoint + "/collaborations/batch").hasRole("ADMIN")
             .requestMatchers(HttpMethod.POST, endpoint + "/collaborations/**").authenticated()
             
             // Cualquier otro endpoint requiere autenticación
@@ -112,8 +120,15 @@ public class SecurityConfiguration {
         return config.getAuthenticationManager();
     }
 
+    // bcrypt fuera de los hilos de Tomcat, en un ejecutor acotado (ver BoundedPasswordEncoder).
+    // Los hashes con otro coste o algoritmo se migran en el siguiente login (ver PasswordRehasher)
     @Bean
-    PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    PasswordEncoder passwordEncoder(
+            @Value("${exquis.auth.hashing.bcrypt-strength:10}") int bcryptStrength,
+            @Value("${exquis.auth.hashing.threads:2}") int threads,
+            @Value("${exquis.auth.hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${exquis.auth.hashing.retry-after-seconds:2}") long retryAfterSeconds,
+            MeterRegistry meterRegistry) {
+        return new BoundedPasswordEncoder(PasswordEncoders.delegating(bcryptStrength), threads, queueCapacity, retryAfterSeconds, meterRegistry);
     }
 }
\ No newline at end of file
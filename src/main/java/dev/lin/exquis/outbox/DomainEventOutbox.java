@@ -0,0 +1,68 @@
+package dev.lin.exquis.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registra eventos de dominio en la tabla outbox_events dentro de la transacción
+ * de quien escribe: el evento existe si y solo si el cambio se confirmó.
+ * {@link OutboxRelay} los entrega después, fuera del camino de escritura.
+ */
+@Component
+@RequiredArgsConstructor
+public class DomainEventOutbox {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO outbox_events (type, aggregate_id, payload, created_at, attempts) VALUES (?, ?, ?, ?, 0)";
+
+    /** Evento pendiente de registrar. */
+    public record Draft(String type, long aggregateId, Map<String, Object> payload) {
+    }
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(String type, long aggregateId, Map<String, Object> payload) {
+        outboxEventRepository.save(OutboxEventEntity.builder()
+                .type(type)
+                .aggregateId(aggregateId)
+                .payload(toJson(payload))
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    /** Registra varios eventos con un único INSERT por lotes JDBC. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(List<Draft> drafts) {
+        if (drafts.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, drafts, drafts.size(), (statement, draft) -> {
+            statement.setString(1, draft.type());
+            statement.setLong(2, draft.aggregateId());
+            statement.setString(3, toJson(draft.payload()));
+            statement.setTimestamp(4, now);
+        });
+    }
+
+    private String toJson(Map<String, Object> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Evento no serializable: " + payload, e);
+        }
+    }
+}
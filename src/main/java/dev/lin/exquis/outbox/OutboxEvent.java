@@ -0,0 +1,25 @@
+package dev.lin.exquis.outbox;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Evento de dominio leído del outbox y entregado a los listeners de la aplicación
+ * ({@code @EventListener}). La entrega es "al menos una vez": tras una caída, un
+ * evento ya entregado puede llegar de nuevo, así que los listeners deben ser idempotentes.
+ */
+public record OutboxEvent(long id, String type, long aggregateId, Map<String, Object> payload, LocalDateTime createdAt) {
+
+    public static final String COLLABORATION_ADDED = "collaboration-added";
+    public static final String STORY_FINISHED = "story-finished";
+    public static final String STORY_REOPENED = "story-reopened";
+    // Un admin corrigió una colaboración de una historia ya finalizada
+    public static final String STORY_REVISED = "story-revised";
+    public static final String LEASE_GRANTED = "lease-granted";
+    public static final String USER_DELETED = "user-deleted";
+
+    public Long longValue(String key) {
+        Object value = payload.get(key);
+        return value instanceof Number number ? number.longValue() : null;
+    }
+}
@@ -0,0 +1,39 @@
+package dev.lin.exquis.outbox;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "outbox_events")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEventEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 50)
+    private String type;
+
+    // Historia o usuario al que se refiere el evento
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+
+    // Datos del evento en JSON
+    @Column(nullable = false, length = 2000)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    // Intentos de entrega fallidos
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+}
@@ -0,0 +1,109 @@
+package dev.lin.exquis.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Entrega los eventos del outbox a los listeners de la aplicación. Lee por lotes
+ * en orden de id (keyset), publica cada evento y borra el lote entregado con un
+ * único DELETE. Si un listener falla, el lote se corta ahí y el evento se
+ * reintenta en la siguiente pasada; tras {@code max-attempts} se descarta.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private static final TypeReference<Map<String, Object>> PAYLOAD = new TypeReference<>() {
+    };
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final Counter dispatched;
+    private final Counter failed;
+    private final Counter discarded;
+
+    @Value("${exquis.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${exquis.outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       ApplicationEventPublisher eventPublisher,
+                       ObjectMapper objectMapper,
+                       MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.dispatched = meterRegistry.counter("exquis.outbox.dispatched");
+        this.failed = meterRegistry.counter("exquis.outbox.failed");
+        this.discarded = meterRegistry.counter("exquis.outbox.discarded");
+    }
+
+    /**
+     * 📤 Vacía el outbox hasta que no quede nada o falle una entrega.
+     * Devuelve cuántos eventos se entregaron.
+     */
+    @Scheduled(fixedDelayString = "${exquis.outbox.poll-ms:500}")
+    public synchronized int relay() {
+        int total = 0;
+        long afterId = 0;
+        while (true) {
+            List<OutboxEventEntity> batch = outboxEventRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(batchSize));
+            if (batch.isEmpty()) {
+                return total;
+            }
+            List<Long> done = new ArrayList<>(batch.size());
+            boolean stopped = false;
+            for (OutboxEventEntity entity : batch) {
+                if (!dispatch(entity)) {
+                    stopped = true;
+                    break;
+                }
+                done.add(entity.getId());
+            }
+            if (!done.isEmpty()) {
+                outboxEventRepository.deleteAllByIdInBatch(done);
+            }
+            total += done.size();
+            if (stopped || batch.size() < batchSize) {
+                return total;
+            }
+            afterId = batch.get(batch.size() - 1).getId();
+        }
+    }
+
+    /** Devuelve false si hay que reintentar el evento más tarde. */
+    private boolean dispatch(OutboxEventEntity entity) {
+        try {
+            eventPublisher.publishEvent(new OutboxEvent(entity.getId(), entity.getType(), entity.getAggregateId(),
+                    objectMapper.readValue(entity.getPayload(), PAYLOAD), entity.getCreatedAt()));
+            dispatched.increment();
+            return true;
+        } catch (JsonProcessingException | RuntimeException e) {
+            failed.increment();
+            if (entity.getAttempts() + 1 >= maxAttempts) {
+                discarded.increment();
+                log.error("📤 Evento {} ({}) descartado tras {} intentos", entity.getId(), entity.getType(), maxAttempts, e);
+                return true; // Se borra con el lote para no bloquear a los siguientes
+            }
+            outboxEventRepository.incrementAttempts(entity.getId());
+            log.warn("📤 Error entregando el evento {} ({}), se reintentará", entity.getId(), entity.getType(), e);
+            return false;
+        }
+    }
+}
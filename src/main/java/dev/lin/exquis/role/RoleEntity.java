@@ -4,6 +4,8 @@ import java.util.Set;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import dev.lin.exquis.user.UserEntity;
 
 @Entity
@@ -12,7 +14,8 @@ import dev.lin.exquis.user.UserEntity;
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY) // catálogo fijo: se crea al arrancar y no se modifica
 public class RoleEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
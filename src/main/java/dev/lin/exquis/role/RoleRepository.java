@@ -2,8 +2,13 @@ package dev.lin.exquis.role;
 
 import java.util.Optional;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 public interface RoleRepository extends JpaRepository<RoleEntity, Long> {
+    // Se consulta en cada registro: resultado en la caché de consultas de Hibernate
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<RoleEntity> findByName(String name);
 }
\ No newline at end of file
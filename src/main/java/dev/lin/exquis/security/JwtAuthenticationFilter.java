@@ -4,6 +4,7 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -23,10 +24,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final JpaUserDetailsService userDetailsService;
+    private final TokenVersionCache tokenVersions;
+    private final VerifiedTokenCache verifiedTokens;
 
-    public JwtAuthenticationFilter(JwtService jwtService, JpaUserDetailsService userDetailsService) {
+    // Sin estado: el principal se construye con los claims del token (si trae versión), sin ir a la base de datos
+    @Value("${jwt.stateless:true}")
+    private boolean stateless;
+
+    public JwtAuthenticationFilter(JwtService jwtService,
+                                   JpaUserDetailsService userDetailsService,
+                                   TokenVersionCache tokenVersions,
+                                   VerifiedTokenCache verifiedTokens) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.tokenVersions = tokenVersions;
+        this.verifiedTokens = verifiedTokens;
     }
 
     @Override
@@ -55,9 +67,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         System.out.println("🎫 Token extraído (primeros 20 chars): " + jwt.substring(0, Math.min(20, jwt.length())) + "...");
 
         try {
-            // 1️⃣ Extraer los datos del token
-            final String userId = jwtService.extractUserId(jwt);
-            final String userEmail = jwtService.extractEmail(jwt); // opcional, para logs
+            // 1️⃣ Verificar el token (o reutilizar la verificación de una petición anterior)
+            final VerifiedTokenCache.VerifiedToken verified = verifiedTokens.verify(jwt);
+            final JwtClaims claims = verified.claims();
+            final String userId = claims.userId();
+            final String userEmail = claims.email(); // opcional, para logs
 
             System.out.println("🆔 ID extraído del token: " + userId);
             System.out.println("📧 Email (claim): " + userEmail);
@@ -66,13 +80,25 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             if (userId != null && SecurityContextHolder.getContext().getAuthentication() == null) {
                 System.out.println("🔓 Usuario no autenticado aún, procediendo a autenticar...");
 
-                // 🔹 Nuevo método en tu JpaUserDetailsService (lo crearemos abajo)
-                UserDetails userDetails = this.userDetailsService.loadUserById(Long.parseLong(userId));
+                final Integer tokenVersion = claims.tokenVersion();
+                UserDetails userDetails = null;
+                if (stateless && tokenVersion != null) {
+                    // 🪪 Token autosuficiente: solo se comprueba que su versión siga vigente
+                    if (tokenVersions.isCurrent(Long.parseLong(userId), tokenVersion)) {
+                        userDetails = verified.principal();
+                    } else {
+                        System.out.println("⛔ Token revocado o de una versión anterior");
+                    }
+                } else {
+                    // 🔹 Tokens sin versión (o modo con estado): el usuario se carga de la base de datos
+                    userDetails = this.userDetailsService.loadUserById(Long.parseLong(userId));
+                }
 
                 // 3️⃣ Validar el token
-                if (jwtService.isTokenValid(jwt, userDetails)) {
+                if (userDetails != null && jwtService.isTokenValid(claims, userDetails)) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                    userDetails, null, userDetails.getAuthorities()
+                    userDetails, null,
+                    userDetails == verified.principal() ? verified.authorities() : userDetails.getAuthorities()
                     );
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
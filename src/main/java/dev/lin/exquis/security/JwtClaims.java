@@ -0,0 +1,27 @@
+package dev.lin.exquis.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Claims de un token ya verificado. Se extraen una sola vez por petición
+ * y se reutilizan en lugar de volver a verificar y decodificar el token.
+ */
+public record JwtClaims(String userId, String email, List<String> roles, Integer tokenVersion, Instant expiration) {
+
+    static JwtClaims from(Claims claims) {
+        List<?> roles = claims.get(JwtService.ROLES_CLAIM, List.class);
+        return new JwtClaims(
+                claims.getSubject(),
+                claims.get(JwtService.EMAIL_CLAIM, String.class),
+                roles == null ? List.of() : roles.stream().map(String::valueOf).toList(),
+                claims.get(JwtService.VERSION_CLAIM, Integer.class),
+                claims.getExpiration().toInstant());
+    }
+
+    public boolean isExpired() {
+        return expiration.isBefore(Instant.now());
+    }
+}
@@ -1,8 +1,12 @@
 package dev.lin.exquis.security;
 
+import dev.lin.exquis.role.RoleEntity;
+import dev.lin.exquis.user.UserEntity;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
@@ -10,34 +14,66 @@ import org.springframework.stereotype.Service;
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 
 @Service
 public class JwtService {
 
+    public static final String EMAIL_CLAIM = "email";
+    public static final String ROLES_CLAIM = "roles";
+    public static final String VERSION_CLAIM = "ver";
+
     @Value("${jwt.secret}")
     private String secretKey;
 
     @Value("${jwt.expiration}")
     private long jwtExpiration;
 
+    // Clave y parser se construyen una vez: son inmutables y seguros entre hilos
+    private SecretKey signInKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    void init() {
+        signInKey = Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser().verifyWith(signInKey).build();
+    }
+
     // ✅ Nuevo método: generar token con ID y email explícitos
     public String generateToken(Long userId, String email) {
-        Map<String, Object> claims = Map.of("email", email);
+        Map<String, Object> claims = Map.of(EMAIL_CLAIM, email);
         return buildToken(claims, String.valueOf(userId), jwtExpiration);
     }
 
+    // 🪪 Token autosuficiente: roles y versión firmados, el filtro no necesita consultar la base de datos
+    public String generateToken(UserEntity user) {
+        Map<String, Object> claims = Map.of(
+                EMAIL_CLAIM, user.getEmail(),
+                ROLES_CLAIM, user.getRoles().stream().map(RoleEntity::getName).sorted().toList(),
+                VERSION_CLAIM, user.getTokenVersion());
+        return buildToken(claims, String.valueOf(user.getId()), jwtExpiration);
+    }
+
     private String buildToken(Map<String, Object> extraClaims, String subject, long expiration) {
         return Jwts.builder()
                 .claims(extraClaims)
                 .subject(subject) // 👈 ahora el "subject" es el userId
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey())
+                .signWith(signInKey)
                 .compact();
     }
 
+    /**
+     * Verifica la firma y la caducidad y devuelve los claims del token.
+     * Lanza {@link io.jsonwebtoken.JwtException} si el token no es válido.
+     */
+    public JwtClaims parse(String token) {
+        return JwtClaims.from(extractAllClaims(token));
+    }
+
     // Extraer el userId (como String)
     public String extractUserId(String token) {
         return extractClaim(token, Claims::getSubject);
@@ -45,7 +81,17 @@ public class JwtService {
 
     // Extraer el email (desde claim adicional)
     public String extractEmail(String token) {
-        return extractClaim(token, claims -> claims.get("email", String.class));
+        return extractClaim(token, claims -> claims.get(EMAIL_CLAIM, String.class));
+    }
+
+    // Nombres de rol firmados en el token (vacío en tokens antiguos)
+    public List<String> extractRoles(String token) {
+        return parse(token).roles();
+    }
+
+    // Versión del token, o null si se emitió antes de versionarlos
+    public Integer extractTokenVersion(String token) {
+        return parse(token).tokenVersion();
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
@@ -54,11 +100,7 @@ public class JwtService {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSignInKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     public boolean isTokenExpired(String token) {
@@ -67,11 +109,17 @@ public class JwtService {
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        return !isTokenExpired(token);
+        return isTokenValid(parse(token), userDetails);
     }
 
-    private SecretKey getSignInKey() {
-        byte[] keyBytes = secretKey.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    public boolean isTokenValid(JwtClaims claims, UserDetails userDetails) {
+        if (claims.isExpired()) {
+            return false;
+        }
+        // Un token versionado deja de valer en cuanto la versión del usuario cambia
+        Integer version = claims.tokenVersion();
+        return version == null
+                || !(userDetails instanceof SecurityUser securityUser)
+                || version.equals(securityUser.getUser().getTokenVersion());
     }
 }
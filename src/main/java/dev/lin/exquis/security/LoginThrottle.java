@@ -0,0 +1,93 @@
+package dev.lin.exquis.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.lin.exquis.security.exceptions.TooManyAttemptsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Limita los intentos de inicio de sesión y registro por cuenta y por IP con cubos de
+ * fichas, antes de gastar CPU en bcrypt. Los cubos viven en cachés acotadas: uno que
+ * lleva un rato sin usarse está lleno de todas formas y se puede olvidar.
+ */
+@Component
+@Slf4j
+public class LoginThrottle {
+
+    private final int accountCapacity;
+    private final double accountPerSecond;
+    private final int addressCapacity;
+    private final double addressPerSecond;
+    private final Cache<String, TokenBucket> accounts;
+    private final Cache<String, TokenBucket> addresses;
+    private final Counter accountThrottled;
+    private final Counter addressThrottled;
+    private final LongSupplier clock;
+
+    @Autowired
+    public LoginThrottle(@Value("${exquis.auth.throttle.account.capacity:10}") int accountCapacity,
+                         @Value("${exquis.auth.throttle.account.refill-per-minute:5}") double accountPerMinute,
+                         @Value("${exquis.auth.throttle.ip.capacity:50}") int addressCapacity,
+                         @Value("${exquis.auth.throttle.ip.refill-per-minute:60}") double addressPerMinute,
+                         @Value("${exquis.auth.throttle.max-tracked:100000}") long maxTracked,
+                         MeterRegistry meterRegistry) {
+        this(accountCapacity, accountPerMinute, addressCapacity, addressPerMinute, maxTracked, meterRegistry, System::nanoTime);
+    }
+
+    LoginThrottle(int accountCapacity, double accountPerMinute, int addressCapacity, double addressPerMinute,
+                  long maxTracked, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.accountCapacity = accountCapacity;
+        this.accountPerSecond = accountPerMinute / 60;
+        this.addressCapacity = addressCapacity;
+        this.addressPerSecond = addressPerMinute / 60;
+        this.clock = clock;
+        this.accounts = buckets(maxTracked, accountCapacity, accountPerSecond);
+        this.addresses = buckets(maxTracked, addressCapacity, addressPerSecond);
+        this.accountThrottled = Counter.builder("exquis.auth.throttled").tag("scope", "account")
+                .description("Intentos rechazados por el límite de la cuenta").register(meterRegistry);
+        this.addressThrottled = Counter.builder("exquis.auth.throttled").tag("scope", "ip")
+                .description("Intentos rechazados por el límite de la IP").register(meterRegistry);
+    }
+
+    /**
+     * Consume un intento de la IP y otro de la cuenta. Lanza {@link TooManyAttemptsException}
+     * (429) si alguno de los dos se ha agotado.
+     */
+    public void check(String account, String address) {
+        long now = clock.getAsLong();
+        if (address != null) {
+            acquire(addresses, address, addressCapacity, addressPerSecond, now, addressThrottled);
+        }
+        if (account != null) {
+            acquire(accounts, account.trim().toLowerCase(Locale.ROOT), accountCapacity, accountPerSecond, now, accountThrottled);
+        }
+    }
+
+    private static void acquire(Cache<String, TokenBucket> buckets, String key, int capacity, double perSecond,
+                                long now, Counter throttled) {
+        long waitNanos = buckets.get(key, k -> new TokenBucket(capacity, perSecond, now)).tryConsume(now);
+        if (waitNanos > 0) {
+            throttled.increment();
+            log.warn("🚦 Demasiados intentos para {}", key);
+            throw new TooManyAttemptsException(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L)));
+        }
+    }
+
+    // Un cubo se llena en capacity / perSecond: pasado ese tiempo sin uso no aporta nada
+    private static Cache<String, TokenBucket> buckets(long maxTracked, int capacity, double perSecond) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxTracked)
+                .expireAfterAccess(Duration.ofSeconds(Math.max(1, (long) Math.ceil(capacity / perSecond))))
+                .build();
+    }
+}
@@ -0,0 +1,61 @@
+package dev.lin.exquis.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Estrategia de hashes de contraseñas. Los hashes nuevos se guardan como
+ * {@code {bcrypt}} con el coste configurado; se comprueban hashes de cualquier coste
+ * o algoritmo conocido, incluidos los bcrypt sin prefijo anteriores a este formato.
+ * {@link PasswordEncoder#upgradeEncoding} dice cuáles hay que volver a generar
+ * (ver {@link PasswordRehasher}).
+ */
+public final class PasswordEncoders {
+
+    public static final String BCRYPT = "bcrypt";
+    public static final String PBKDF2 = "pbkdf2";
+
+    private PasswordEncoders() {
+    }
+
+    public static PasswordEncoder delegating(int bcryptStrength) {
+        PasswordEncoder bcrypt = new TargetCostBCryptPasswordEncoder(bcryptStrength);
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(BCRYPT, Map.of(
+                BCRYPT, bcrypt,
+                PBKDF2, Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8()));
+        // Hashes bcrypt guardados sin {id}: se comprueban y se marcan para migrar
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
+    }
+
+    /**
+     * bcrypt que pide regenerar cualquier hash con un coste distinto del configurado,
+     * también si es mayor: bajar el coste es tan legítimo como subirlo.
+     */
+    static final class TargetCostBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+        private static final Pattern COST = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$");
+
+        private final int strength;
+
+        TargetCostBCryptPasswordEncoder(int strength) {
+            super(strength);
+            this.strength = strength;
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            if (encodedPassword == null || encodedPassword.isEmpty()) {
+                return false;
+            }
+            Matcher matcher = COST.matcher(encodedPassword);
+            return !matcher.find() || Integer.parseInt(matcher.group(1)) != strength;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package dev.lin.exquis.security;
+
+import dev.lin.exquis.config.AsyncConfiguration;
+import dev.lin.exquis.security.exceptions.PasswordHashingBusyException;
+import dev.lin.exquis.user.UserEntity;
+import dev.lin.exquis.user.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Migración perezosa de hashes: tras un login correcto, si el hash guardado no usa el
+ * algoritmo y coste configurados ({@link PasswordEncoders}), se regenera con la
+ * contraseña que se acaba de comprobar. Ocurre en segundo plano; la respuesta del
+ * login no espera. Si algo falla, la tarea se descarta y el siguiente login lo reintenta.
+ */
+@Component
+@Slf4j
+public class PasswordRehasher {
+
+    private final PasswordEncoder passwordEncoder;
+    private final UserRepository userRepository;
+    private final TaskExecutor executor;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Counter upgraded;
+
+    // Un usuario que repite el login mientras se migra no encola otra tarea
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    public PasswordRehasher(PasswordEncoder passwordEncoder,
+                            UserRepository userRepository,
+                            @Qualifier(AsyncConfiguration.PASSWORD_REHASH_EXECUTOR) TaskExecutor executor,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${exquis.auth.rehash.enabled:true}") boolean enabled) {
+        this.passwordEncoder = passwordEncoder;
+        this.userRepository = userRepository;
+        this.executor = executor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.upgraded = Counter.builder("exquis.auth.rehash.upgraded")
+                .description("Hashes de contraseña regenerados con el algoritmo y coste configurados")
+                .register(meterRegistry);
+    }
+
+    /** Programa la migración del hash de {@code user} si hace falta. No bloquea. */
+    public void rehashIfNeeded(UserEntity user, String rawPassword) {
+        String current = user.getPassword();
+        if (!enabled || !passwordEncoder.upgradeEncoding(current) || !inFlight.add(user.getId())) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    rehash(user.getId(), current, rawPassword);
+                } catch (PasswordHashingBusyException e) {
+                    log.debug("🔐 Ejecutor de contraseñas ocupado, migración del usuario {} aplazada", user.getId());
+                } catch (RuntimeException e) {
+                    log.warn("🔐 No se pudo migrar el hash del usuario {}", user.getId(), e);
+                } finally {
+                    inFlight.remove(user.getId());
+                }
+            });
+        } catch (TaskRejectedException e) {
+            inFlight.remove(user.getId());
+            log.warn("🔐 Cola de migración de contraseñas llena, se reintentará en el próximo login");
+        }
+    }
+
+    private void rehash(Long userId, String previousHash, String rawPassword) {
+        // El hash se calcula fuera de la transacción para no retener la conexión
+        String newHash = passwordEncoder.encode(rawPassword);
+        Boolean saved = transactionTemplate.execute(status -> userRepository.findById(userId)
+                // Si la contraseña cambió o el usuario se borró mientras tanto, no se toca
+                .filter(user -> previousHash.equals(user.getPassword()))
+                .map(user -> {
+                    user.setPassword(newHash);
+                    return true;
+                })
+                .orElse(false));
+        if (Boolean.TRUE.equals(saved)) {
+            upgraded.increment();
+            log.debug("🔐 Hash de contraseña del usuario {} migrado", userId);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package dev.lin.exquis.security;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.stream.Collectors;
 
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -18,6 +19,21 @@ public class SecurityUser implements UserDetails {
         this.user = user;
     }
 
+    /**
+     * Principal reconstruido a partir de un token ya verificado, sin consultar la base de datos.
+     * El usuario solo lleva id, email, roles y versión del token.
+     */
+    public static SecurityUser fromClaims(Long userId, String email, Collection<String> roleNames, Integer tokenVersion) {
+        return new SecurityUser(UserEntity.builder()
+                .id(userId)
+                .email(email)
+                .roles(roleNames.stream()
+                        .map(name -> new RoleEntity(null, name, null))
+                        .collect(Collectors.toSet()))
+                .tokenVersion(tokenVersion)
+                .build());
+    }
+
     @Override
     public String getUsername() {
         return user.getEmail();
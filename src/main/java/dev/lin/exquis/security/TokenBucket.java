@@ -0,0 +1,31 @@
+package dev.lin.exquis.security;
+
+/**
+ * Cubo de fichas: admite ráfagas de hasta {@code capacity} intentos y se rellena a
+ * ritmo constante. El lock es por cubo, así que claves distintas no compiten.
+ */
+final class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long lastRefill;
+
+    TokenBucket(int capacity, double tokensPerSecond, long now) {
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerSecond / 1_000_000_000d;
+        this.tokens = capacity;
+        this.lastRefill = now;
+    }
+
+    /** Consume una ficha y devuelve 0, o devuelve los nanosegundos que faltan para la siguiente. */
+    synchronized long tryConsume(long now) {
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / tokensPerNano);
+    }
+}
@@ -0,0 +1,58 @@
+package dev.lin.exquis.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.lin.exquis.user.UserEntity;
+import dev.lin.exquis.user.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+import static dev.lin.exquis.config.TransactionCallbacks.afterCommit;
+
+/**
+ * Versión vigente de los tokens de cada usuario, para validar tokens sin estado.
+ * Acotada por tamaño y tiempo: las escrituras de este nodo la actualizan al confirmar
+ * y el TTL limita cuánto tarda en verse un cambio hecho en otro nodo. En un fallo se
+ * carga el usuario (normalmente desde la caché de segundo nivel).
+ */
+@Component
+public class TokenVersionCache {
+
+    // Usuario borrado: ningún token suyo vale
+    static final int REVOKED = -1;
+
+    private final UserRepository userRepository;
+    private final Cache<Long, Integer> versions;
+
+    public TokenVersionCache(UserRepository userRepository,
+                             @Value("${jwt.version-cache.max-size:10000}") long maxSize,
+                             @Value("${jwt.version-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.userRepository = userRepository;
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    public boolean isCurrent(long userId, int version) {
+        return versions.get(userId, this::load) == version;
+    }
+
+    /** Los roles, el email o la contraseña del usuario cambiaron: los tokens anteriores dejan de valer. */
+    public void changedAfterCommit(long userId, int version) {
+        afterCommit(() -> versions.put(userId, version));
+    }
+
+    /** El usuario se borró. */
+    public void revokeAfterCommit(long userId) {
+        afterCommit(() -> versions.put(userId, REVOKED));
+    }
+
+    private int load(long userId) {
+        return userRepository.findById(userId)
+                .map(UserEntity::getTokenVersion)
+                .orElse(REVOKED);
+    }
+}
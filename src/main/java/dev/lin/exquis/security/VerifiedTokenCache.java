@@ -0,0 +1,94 @@
+package dev.lin.exquis.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Tokens ya verificados, por resumen SHA-256 del token. Un cliente repite el mismo
+ * token en cada petición: a partir de la segunda no se vuelve a comprobar la firma
+ * ni a decodificar los claims. Cada entrada caduca con el {@code exp} de su token;
+ * la revocación se sigue comprobando en cada petición ({@link TokenVersionCache}).
+ */
+@Component
+public class VerifiedTokenCache {
+
+    /** Claims verificados y el principal sin estado que se construye con ellos. */
+    public record VerifiedToken(JwtClaims claims, SecurityUser principal, Collection<? extends GrantedAuthority> authorities) {
+    }
+
+    private final JwtService jwtService;
+    private final Cache<String, VerifiedToken> tokens;
+
+    public VerifiedTokenCache(JwtService jwtService,
+                              MeterRegistry meterRegistry,
+                              @Value("${jwt.verified-cache.max-size:10000}") long maxSize) {
+        this.jwtService = jwtService;
+        this.tokens = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new UntilTokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, tokens, "jwt-verified-tokens");
+    }
+
+    /**
+     * Devuelve el token verificado, de la caché o verificándolo ahora.
+     * Lanza {@link io.jsonwebtoken.JwtException} si el token no es válido (los inválidos no se guardan).
+     */
+    public VerifiedToken verify(String token) {
+        return tokens.get(digest(token), key -> {
+            JwtClaims claims = jwtService.parse(token);
+            SecurityUser principal = SecurityUser.fromClaims(
+                    Long.valueOf(claims.userId()), claims.email(), claims.roles(), claims.tokenVersion());
+            return new VerifiedToken(claims, principal, List.copyOf(principal.getAuthorities()));
+        });
+    }
+
+    long size() {
+        tokens.cleanUp();
+        return tokens.estimatedSize();
+    }
+
+    static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Una entrada nunca sobrevive al exp de su token; leerla no alarga su vida
+    private static final class UntilTokenExpiry implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), value.claims().expiration()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package dev.lin.exquis.security.exceptions;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/** Demasiados intentos de la misma cuenta o IP: 429 con Retry-After. */
+public class TooManyAttemptsException extends ResponseStatusException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyAttemptsException(long retryAfterSeconds) {
+        super(HttpStatus.TOO_MANY_REQUESTS, "Demasiados intentos, espera " + retryAfterSeconds + " s antes de volver a intentarlo.");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        return headers;
+    }
+}
@@ -0,0 +1,242 @@
+package dev.lin.exquis.story;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import static dev.lin.exquis.config.TransactionCallbacks.afterCommit;
+import static dev.lin.exquis.config.TransactionCallbacks.afterRollback;
+
+/**
+ * Pool en memoria de historias asignables (no finalizadas y sin bloqueo),
+ * separadas en "en progreso" y "nuevas" igual que en la asignación.
+ * Elegir una historia al azar cuesta O(1) y no toca la base de datos.
+ * <p>
+ * Las historias se reparten en stripes con su propio lock. Al reclamar se
+ * saltan los stripes que otro hilo está usando (como un SKIP LOCKED), así
+ * los asignadores concurrentes no se esperan entre sí.
+ */
+@Component
+@Slf4j
+public class AssignmentPool {
+
+    /** Regla de elegibilidad de un usuario sobre una historia del pool. */
+    @FunctionalInterface
+    public interface Eligibility {
+        boolean test(long storyId, int collaborationCount);
+    }
+
+    public record PooledStory(long storyId, int collaborationCount) {
+    }
+
+    // Potencia de 2 para repartir por máscara
+    private static final int STRIPES = 16;
+
+    private static final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        final StoryBucket inProgress = new StoryBucket();
+        final StoryBucket fresh = new StoryBucket();
+    }
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    public AssignmentPool() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    // ---------- Carga y mantenimiento ----------
+
+    public synchronized void rebuild(Collection<StoryCandidate> available) {
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                stripe.inProgress.clear();
+                stripe.fresh.clear();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        for (StoryCandidate candidate : available) {
+            add(candidate.id(), candidate.collaborationCount());
+        }
+        log.info("📦 Pool de asignación reconstruido: {} en progreso, {} nuevas", inProgressSize(), freshSize());
+    }
+
+    /** Añade (o reubica) una historia disponible según su número de colaboraciones. */
+    public void add(long storyId, int collaborationCount) {
+        Stripe stripe = stripeOf(storyId);
+        stripe.lock.lock();
+        try {
+            if (collaborationCount > 0) {
+                stripe.fresh.remove(storyId);
+                stripe.inProgress.put(storyId, collaborationCount);
+            } else {
+                stripe.inProgress.remove(storyId);
+                stripe.fresh.put(storyId, collaborationCount);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /** Actualiza el número de colaboraciones solo si la historia ya está en el pool. */
+    public void updateIfPresent(long storyId, int collaborationCount) {
+        Stripe stripe = stripeOf(storyId);
+        stripe.lock.lock();
+        try {
+            if (stripe.inProgress.contains(storyId) || stripe.fresh.contains(storyId)) {
+                add(storyId, collaborationCount);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    public boolean remove(long storyId) {
+        Stripe stripe = stripeOf(storyId);
+        stripe.lock.lock();
+        try {
+            return stripe.inProgress.remove(storyId) | stripe.fresh.remove(storyId);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    public boolean contains(long storyId) {
+        Stripe stripe = stripeOf(storyId);
+        stripe.lock.lock();
+        try {
+            return stripe.inProgress.contains(storyId) || stripe.fresh.contains(storyId);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    public int inProgressSize() {
+        return sizeOf(stripe -> stripe.inProgress);
+    }
+
+    public int freshSize() {
+        return sizeOf(stripe -> stripe.fresh);
+    }
+
+    // ---------- Asignación ----------
+
+    /**
+     * Saca del pool una historia elegible al azar, priorizando las que están en progreso.
+     * La historia deja de estar disponible para el resto de usuarios.
+     */
+    public Optional<PooledStory> claim(Eligibility eligibility) {
+        PooledStory claimed = claimFrom(stripe -> stripe.inProgress, eligibility);
+        if (claimed == null) {
+            claimed = claimFrom(stripe -> stripe.fresh, eligibility);
+        }
+        return Optional.ofNullable(claimed);
+    }
+
+    private PooledStory claimFrom(Function<Stripe, StoryBucket> bucketOf, Eligibility eligibility) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int start = random.nextInt(STRIPES);
+        boolean skipped = false;
+
+        // Primera vuelta: se saltan los stripes ocupados por otros asignadores
+        for (int i = 0; i < STRIPES; i++) {
+            Stripe stripe = stripes[(start + i) & (STRIPES - 1)];
+            if (!stripe.lock.tryLock()) {
+                skipped = true;
+                continue;
+            }
+            try {
+                PooledStory claimed = takeEligible(bucketOf.apply(stripe), eligibility, random);
+                if (claimed != null) {
+                    return claimed;
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        if (!skipped) {
+            return null;
+        }
+
+        // Segunda vuelta esperando: un stripe ocupado no significa que esté vacío
+        for (int i = 0; i < STRIPES; i++) {
+            Stripe stripe = stripes[(start + i) & (STRIPES - 1)];
+            stripe.lock.lock();
+            try {
+                PooledStory claimed = takeEligible(bucketOf.apply(stripe), eligibility, random);
+                if (claimed != null) {
+                    return claimed;
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return null;
+    }
+
+    private static PooledStory takeEligible(StoryBucket bucket, Eligibility eligibility, ThreadLocalRandom random) {
+        int index = bucket.findEligible(eligibility, random);
+        if (index < 0) {
+            return null;
+        }
+        PooledStory claimed = new PooledStory(bucket.idAt(index), bucket.countAt(index));
+        bucket.removeAt(index);
+        return claimed;
+    }
+
+    // ---------- Sincronización con la transacción en curso ----------
+
+    /** Devuelve la historia al pool cuando se confirme la transacción (o ya, si no hay). */
+    public void release(StoryEntity story) {
+        if (story.isFinished()) {
+            return;
+        }
+        long storyId = story.getId();
+        int collaborationCount = story.getCollaborationCount();
+        afterCommit(() -> add(storyId, collaborationCount));
+    }
+
+    public void addAfterCommit(long storyId, int collaborationCount) {
+        afterCommit(() -> add(storyId, collaborationCount));
+    }
+
+    public void updateAfterCommit(long storyId, int collaborationCount) {
+        afterCommit(() -> updateIfPresent(storyId, collaborationCount));
+    }
+
+    public void removeAfterCommit(long storyId) {
+        afterCommit(() -> remove(storyId));
+    }
+
+    /** Si la transacción que reclamó la historia falla, la historia vuelve al pool. */
+    public void returnOnRollback(PooledStory claimed) {
+        afterRollback(() -> add(claimed.storyId(), claimed.collaborationCount()));
+    }
+
+    // ---------- Internos ----------
+
+    private Stripe stripeOf(long storyId) {
+        return stripes[Long.hashCode(storyId) & (STRIPES - 1)];
+    }
+
+    private int sizeOf(Function<Stripe, StoryBucket> bucketOf) {
+        int total = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                total += bucketOf.apply(stripe).size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return total;
+    }
+}
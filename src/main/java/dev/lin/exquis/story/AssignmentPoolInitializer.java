@@ -0,0 +1,35 @@
+package dev.lin.exquis.story;
+
+import dev.lin.exquis.blockedStory.BlockedStoryRepository;
+import dev.lin.exquis.blockedStory.StoryLeaseTable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Component
+@RequiredArgsConstructor
+public class AssignmentPoolInitializer {
+
+    private final StoryRepository storyRepository;
+    private final AssignmentPool assignmentPool;
+    private final BlockedStoryRepository blockedStoryRepository;
+    private final StoryLeaseTable leaseTable;
+
+    /**
+     * 📦 Carga el pool y las reservas vigentes desde la base de datos al arrancar
+     * (después de reparar los contadores).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(2)
+    @Transactional(readOnly = true)
+    public void loadPool() {
+        LocalDateTime now = LocalDateTime.now();
+        leaseTable.rebuild(blockedStoryRepository.findAllLeases());
+        assignmentPool.rebuild(storyRepository.findPoolCandidates(now));
+    }
+}
@@ -0,0 +1,182 @@
+package dev.lin.exquis.story;
+
+import dev.lin.exquis.collaboration.CollaborationRepository;
+import dev.lin.exquis.collaboration.StoryText;
+import dev.lin.exquis.outbox.OutboxEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mantiene el catálogo de historias completadas (tabla completed_stories).
+ * Cada historia se proyecta al recibir su evento story-finished del outbox, así
+ * que el catálogo sobrevive a caídas y se pone al día en cuanto el relay entrega.
+ * {@link #rebuild()} lo vuelve a generar entero por lotes, sin vaciarlo antes
+ * (relleno inicial o tras correcciones hechas a mano en la base de datos).
+ */
+@Component
+@Slf4j
+public class CompletedStoryCatalog {
+
+    private final CompletedStoryRepository completedStoryRepository;
+    private final StoryRepository storyRepository;
+    private final CollaborationRepository collaborationRepository;
+    private final StoryReadCache readCache;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${exquis.stories.catalog.rebuild-batch-size:500}")
+    private int batchSize;
+
+    @Value("${exquis.stories.catalog.backfill-on-startup:true}")
+    private boolean backfillOnStartup;
+
+    public CompletedStoryCatalog(CompletedStoryRepository completedStoryRepository,
+                                 StoryRepository storyRepository,
+                                 CollaborationRepository collaborationRepository,
+                                 StoryReadCache readCache,
+                                 PlatformTransactionManager transactionManager) {
+        this.completedStoryRepository = completedStoryRepository;
+        this.storyRepository = storyRepository;
+        this.collaborationRepository = collaborationRepository;
+        this.readCache = readCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener
+    public void onOutboxEvent(OutboxEvent event) {
+        switch (event.type()) {
+            case OutboxEvent.STORY_FINISHED, OutboxEvent.STORY_REVISED -> project(event.aggregateId());
+            case OutboxEvent.STORY_REOPENED -> transactionTemplate.executeWithoutResult(status -> {
+                completedStoryRepository.deleteById(event.aggregateId());
+                readCache.evictCompletedAfterCommit();
+            });
+            default -> {
+            }
+        }
+    }
+
+    /** Proyecta (o vuelve a proyectar) una historia; si ya no está finalizada la quita. */
+    public void project(long storyId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            readCache.evictCompletedAfterCommit();
+            var row = storyRepository.findCompletedRow(storyId);
+            if (row.isEmpty()) {
+                completedStoryRepository.deleteById(storyId);
+                return;
+            }
+            Map<Long, Integer> words = countWords(List.of(storyId));
+            completedStoryRepository.save(toEntry(row.get(), words.getOrDefault(storyId, 0)));
+        });
+    }
+
+    /**
+     * 🔄 Vuelve a generar el catálogo completo sin vaciarlo: se recorre la lista de
+     * completadas por keyset y cada lote se actualiza en su sitio, una transacción por
+     * lote; al final se quitan las entradas de historias que ya no están finalizadas.
+     * El listado sigue sirviendo el catálogo entero mientras tanto. Devuelve las
+     * historias proyectadas.
+     */
+    public synchronized int rebuild() {
+        long start = System.currentTimeMillis();
+        int total = 0;
+        CompletedStoryRow last = null;
+        while (true) {
+            CompletedStoryRow after = last;
+            List<CompletedStoryRow> page = transactionTemplate.execute(status -> {
+                List<CompletedStoryRow> rows = after == null
+                        ? storyRepository.findCompletedPage(Limit.of(batchSize))
+                        : storyRepository.findCompletedPageAfter(after.createdAt(), after.id(), Limit.of(batchSize));
+                if (!rows.isEmpty()) {
+                    List<Long> storyIds = rows.stream().map(CompletedStoryRow::id).toList();
+                    // Las existentes se cargan de una vez: el save las actualiza sin un SELECT por fila
+                    completedStoryRepository.findAllById(storyIds);
+                    Map<Long, Integer> words = countWords(storyIds);
+                    completedStoryRepository.saveAll(rows.stream()
+                            .map(row -> toEntry(row, words.getOrDefault(row.id(), 0)))
+                            .toList());
+                }
+                return rows;
+            });
+            total += page.size();
+            if (page.size() < batchSize) {
+                break;
+            }
+            last = page.get(page.size() - 1);
+        }
+        Integer removed = transactionTemplate.execute(status -> completedStoryRepository.deleteNoLongerFinished());
+        readCache.evictCompletedAfterCommit();
+        log.info("📚 Catálogo de completadas regenerado: {} historias, {} retiradas, en {} ms",
+                total, removed, System.currentTimeMillis() - start);
+        return total;
+    }
+
+    /**
+     * 📚 Relleno al arrancar: si el catálogo no cuadra con las historias finalizadas
+     * (p. ej. la primera vez que se despliega, o si el relay iba atrasado al parar) se
+     * regenera en su sitio, sin dejar de servirlo.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(4)
+    public void backfillOnStartup() {
+        if (!backfillOnStartup) {
+            return;
+        }
+        long finished = storyRepository.countByFinishedTrue();
+        if (completedStoryRepository.count() != finished) {
+            rebuild();
+        }
+    }
+
+    private Map<Long, Integer> countWords(List<Long> storyIds) {
+        Map<Long, Integer> words = new HashMap<>();
+        for (StoryText text : collaborationRepository.findTextsByStoryIds(storyIds)) {
+            words.merge(text.storyId(), countWords(text.text()), Integer::sum);
+        }
+        return words;
+    }
+
+    static int countWords(String text) {
+        if (text == null) {
+            return 0;
+        }
+        int words = 0;
+        boolean inWord = false;
+        for (int i = 0; i < text.length(); i++) {
+            boolean space = Character.isWhitespace(text.charAt(i));
+            if (!space && !inWord) {
+                words++;
+            }
+            inWord = !space;
+        }
+        return words;
+    }
+
+    private static CompletedStoryEntity toEntry(CompletedStoryRow row, int wordCount) {
+        return CompletedStoryEntity.builder()
+                .storyId(row.id())
+                .extension(row.extension())
+                .createdAt(row.createdAt())
+                .updatedAt(row.updatedAt())
+                .firstCollaborationId(row.firstCollaborationId())
+                .firstText(row.firstText())
+                .firstOrderNumber(row.firstOrderNumber())
+                .firstCreatedAt(row.firstCreatedAt())
+                .authorId(row.authorId())
+                .authorUsername(row.authorUsername())
+                .authorName(row.authorName())
+                .authorSurname(row.authorSurname())
+                .totalCollaborations(row.collaborationCount())
+                .wordCount(wordCount)
+                .build();
+    }
+}
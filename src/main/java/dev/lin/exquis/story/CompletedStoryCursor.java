@@ -0,0 +1,35 @@
+package dev.lin.exquis.story;
+
+import dev.lin.exquis.story.exceptions.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Posición en el listado de historias completadas (created_at DESC, id DESC).
+ * Se entrega al cliente como texto opaco en Base64 URL-safe.
+ */
+public record CompletedStoryCursor(LocalDateTime createdAt, long id) {
+
+    public static CompletedStoryCursor after(CompletedStoryEntity entry) {
+        return new CompletedStoryCursor(entry.getCreatedAt(), entry.getStoryId());
+    }
+
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CompletedStoryCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new CompletedStoryCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package dev.lin.exquis.story;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Catálogo de historias completadas (modelo de lectura). Una fila por historia
+ * finalizada con todo lo que muestra el listado ya unido: primera colaboración,
+ * su autor, el total de colaboraciones y el número de palabras. Lo mantiene
+ * {@link CompletedStoryCatalog}; nunca se escribe desde las peticiones.
+ */
+@Entity
+@Table(name = "completed_stories", indexes = {
+        // Listado: ORDER BY created_at DESC, story_id DESC
+        @Index(name = "idx_completed_stories_created", columnList = "created_at, story_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CompletedStoryEntity {
+
+    // Mismo id que la historia
+    @Id
+    @Column(name = "story_id")
+    private Long storyId;
+
+    @Column(nullable = false)
+    private Integer extension;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "first_collaboration_id")
+    private Long firstCollaborationId;
+
+    @Column(name = "first_text", length = 260)
+    private String firstText;
+
+    @Column(name = "first_order_number")
+    private Integer firstOrderNumber;
+
+    @Column(name = "first_created_at")
+    private LocalDateTime firstCreatedAt;
+
+    @Column(name = "author_id")
+    private Long authorId;
+
+    @Column(name = "author_username")
+    private String authorUsername;
+
+    @Column(name = "author_name")
+    private String authorName;
+
+    @Column(name = "author_surname")
+    private String authorSurname;
+
+    @Column(name = "total_collaborations", nullable = false)
+    private Integer totalCollaborations;
+
+    @Column(name = "word_count", nullable = false)
+    private Integer wordCount;
+}
@@ -0,0 +1,37 @@
+package dev.lin.exquis.story;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CompletedStoryRepository extends JpaRepository<CompletedStoryEntity, Long> {
+
+    @Query("SELECT c FROM CompletedStoryEntity c ORDER BY c.createdAt DESC, c.storyId DESC")
+    List<CompletedStoryEntity> findPage(Limit limit);
+
+    // Página siguiente por keyset: estrictamente después del cursor (createdAt, storyId)
+    @Query("""
+        SELECT c FROM CompletedStoryEntity c
+        WHERE c.createdAt < :createdAt OR (c.createdAt = :createdAt AND c.storyId < :storyId)
+        ORDER BY c.createdAt DESC, c.storyId DESC
+    """)
+    List<CompletedStoryEntity> findPageAfter(@Param("createdAt") LocalDateTime createdAt,
+                                             @Param("storyId") Long storyId,
+                                             Limit limit);
+
+    // Quita las entradas de historias que ya no están finalizadas (reabiertas o borradas)
+    @Modifying
+    @Query("""
+        DELETE FROM CompletedStoryEntity c
+        WHERE NOT EXISTS (
+            SELECT s.id FROM StoryEntity s WHERE s.id = c.storyId AND s.finished = true)
+    """)
+    int deleteNoLongerFinished();
+}
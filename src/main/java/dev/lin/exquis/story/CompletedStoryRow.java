@@ -0,0 +1,25 @@
+package dev.lin.exquis.story;
+
+import java.time.LocalDateTime;
+
+/**
+ * Fila del listado de historias completadas: la historia, su primera colaboración
+ * y el autor de esta, resueltos en una sola consulta (ver StoryRepository.findCompletedPage).
+ * Los campos de la colaboración y del autor son null si la historia no tiene colaboraciones.
+ */
+public record CompletedStoryRow(
+    Long id,
+    Integer extension,
+    LocalDateTime createdAt,
+    LocalDateTime updatedAt,
+    Integer collaborationCount,
+    Long firstCollaborationId,
+    String firstText,
+    Integer firstOrderNumber,
+    LocalDateTime firstCreatedAt,
+    Long authorId,
+    String authorUsername,
+    String authorName,
+    String authorSurname
+) {
+}
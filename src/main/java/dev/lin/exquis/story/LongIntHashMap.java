@@ -0,0 +1,188 @@
+package dev.lin.exquis.story;
+
+import java.util.Arrays;
+
+/**
+ * Mapa long → int de direccionamiento abierto (sondeo lineal), sin boxing.
+ * No es thread-safe: quien lo use debe sincronizar el acceso.
+ */
+final class LongIntHashMap {
+
+    static final int MISSING = Integer.MIN_VALUE;
+
+    private static final long FREE = 0L;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+    private int resizeAt;
+
+    // La clave 0 se usa como marca de hueco libre, así que se guarda aparte
+    private boolean hasZeroKey;
+    private int zeroValue;
+
+    LongIntHashMap() {
+        this(16);
+    }
+
+    LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    boolean containsKey(long key) {
+        return get(key) != MISSING;
+    }
+
+    /** Devuelve el valor o {@link #MISSING} si la clave no está. */
+    int get(long key) {
+        if (key == FREE) {
+            return hasZeroKey ? zeroValue : MISSING;
+        }
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        long existing;
+        while ((existing = keys[slot]) != FREE) {
+            if (existing == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return MISSING;
+    }
+
+    /** Inserta o reemplaza; devuelve el valor anterior o {@link #MISSING}. */
+    int put(long key, int value) {
+        if (key == FREE) {
+            int previous = hasZeroKey ? zeroValue : MISSING;
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return previous;
+        }
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        long existing;
+        while ((existing = keys[slot]) != FREE) {
+            if (existing == key) {
+                int previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size >= resizeAt) {
+            rehash(keys.length << 1);
+        }
+        return MISSING;
+    }
+
+    /** Elimina la clave; devuelve el valor que tenía o {@link #MISSING}. */
+    int remove(long key) {
+        if (key == FREE) {
+            if (!hasZeroKey) {
+                return MISSING;
+            }
+            hasZeroKey = false;
+            size--;
+            return zeroValue;
+        }
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        long existing;
+        while ((existing = keys[slot]) != FREE) {
+            if (existing == key) {
+                int previous = values[slot];
+                shiftKeysBack(slot);
+                size--;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return MISSING;
+    }
+
+    void clear() {
+        Arrays.fill(keys, FREE);
+        hasZeroKey = false;
+        size = 0;
+    }
+
+    void forEach(Entry consumer) {
+        if (hasZeroKey) {
+            consumer.accept(FREE, zeroValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    interface Entry {
+        void accept(long key, int value);
+    }
+
+    // ---------- Internos ----------
+
+    // Borrado con desplazamiento hacia atrás para no dejar lápidas en la cadena de sondeo
+    private void shiftKeysBack(int slot) {
+        int mask = keys.length - 1;
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        long key;
+        while ((key = keys[next]) != FREE) {
+            int ideal = mix(key) & mask;
+            if (((next - ideal) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = key;
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = FREE;
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(newCapacity);
+        int mask = newCapacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != FREE) {
+                int slot = mix(key) & mask;
+                while (keys[slot] != FREE) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,103 @@
+package dev.lin.exquis.story;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Conjunto de ids de historia indexable por posición: acceso aleatorio O(1)
+ * y borrado O(1) intercambiando el elemento con el último (swap-remove).
+ * Guarda junto a cada id su número de colaboraciones. No es thread-safe.
+ */
+final class StoryBucket {
+
+    // Intentos aleatorios antes de recorrer el bucket buscando una historia elegible
+    private static final int RANDOM_PROBES = 8;
+
+    private long[] ids = new long[16];
+    private int[] counts = new int[16];
+    private int size;
+    private final LongIntHashMap positions = new LongIntHashMap();
+
+    int size() {
+        return size;
+    }
+
+    boolean contains(long storyId) {
+        return positions.containsKey(storyId);
+    }
+
+    /** Añade la historia o actualiza su número de colaboraciones si ya estaba. */
+    void put(long storyId, int collaborationCount) {
+        int index = positions.get(storyId);
+        if (index != LongIntHashMap.MISSING) {
+            counts[index] = collaborationCount;
+            return;
+        }
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size << 1);
+            counts = Arrays.copyOf(counts, size << 1);
+        }
+        ids[size] = storyId;
+        counts[size] = collaborationCount;
+        positions.put(storyId, size);
+        size++;
+    }
+
+    boolean remove(long storyId) {
+        int index = positions.get(storyId);
+        if (index == LongIntHashMap.MISSING) {
+            return false;
+        }
+        removeAt(index);
+        return true;
+    }
+
+    long idAt(int index) {
+        return ids[index];
+    }
+
+    int countAt(int index) {
+        return counts[index];
+    }
+
+    /**
+     * Busca una posición elegible al azar: primero unos intentos aleatorios
+     * y, si fallan, un recorrido desde una posición aleatoria. Devuelve -1 si no hay.
+     */
+    int findEligible(AssignmentPool.Eligibility eligibility, RandomGenerator random) {
+        if (size == 0) {
+            return -1;
+        }
+        for (int probe = 0; probe < RANDOM_PROBES && probe < size; probe++) {
+            int index = random.nextInt(size);
+            if (eligibility.test(ids[index], counts[index])) {
+                return index;
+            }
+        }
+        int start = random.nextInt(size);
+        for (int i = 0; i < size; i++) {
+            int index = (start + i) % size;
+            if (eligibility.test(ids[index], counts[index])) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    void removeAt(int index) {
+        long removed = ids[index];
+        int last = size - 1;
+        if (index != last) {
+            ids[index] = ids[last];
+            counts[index] = counts[last];
+            positions.put(ids[index], index);
+        }
+        positions.remove(removed);
+        size = last;
+    }
+
+    void clear() {
+        size = 0;
+        positions.clear();
+    }
+}
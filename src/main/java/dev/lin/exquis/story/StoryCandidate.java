@@ -0,0 +1,12 @@
+package dev.lin.exquis.story;
+
+/**
+ * Proyección de una historia asignable (para el pool de asignación),
+ * con el número de colaboraciones ya calculado en la base de datos.
+ */
+public record StoryCandidate(
+    Long id,
+    Integer extension,
+    int collaborationCount
+) {
+}
@@ -0,0 +1,11 @@
+package dev.lin.exquis.story;
+
+import java.time.LocalDateTime;
+
+/**
+ * Una historia acaba de completarse. Se publica dentro de la transacción que la
+ * marca como finalizada y los consumidores lo reciben después del commit, en
+ * segundo plano (ver {@link dev.lin.exquis.config.AsyncConfiguration}).
+ */
+public record StoryCompletedEvent(long storyId, LocalDateTime completedAt) {
+}
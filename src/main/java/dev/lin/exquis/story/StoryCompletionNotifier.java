@@ -0,0 +1,33 @@
+package dev.lin.exquis.story;
+
+import dev.lin.exquis.config.AsyncConfiguration;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Consumidor de historias completadas: avisa a los clientes suscritos y lleva la cuenta.
+ */
+@Component
+@Slf4j
+public class StoryCompletionNotifier {
+
+    private final StoryEventBroadcaster eventBroadcaster;
+    private final Counter completed;
+
+    public StoryCompletionNotifier(StoryEventBroadcaster eventBroadcaster, MeterRegistry meterRegistry) {
+        this.eventBroadcaster = eventBroadcaster;
+        this.completed = meterRegistry.counter("exquis.stories.completed");
+    }
+
+    @Async(AsyncConfiguration.STORY_EVENTS_EXECUTOR)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStoryCompleted(StoryCompletedEvent event) {
+        completed.increment();
+        eventBroadcaster.publish(StoryEvent.storyCompleted(event.storyId()));
+        log.info("🏁 Historia {} completada", event.storyId());
+    }
+}
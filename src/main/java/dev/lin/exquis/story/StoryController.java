@@ -1,6 +1,7 @@
 package dev.lin.exquis.story;
 
 import dev.lin.exquis.blockedStory.BlockedStoryEntity;
+import dev.lin.exquis.story.dtos.CompletedStoriesPageDTO;
 import dev.lin.exquis.story.dtos.CompletedStoryDTO;
 import dev.lin.exquis.story.dtos.StoryAssignmentResponseDTO;
 import dev.lin.exquis.story.dtos.StoryRequestDTO;
@@ -8,9 +9,11 @@ import dev.lin.exquis.story.dtos.StoryResponseDTO;
 import dev.lin.exquis.blockedStory.BlockedStoryRepository;
 import lombok.RequiredArgsConstructor;
 
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -23,8 +26,12 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class StoryController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final StoryService storyService;
     private final BlockedStoryRepository blockedStoryRepository;
+    private final StoryEventBroadcaster eventBroadcaster;
+    private final CompletedStoryCatalog completedStoryCatalog;
 
     @GetMapping
     public List<StoryResponseDTO> getAllStories() {
@@ -76,6 +83,13 @@ public class StoryController {
         return ResponseEntity.ok().build();
     }
 
+    // 📡 Eventos en vivo: reservas que vencen o se liberan e historias que quedan disponibles.
+    // Con ?storyId= solo los de esa historia (cuenta atrás de quien la escribe).
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(@RequestParam(required = false) Long storyId) {
+        return eventBroadcaster.subscribe(storyId);
+    }
+
     // 🔍 DEBUG: Ver historias bloqueadas (temporal - solo para desarrollo)
     @GetMapping("/blocked")
     public ResponseEntity<List<Map<String, Object>>> getBlockedStories() {
@@ -95,9 +109,30 @@ public class StoryController {
         return ResponseEntity.ok(result);
     }
 
+    /**
+     * Historias completadas por páginas. El cuerpo sigue siendo la lista de la página;
+     * el cursor de la siguiente va en la cabecera X-Next-Cursor (ausente en la última).
+     */
     @GetMapping("/completed")
-    public ResponseEntity<List<CompletedStoryDTO>> getCompletedStories() {
-        List<CompletedStoryDTO> completedStories = storyService.getCompletedStories();
-        return ResponseEntity.ok(completedStories);
+    public ResponseEntity<List<CompletedStoryDTO>> getCompletedStories(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        CompletedStoriesPageDTO page = storyService.getCompletedStories(cursor, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getStories());
+    }
+
+    /**
+     * 🔄 Regenera el catálogo de historias completadas (solo ADMIN).
+     */
+    @PostMapping("/completed/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildCompletedCatalog() {
+        int rebuilt = completedStoryCatalog.rebuild();
+        Map<String, Object> result = new HashMap<>();
+        result.put("rebuilt", rebuilt);
+        return ResponseEntity.ok(result);
     }
     }
\ No newline at end of file
@@ -2,14 +2,24 @@ package dev.lin.exquis.story;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "stories")
+@Table(name = "stories", indexes = {
+        // Listado de completadas: WHERE finished ORDER BY created_at DESC, id DESC
+        @Index(name = "idx_stories_finished_created", columnList = "finished, created_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE) // los UPDATE de contadores invalidan solo su historia (StoryReadCache)
+@DynamicUpdate // los contadores se actualizan con UPDATE atómicos; no pisarlos al guardar la entidad
 public class StoryEntity {
 
     @Id
@@ -24,6 +34,15 @@ public class StoryEntity {
     @Builder.Default
     private boolean finished = false;
 
+    // Contadores desnormalizados, mantenidos en cada colaboración (ver StoryRepository.allocateOrderNumber)
+    @Column(name = "collaboration_count", nullable = false)
+    @Builder.Default
+    private Integer collaborationCount = 0;
+
+    @Column(name = "last_order_number", nullable = false)
+    @Builder.Default
+    private Integer lastOrderNumber = 0;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     @Builder.Default
     private LocalDateTime createdAt = LocalDateTime.now();
@@ -0,0 +1,31 @@
+package dev.lin.exquis.story;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento que se envía por SSE a los clientes suscritos.
+ * {@code type} es el nombre del evento SSE; {@code blockedUntil} solo va en los de reserva.
+ */
+public record StoryEvent(String type, long storyId, LocalDateTime blockedUntil, LocalDateTime at) {
+
+    public static final String LEASE_EXPIRED = "lease-expired";
+    public static final String LEASE_RELEASED = "lease-released";
+    public static final String STORY_AVAILABLE = "story-available";
+    public static final String STORY_COMPLETED = "story-completed";
+
+    public static StoryEvent leaseExpired(long storyId, LocalDateTime blockedUntil) {
+        return new StoryEvent(LEASE_EXPIRED, storyId, blockedUntil, LocalDateTime.now());
+    }
+
+    public static StoryEvent leaseReleased(long storyId) {
+        return new StoryEvent(LEASE_RELEASED, storyId, null, LocalDateTime.now());
+    }
+
+    public static StoryEvent storyAvailable(long storyId) {
+        return new StoryEvent(STORY_AVAILABLE, storyId, null, LocalDateTime.now());
+    }
+
+    public static StoryEvent storyCompleted(long storyId) {
+        return new StoryEvent(STORY_COMPLETED, storyId, null, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,224 @@
+package dev.lin.exquis.story;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static dev.lin.exquis.config.TransactionCallbacks.afterCommit;
+
+/**
+ * Difunde por Server-Sent Events los cambios de reservas y de disponibilidad
+ * de historias. Las conexiones abiertas son asíncronas y no ocupan hilos del
+ * servidor; unos pocos hilos reparten los eventos a todos los suscriptores, así
+ * miles de clientes esperando no cuestan una petición por sondeo.
+ * <p>
+ * Cada suscriptor tiene su propia cola acotada y se le escribe por separado: un
+ * cliente lento no retrasa a los demás. Si su cola se llena se descartan sus eventos
+ * más antiguos, y si un envío no termina a tiempo se le desconecta (el cliente vuelve
+ * a suscribirse y recibe el estado actual).
+ */
+@Component
+@Slf4j
+public class StoryEventBroadcaster {
+
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        final Long storyId;
+        // Protegidos por el propio suscriptor
+        final ArrayDeque<SseEmitter.SseEventBuilder> pending = new ArrayDeque<>();
+        boolean draining;
+        // Instante en que empezó el envío en curso; 0 si no está enviando
+        volatile long sendingSince;
+
+        Subscriber(SseEmitter emitter, Long storyId) {
+            this.emitter = emitter;
+            this.storyId = storyId;
+        }
+
+        boolean wants(StoryEvent event) {
+            return storyId == null || storyId == event.storyId();
+        }
+    }
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Executor dispatcher;
+    private final int maxPending;
+    private final long sendTimeoutMillis;
+
+    @Value("${exquis.events.sse-timeout-ms:1800000}")
+    private long timeoutMillis;
+
+    @Autowired
+    public StoryEventBroadcaster(@Value("${exquis.events.dispatch-threads:4}") int threads,
+                                 @Value("${exquis.events.max-pending-per-subscriber:100}") int maxPending,
+                                 @Value("${exquis.events.send-timeout-ms:10000}") long sendTimeoutMillis) {
+        // La cola del ejecutor no crece sin límite: cada suscriptor tiene como mucho una tarea de envío pendiente
+        this(Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "story-events-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        }), maxPending, sendTimeoutMillis);
+    }
+
+    StoryEventBroadcaster(Executor dispatcher, int maxPending, long sendTimeoutMillis) {
+        this.dispatcher = dispatcher;
+        this.maxPending = maxPending;
+        this.sendTimeoutMillis = sendTimeoutMillis;
+    }
+
+    /**
+     * 📡 Abre una suscripción. Con {@code storyId} solo llegan los eventos de esa
+     * historia (p. ej. la cuenta atrás de quien la está escribiendo); sin él, todos.
+     */
+    public SseEmitter subscribe(Long storyId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        register(emitter, storyId);
+        return emitter;
+    }
+
+    void register(SseEmitter emitter, Long storyId) {
+        Subscriber subscriber = new Subscriber(emitter, storyId);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+    }
+
+    /** Encola el evento para los suscriptores interesados sin bloquear al llamante. */
+    public void publish(StoryEvent event) {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.wants(event)) {
+                enqueue(subscriber, SseEmitter.event().name(event.type()).data(event));
+            }
+        }
+    }
+
+    public void publishAll(Collection<StoryEvent> events) {
+        events.forEach(this::publish);
+    }
+
+    /** Publica el evento cuando se confirme la transacción (o ya, si no hay). */
+    public void publishAfterCommit(StoryEvent event) {
+        afterCommit(() -> publish(event));
+    }
+
+    /**
+     * Al liberar una reserva a mano: se avisa de la liberación y, si la historia
+     * sigue abierta, de que vuelve a estar disponible.
+     */
+    public void publishReleasedAfterCommit(long storyId, boolean available) {
+        publishAfterCommit(StoryEvent.leaseReleased(storyId));
+        if (available) {
+            publishAfterCommit(StoryEvent.storyAvailable(storyId));
+        }
+    }
+
+    /**
+     * 💓 Comentario periódico para que proxies y clientes no cierren la conexión
+     * por inactividad y para descartar a los clientes que ya se fueron.
+     */
+    @Scheduled(fixedDelayString = "${exquis.events.keep-alive-ms:25000}")
+    public void keepAlive() {
+        subscribers.forEach(subscriber -> enqueue(subscriber, SseEmitter.event().comment("keep-alive")));
+    }
+
+    /**
+     * ⏳ Desconecta a los suscriptores cuyo envío en curso lleva más de
+     * {@code exquis.events.send-timeout-ms}: su conexión está atascada.
+     */
+    @Scheduled(fixedDelayString = "${exquis.events.stall-check-ms:1000}")
+    public void dropStalledSubscribers() {
+        long now = System.currentTimeMillis();
+        for (Subscriber subscriber : subscribers) {
+            long since = subscriber.sendingSince;
+            if (since != 0 && now - since > sendTimeoutMillis && subscribers.remove(subscriber)) {
+                log.debug("📡 Suscriptor SSE descartado: envío atascado {} ms", now - since);
+                subscriber.emitter.completeWithError(new TimeoutException("Envío SSE atascado"));
+            }
+        }
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    private void enqueue(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        synchronized (subscriber) {
+            if (subscriber.pending.size() >= maxPending) {
+                subscriber.pending.pollFirst(); // Cliente atrasado: se queda con lo más reciente
+                log.debug("📡 Cola del suscriptor SSE llena, evento antiguo descartado");
+            }
+            subscriber.pending.addLast(event);
+            if (subscriber.draining) {
+                return; // Ya hay un envío en marcha que lo recogerá
+            }
+            subscriber.draining = true;
+        }
+        try {
+            dispatcher.execute(() -> drain(subscriber));
+        } catch (RejectedExecutionException e) {
+            synchronized (subscriber) {
+                subscriber.draining = false;
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        while (true) {
+            SseEmitter.SseEventBuilder event;
+            synchronized (subscriber) {
+                event = subscriber.pending.pollFirst();
+                if (event == null || !subscribers.contains(subscriber)) {
+                    subscriber.pending.clear();
+                    subscriber.draining = false;
+                    return;
+                }
+            }
+            send(subscriber, event);
+        }
+    }
+
+    private void send(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        subscriber.sendingSince = System.currentTimeMillis();
+        try {
+            subscriber.emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            // Cliente desconectado o emisor ya completado
+            subscribers.remove(subscriber);
+            log.debug("📡 Suscriptor SSE descartado: {}", e.getMessage());
+        } finally {
+            subscriber.sendingSince = 0;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+        if (dispatcher instanceof ExecutorService executor) {
+            executor.shutdownNow();
+        }
+    }
+}
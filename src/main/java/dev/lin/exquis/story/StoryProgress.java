@@ -0,0 +1,10 @@
+package dev.lin.exquis.story;
+
+/**
+ * Contadores de progreso de una historia leídos tras reservar un número de orden.
+ */
+public record StoryProgress(
+    Integer collaborationCount,
+    Integer lastOrderNumber
+) {
+}
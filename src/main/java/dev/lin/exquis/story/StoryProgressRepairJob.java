@@ -0,0 +1,46 @@
+package dev.lin.exquis.story;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StoryProgressRepairJob {
+
+    private final StoryRepository storyRepository;
+
+    /**
+     * 🔧 Al arrancar, recalcula los contadores (migra bases de datos existentes).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(1)
+    @Transactional
+    public void repairOnStartup() {
+        repairCounters();
+    }
+
+    /**
+     * 🕒 Detecta y corrige desajustes entre los contadores de stories y la tabla collaborations.
+     */
+    @Scheduled(cron = "${exquis.stories.progress-repair.cron:0 30 4 * * *}")
+    @Transactional
+    public int repairCounters() {
+        long drifted = storyRepository.countStoriesWithDriftedCounters();
+        if (drifted == 0) {
+            log.info("🔧 Contadores de historias correctos");
+            return 0;
+        }
+
+        log.warn("🔧 Detectadas {} historias con contadores desajustados, reconstruyendo...", drifted);
+        int repaired = storyRepository.repairProgressCounters();
+        log.info("🔧 Contadores reconstruidos en {} historias", repaired);
+        return repaired;
+    }
+}
@@ -0,0 +1,134 @@
+package dev.lin.exquis.story;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Mantiene en el pool una reserva de historias nuevas y vacías para que la
+ * asignación nunca tenga que crearlas dentro de la petición del usuario.
+ * Cuando las nuevas bajan del mínimo, se crean por lotes en segundo plano.
+ */
+@Service
+@Slf4j
+public class StoryProvisioner {
+
+    private final StoryRepository storyRepository;
+    private final AssignmentPool assignmentPool;
+    private final StoryEventBroadcaster eventBroadcaster;
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicBoolean refillRequested = new AtomicBoolean();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "story-provisioner");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${exquis.stories.provisioning.low-water-mark:20}")
+    private int lowWaterMark;
+
+    @Value("${exquis.stories.provisioning.batch-size:10}")
+    private int batchSize;
+
+    @Value("${exquis.stories.default-extension:10}")
+    private int defaultExtension;
+
+    public StoryProvisioner(StoryRepository storyRepository,
+                            AssignmentPool assignmentPool,
+                            StoryEventBroadcaster eventBroadcaster,
+                            PlatformTransactionManager transactionManager) {
+        this.storyRepository = storyRepository;
+        this.assignmentPool = assignmentPool;
+        this.eventBroadcaster = eventBroadcaster;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * 📦 Al arrancar (con el pool ya cargado) se completa la reserva.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(3)
+    public void provisionOnStartup() {
+        refill();
+    }
+
+    /**
+     * 🕒 Red de seguridad por si alguna recarga en segundo plano se perdió.
+     */
+    @Scheduled(fixedDelayString = "${exquis.stories.provisioning.interval-ms:30000}")
+    public void scheduledRefill() {
+        refill();
+    }
+
+    /** Pide una recarga en segundo plano si las nuevas bajaron del mínimo. No bloquea. */
+    public void requestRefillIfLow() {
+        if (assignmentPool.freshSize() >= lowWaterMark || !refillRequested.compareAndSet(false, true)) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                refill();
+            } catch (RuntimeException e) {
+                log.error("📦 Error reponiendo historias nuevas", e);
+            } finally {
+                refillRequested.set(false);
+            }
+        });
+    }
+
+    /**
+     * Crea historias por lotes (una transacción por lote) hasta alcanzar el mínimo.
+     * Devuelve cuántas se crearon.
+     */
+    public synchronized int refill() {
+        int created = 0;
+        int missing;
+        while ((missing = lowWaterMark - assignmentPool.freshSize()) > 0) {
+            int batch = Math.min(missing, batchSize);
+            List<StoryEntity> saved = transactionTemplate.execute(status -> storyRepository.saveAll(newStories(batch)));
+            // Ya confirmadas: pasan directamente al pool
+            saved.forEach(story -> {
+                assignmentPool.add(story.getId(), 0);
+                eventBroadcaster.publish(StoryEvent.storyAvailable(story.getId()));
+            });
+            created += saved.size();
+        }
+        if (created > 0) {
+            log.info("📦 Creadas {} historias nuevas (reserva: {})", created, assignmentPool.freshSize());
+        }
+        return created;
+    }
+
+    private List<StoryEntity> newStories(int count) {
+        LocalDateTime now = LocalDateTime.now();
+        List<StoryEntity> stories = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            stories.add(StoryEntity.builder()
+                    .extension(defaultExtension)
+                    .finished(false)
+                    .createdAt(now)
+                    .build());
+        }
+        return stories;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,108 @@
+package dev.lin.exquis.story;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Callable;
+
+import static dev.lin.exquis.config.TransactionCallbacks.afterCommit;
+
+/**
+ * Cachés de lectura de historias y colaboraciones (Caffeine, acotadas por tamaño
+ * y tiempo; ver spring.cache.* en application.properties). Las escrituras invalidan
+ * aquí, siempre al confirmar la transacción. Invalidar después del commit no basta
+ * por sí solo: una lectura que consultó la base de datos antes del commit podría
+ * guardar su valor después de la invalidación. Por eso todas las lecturas cargan
+ * dentro de la propia caché ({@code @Cacheable(sync = true)} o {@link #get}): con
+ * Caffeine, la invalidación espera a que termine la carga en curso de esa clave y
+ * la descarta. Los {@code clear()} de catálogo y autores no esperan a las cargas en
+ * curso: en ese caso el valor antiguo dura como mucho hasta que caduque
+ * (expireAfterWrite en spring.cache.caffeine.spec).
+ */
+@Component
+public class StoryReadCache {
+
+    public static final String STORIES = "stories";
+    public static final String STORY_COLLABORATIONS = "story-collaborations";
+    public static final String LAST_COLLABORATION = "last-collaboration";
+    public static final String COMPLETED_STORIES = "completed-stories";
+
+    private final CacheManager cacheManager;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public StoryReadCache(CacheManager cacheManager, EntityManagerFactory entityManagerFactory) {
+        this.cacheManager = cacheManager;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    public <T> T get(String cacheName, Object key, Callable<T> loader) {
+        return cache(cacheName).get(key, loader);
+    }
+
+    /**
+     * La historia, sus colaboraciones o su última colaboración cambiaron. Sus contadores
+     * se escriben con SQL nativo o JDBC, que Hibernate no sigue (ver
+     * StoryRepository.COUNTERS_SPACE), así que aquí se bloquea su entrada de la caché de
+     * segundo nivel hasta que termine la transacción, como hace Hibernate con sus propios
+     * UPDATE: una lectura que vio la fila anterior no puede guardarla ni mientras tanto
+     * ni después, porque empezó antes de liberarse el bloqueo.
+     */
+    public void evictStoryAfterCommit(long storyId) {
+        lockStoryUntilCompletion(storyId);
+        afterCommit(() -> {
+            cache(STORIES).evict(storyId);
+            cache(STORY_COLLABORATIONS).evict(storyId);
+            cache(LAST_COLLABORATION).evict(storyId);
+        });
+    }
+
+    private void lockStoryUntilCompletion(long storyId) {
+        EntityManager entityManager = EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory);
+        if (entityManager == null) {
+            // Sin transacción no hay lectura que pueda cruzarse con el commit
+            afterCommit(() -> entityManagerFactory.getCache().evict(StoryEntity.class, storyId));
+            return;
+        }
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(StoryEntity.class);
+        EntityDataAccess access = persister.getCacheAccessStrategy();
+        if (access == null) {
+            return;
+        }
+        Object key = access.generateCacheKey(storyId, persister, session.getFactory(), session.getTenantIdentifier());
+        SoftLock lock = access.lockItem(session, key, null);
+        session.getActionQueue().registerProcess(
+                (AfterTransactionCompletionProcess) (success, completed) -> access.unlockItem(completed, key, lock));
+    }
+
+    /** Cambió el catálogo de completadas: las páginas cacheadas ya no valen. */
+    public void evictCompletedAfterCommit() {
+        afterCommit(() -> cache(COMPLETED_STORIES).clear());
+    }
+
+    /** Cambió un autor (renombrado o borrado): aparece en colaboraciones de cualquier historia. */
+    public void evictAuthorsAfterCommit() {
+        afterCommit(() -> {
+            cache(STORY_COLLABORATIONS).clear();
+            cache(LAST_COLLABORATION).clear();
+            cache(COMPLETED_STORIES).clear();
+        });
+    }
+
+    private Cache cache(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            throw new IllegalStateException("Caché no configurada: " + cacheName);
+        }
+        return cache;
+    }
+}
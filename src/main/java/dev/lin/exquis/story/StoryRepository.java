@@ -1,8 +1,165 @@
 package dev.lin.exquis.story;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface StoryRepository extends JpaRepository<StoryEntity, Long> {
+
+    // 🔒 Carga y bloquea varias historias en una sola consulta (en orden de id para no interbloquear)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM StoryEntity s WHERE s.id IN :ids ORDER BY s.id")
+    List<StoryEntity> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    // ✅ Historias asignables para cargar el pool: no finalizadas y sin bloqueo vigente
+    @Query("""
+        SELECT new dev.lin.exquis.story.StoryCandidate(s.id, s.extension, s.collaborationCount)
+        FROM StoryEntity s
+        WHERE s.finished = false
+          AND NOT EXISTS (
+              SELECT b.id FROM BlockedStoryEntity b
+              WHERE b.story = s AND b.blockedUntil > :now)
+    """)
+    List<StoryCandidate> findPoolCandidates(@Param("now") LocalDateTime now);
+
+    /*
+     * Los UPDATE de contadores de una sola historia son SQL nativo con su propio espacio de
+     * consulta (COUNTERS_SPACE): un UPDATE en bloque JPQL sobre StoryEntity vaciaría la región
+     * entera de la caché de segundo nivel en cada colaboración. Quien los llama bloquea solo
+     * esa historia en la caché hasta el fin de la transacción (StoryReadCache.evictStoryAfterCommit).
+     */
+    String COUNTERS_SPACE = "story_counters";
+
+    // 🔢 Reserva el siguiente número de orden con un incremento atómico y condicional: devuelve 0
+    // si la historia ya está finalizada o completa. El UPDATE bloquea solo la fila de esta
+    // historia hasta el commit: las demás historias no esperan.
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = COUNTERS_SPACE))
+    @Query(nativeQuery = true, value = """
+        UPDATE stories
+        SET collaboration_count = collaboration_count + 1,
+            last_order_number = last_order_number + 1
+        WHERE id = :storyId AND finished = false
+          AND collaboration_count < extension
+    """)
+    int allocateOrderNumber(@Param("storyId") Long storyId);
+
+    // 📥 Aplica de una vez un lote de colaboraciones ya numeradas (escritura diferida)
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = COUNTERS_SPACE))
+    @Query(nativeQuery = true, value = """
+        UPDATE stories
+        SET collaboration_count = collaboration_count + :added,
+            last_order_number = CASE WHEN last_order_number < :lastOrderNumber
+                                     THEN :lastOrderNumber ELSE last_order_number END
+        WHERE id = :storyId
+    """)
+    int applyCollaborations(@Param("storyId") Long storyId,
+                            @Param("added") int added,
+                            @Param("lastOrderNumber") int lastOrderNumber);
+
+    // Lee los contadores ya incrementados por esta misma transacción
+    @Query("""
+        SELECT new dev.lin.exquis.story.StoryProgress(s.collaborationCount, s.lastOrderNumber)
+        FROM StoryEntity s
+        WHERE s.id = :storyId
+    """)
+    StoryProgress findProgress(@Param("storyId") Long storyId);
+
+    // Estado actual de la historia desde la base de datos: una consulta no pasa por la caché de segundo nivel
+    @Query("""
+        SELECT new dev.lin.exquis.story.StoryState(s.extension, s.finished, s.collaborationCount, s.lastOrderNumber)
+        FROM StoryEntity s
+        WHERE s.id = :storyId
+    """)
+    Optional<StoryState> findState(@Param("storyId") Long storyId);
+
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = COUNTERS_SPACE))
+    @Query(nativeQuery = true, value = """
+        UPDATE stories
+        SET collaboration_count = collaboration_count - 1
+        WHERE id = :storyId AND collaboration_count > 0
+    """)
+    int removeCollaboration(@Param("storyId") Long storyId);
+
+    // ✅ Marca la historia como finalizada solo una vez (devuelve 1 a quien la completa)
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = COUNTERS_SPACE))
+    @Query(nativeQuery = true, value = """
+        UPDATE stories
+        SET finished = true, updated_at = :now
+        WHERE id = :storyId AND finished = false
+          AND collaboration_count >= extension
+    """)
+    int markFinishedIfComplete(@Param("storyId") Long storyId, @Param("now") LocalDateTime now);
+
+    // 🔧 Reparación de contadores a partir de la tabla collaborations
+    @Query("""
+        SELECT COUNT(s.id) FROM StoryEntity s
+        WHERE s.collaborationCount <> (
+                SELECT COUNT(c.id) FROM CollaborationEntity c WHERE c.story.id = s.id)
+           OR s.lastOrderNumber <> (
+                SELECT COALESCE(MAX(c.orderNumber), 0) FROM CollaborationEntity c WHERE c.story.id = s.id)
+    """)
+    long countStoriesWithDriftedCounters();
+
+    long countByFinishedTrue();
+
+    @Modifying(clearAutomatically = true)
+    @Query("""
+        UPDATE StoryEntity s
+        SET s.collaborationCount = (
+                SELECT COUNT(c.id) FROM CollaborationEntity c WHERE c.story.id = s.id),
+            s.lastOrderNumber = (
+                SELECT COALESCE(MAX(c.orderNumber), 0) FROM CollaborationEntity c WHERE c.story.id = s.id)
+        WHERE s.collaborationCount <> (
+                SELECT COUNT(c.id) FROM CollaborationEntity c WHERE c.story.id = s.id)
+           OR s.lastOrderNumber <> (
+                SELECT COALESCE(MAX(c.orderNumber), 0) FROM CollaborationEntity c WHERE c.story.id = s.id)
+    """)
+    int repairProgressCounters();
+
+    // 📚 Historias completadas con su primera colaboración y su autor, en una sola consulta.
+    // El orden (created_at DESC, id DESC) lo sirve el índice idx_stories_finished_created.
+    String COMPLETED_PAGE_SELECT = """
+        SELECT new dev.lin.exquis.story.CompletedStoryRow(
+                s.id, s.extension, s.createdAt, s.updatedAt, s.collaborationCount,
+                c.id, c.text, c.orderNumber, c.createdAt,
+                u.id, u.username, u.name, u.surname)
+        FROM StoryEntity s
+        LEFT JOIN CollaborationEntity c ON c.story = s AND c.orderNumber = (
+                SELECT MIN(c2.orderNumber) FROM CollaborationEntity c2 WHERE c2.story = s)
+        LEFT JOIN c.user u
+        WHERE s.finished = true
+    """;
+
+    @Query(COMPLETED_PAGE_SELECT + " ORDER BY s.createdAt DESC, s.id DESC")
+    List<CompletedStoryRow> findCompletedPage(Limit limit);
+
+    // Página siguiente por keyset: estrictamente después del cursor (createdAt, id)
+    @Query(COMPLETED_PAGE_SELECT + """
+          AND (s.createdAt < :createdAt OR (s.createdAt = :createdAt AND s.id < :id))
+        ORDER BY s.createdAt DESC, s.id DESC
+    """)
+    List<CompletedStoryRow> findCompletedPageAfter(@Param("createdAt") LocalDateTime createdAt,
+                                                   @Param("id") Long id,
+                                                   Limit limit);
+
+    @Query(COMPLETED_PAGE_SELECT + " AND s.id = :storyId")
+    Optional<CompletedStoryRow> findCompletedRow(@Param("storyId") Long storyId);
 }
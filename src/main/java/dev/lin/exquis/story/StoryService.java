@@ -1,6 +1,6 @@
 package dev.lin.exquis.story;
 
-import dev.lin.exquis.story.dtos.CompletedStoryDTO;
+import dev.lin.exquis.story.dtos.CompletedStoriesPageDTO;
 import dev.lin.exquis.story.dtos.StoryAssignmentResponseDTO;
 import dev.lin.exquis.story.dtos.StoryRequestDTO;
 import dev.lin.exquis.story.dtos.StoryResponseDTO;
@@ -28,5 +28,5 @@ public interface StoryService {
     void unlockStory(Long storyId);
     
     // ✅ Nuevo: Obtener historias completadas
-    List<CompletedStoryDTO> getCompletedStories();
+    CompletedStoriesPageDTO getCompletedStories(String cursor, Integer limit);
 }
\ No newline at end of file
@@ -2,17 +2,25 @@ package dev.lin.exquis.story;
 
 import dev.lin.exquis.blockedStory.BlockedStoryEntity;
 import dev.lin.exquis.blockedStory.BlockedStoryRepository;
-import dev.lin.exquis.collaboration.CollaborationEntity;
+import dev.lin.exquis.blockedStory.StoryLeaseTable;
 import dev.lin.exquis.collaboration.CollaborationRepository;
 import dev.lin.exquis.collaboration.dtos.CollaborationResponseDTO;
+import dev.lin.exquis.outbox.DomainEventOutbox;
+import dev.lin.exquis.outbox.OutboxEvent;
+import dev.lin.exquis.story.dtos.CompletedStoriesPageDTO;
 import dev.lin.exquis.story.dtos.CompletedStoryDTO;
 import dev.lin.exquis.story.dtos.StoryAssignmentResponseDTO;
 import dev.lin.exquis.story.dtos.StoryRequestDTO;
 import dev.lin.exquis.story.dtos.StoryResponseDTO;
+import dev.lin.exquis.story.exceptions.NoStoryAvailableException;
 import dev.lin.exquis.user.UserEntity;
 import dev.lin.exquis.user.UserRepository;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -27,9 +35,24 @@ import java.util.stream.Collectors;
 public class StoryServiceImpl implements StoryService {
 
     private final StoryRepository storyRepository;
+    private final CompletedStoryRepository completedStoryRepository;
     private final BlockedStoryRepository blockedStoryRepository;
     private final CollaborationRepository collaborationRepository;
     private final UserRepository userRepository;
+    private final AssignmentPool assignmentPool;
+    private final UserEligibilityIndex eligibilityIndex;
+    private final StoryLeaseTable leaseTable;
+    private final StoryProvisioner storyProvisioner;
+    private final StoryEventBroadcaster eventBroadcaster;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DomainEventOutbox outbox;
+    private final StoryReadCache readCache;
+
+    @Value("${exquis.stories.completed.page-size:20}")
+    private int defaultCompletedPageSize;
+
+    @Value("${exquis.stories.completed.max-page-size:100}")
+    private int maxCompletedPageSize;
 
     // ---------- CRUD (mapeos a DTOs) ----------
 
@@ -42,6 +65,7 @@ public class StoryServiceImpl implements StoryService {
     }
 
     @Override
+    @Cacheable(cacheNames = StoryReadCache.STORIES, key = "#id", sync = true)
     public StoryResponseDTO getStoryById(Long id) {
         StoryEntity entity = storyRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Historia no encontrada: " + id));
@@ -56,17 +80,38 @@ public class StoryServiceImpl implements StoryService {
                 .createdAt(LocalDateTime.now())
                 .build();
         StoryEntity saved = storyRepository.save(entity);
+        assignmentPool.release(saved);
         return toResponse(saved);
     }
 
     @Override
+    @Transactional
     public StoryResponseDTO updateStory(Long id, StoryRequestDTO dto) {
         StoryEntity story = storyRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Historia no encontrada: " + id));
         if (dto.getExtension() != null) story.setExtension(dto.getExtension());
+        boolean completed = !story.isFinished() && dto.isFinished();
+        boolean reopened = story.isFinished() && !dto.isFinished();
         story.setFinished(dto.isFinished());
         story.setUpdatedAt(LocalDateTime.now());
         StoryEntity saved = storyRepository.save(story);
+        readCache.evictStoryAfterCommit(id);
+
+        // 📦 Mantener el pool: las finalizadas salen, las abiertas sin bloqueo vuelven
+        if (saved.isFinished()) {
+            assignmentPool.removeAfterCommit(id);
+            if (completed) {
+                eventPublisher.publishEvent(new StoryCompletedEvent(id, saved.getUpdatedAt()));
+                outbox.record(OutboxEvent.STORY_FINISHED, id, Map.of("finishedAt", saved.getUpdatedAt().toString()));
+            }
+        } else {
+            if (reopened) {
+                outbox.record(OutboxEvent.STORY_REOPENED, id, Map.of());
+            }
+            if (blockedStoryRepository.findByStoryId(id).isEmpty()) {
+                assignmentPool.release(saved);
+            }
+        }
         return toResponse(saved);
     }
 
@@ -77,6 +122,11 @@ public class StoryServiceImpl implements StoryService {
         }
         blockedStoryRepository.deleteByStoryId(id);
         storyRepository.deleteById(id);
+        completedStoryRepository.deleteById(id);
+        readCache.evictStoryAfterCommit(id);
+        readCache.evictCompletedAfterCommit();
+        assignmentPool.remove(id);
+        leaseTable.releaseAfterCommit(id);
     }
 
     @Override
@@ -112,32 +162,18 @@ public class StoryServiceImpl implements StoryService {
         System.out.println("🔍 Buscando historia disponible para: " + userEmail);
         LocalDateTime now = LocalDateTime.now();
 
-        // 🧹 Limpiar bloqueos expirados
-        int expiredCount = blockedStoryRepository.deleteExpiredBlocks(now);
-        if (expiredCount > 0) {
-            System.out.println("🧹 Eliminados " + expiredCount + " bloqueos expirados");
-        }
-
         // 👤 Obtener usuario
         UserEntity user = userRepository.findByEmail(userEmail)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado: " + userEmail));
 
         // ⚠️ Verificar si el usuario ya tiene una historia bloqueada
-        Optional<BlockedStoryEntity> existingBlock = blockedStoryRepository.findByUserEmail(userEmail);
+        // (los bloqueos vencidos los borra BlockedStoryCleanupScheduler al vencer su reserva)
+        Optional<BlockedStoryEntity> existingBlock = blockedStoryRepository.findActiveByUserEmail(userEmail, now);
         if (existingBlock.isPresent()) {
             BlockedStoryEntity block = existingBlock.get();
             StoryEntity blockedStory = block.getStory();
 
-            int currentCollaborationNumber = (int) collaborationRepository.countByStoryId(blockedStory.getId()) + 1;
-
-            CollaborationResponseDTO previousCollaboration = null;
-            if (currentCollaborationNumber > 1) {
-                List<CollaborationEntity> collaborations = collaborationRepository
-                        .findByStoryIdOrderByOrderNumberDesc(blockedStory.getId());
-                if (!collaborations.isEmpty()) {
-                    previousCollaboration = CollaborationResponseDTO.fromEntity(collaborations.get(0));
-                }
-            }
+            int currentCollaborationNumber = blockedStory.getCollaborationCount() + 1;
 
             long secondsRemaining = Math.max(0, Duration.between(
                     now.atZone(ZoneId.systemDefault()).toInstant(),
@@ -148,90 +184,35 @@ public class StoryServiceImpl implements StoryService {
                     .storyId(blockedStory.getId())
                     .extension(blockedStory.getExtension())
                     .currentCollaborationNumber(currentCollaborationNumber)
-                    .previousCollaboration(previousCollaboration)
+                    .previousCollaboration(findPreviousCollaboration(blockedStory.getId(), currentCollaborationNumber))
                     .timeLimit((int) secondsRemaining)
                     .build();
         }
 
-        // 🔒 Obtener historias candidatas
-        Set<Long> blockedIds = blockedStoryRepository.findActiveBlocks(now)
-                .stream().map(b -> b.getStory().getId()).collect(Collectors.toSet());
+        // 🧩 Regla de participación: mínimo 2 colaboraciones de otros desde la última del usuario
+        AssignmentPool.Eligibility eligibility = eligibilityIndex.eligibilityFor(user.getId());
 
-        List<StoryEntity> allCandidates = storyRepository.findAll()
-                .stream()
-                .filter(s -> !s.isFinished() && !blockedIds.contains(s.getId()))
-                .collect(Collectors.toList());
-
-        // 🧩 Filtrar historias donde el usuario puede participar (mínimo 2 colaboraciones de otros desde la última)
-        List<StoryEntity> availableStories = allCandidates.stream()
-                .filter(s -> {
-                    Optional<CollaborationEntity> lastUserCollab = collaborationRepository
-                            .findTopByUserIdAndStoryIdOrderByOrderNumberDesc(user.getId(), s.getId());
-
-                    if (lastUserCollab.isEmpty()) {
-                        // Nunca colaboró → puede participar
-                        return true;
-                    }
-
-                    long currentTotal = collaborationRepository.countByStoryId(s.getId());
-                    int lastUserOrder = lastUserCollab.get().getOrderNumber();
-
-                    boolean canParticipate = currentTotal >= lastUserOrder + 2;
-
-                    if (!canParticipate) {
-                        System.out.println("❌ Historia " + s.getId() + " excluida: usuario participó en orden "
-                                + lastUserOrder + ", actual: " + currentTotal);
-                    }
-
-                    return canParticipate;
-                })
-                .collect(Collectors.toList());
-
-        // ⚙️ Separar historias según progreso
-        List<StoryEntity> storiesInProgress = availableStories.stream()
-                .filter(s -> collaborationRepository.countByStoryId(s.getId()) > 0 &&
-                        collaborationRepository.countByStoryId(s.getId()) < s.getExtension())
-                .collect(Collectors.toList());
-
-        List<StoryEntity> newStories = availableStories.stream()
-                .filter(s -> collaborationRepository.countByStoryId(s.getId()) == 0)
-                .collect(Collectors.toList());
-
-        // 🧠 Elegir historia disponible o crear una nueva si no hay
-        StoryEntity chosen;
-        if (!storiesInProgress.isEmpty()) {
-            chosen = storiesInProgress.get(new Random().nextInt(storiesInProgress.size()));
-        } else if (!newStories.isEmpty()) {
-            chosen = newStories.get(new Random().nextInt(newStories.size()));
-        } else {
-            // Si no hay historias válidas, crear una nueva
-            chosen = StoryEntity.builder()
-                    .extension(10)
-                    .finished(false)
-                    .createdAt(now)
-                    .build();
-            chosen = storyRepository.save(chosen);
+        // 🧠 Sacar del pool una historia en progreso o nueva (las nuevas las crea StoryProvisioner)
+        LocalDateTime blockedUntil = now.plusMinutes(30);
+        StoryEntity chosen = claimFromPool(eligibility, user.getId(), blockedUntil, now);
+        storyProvisioner.requestRefillIfLow();
+        if (chosen == null) {
+            throw new NoStoryAvailableException();
         }
 
         // 🔒 Bloquear historia para el usuario
         BlockedStoryEntity blocked = BlockedStoryEntity.builder()
                 .story(chosen)
                 .lockedBy(user)
-                .blockedUntil(now.plusMinutes(30))
+                .blockedUntil(blockedUntil)
                 .createdAt(now)
                 .build();
         blockedStoryRepository.save(blocked);
+        outbox.record(OutboxEvent.LEASE_GRANTED, chosen.getId(), Map.of(
+                "userId", user.getId(),
+                "blockedUntil", blockedUntil.toString()));
 
-        int currentCollaborationNumber = (int) collaborationRepository.countByStoryId(chosen.getId()) + 1;
-
-        CollaborationResponseDTO previousCollaboration = null;
-        if (currentCollaborationNumber > 1) {
-            List<CollaborationEntity> collaborations = collaborationRepository
-                    .findByStoryIdOrderByOrderNumberDesc(chosen.getId());
-            if (!collaborations.isEmpty()) {
-                previousCollaboration = CollaborationResponseDTO.fromEntity(collaborations.get(0));
-            }
-        }
+        int currentCollaborationNumber = chosen.getCollaborationCount() + 1;
 
         // 🎯 Tiempo restante: siempre 30 minutos al crear un bloqueo nuevo
         long secondsRemaining = 30 * 60;
@@ -240,11 +221,48 @@ public class StoryServiceImpl implements StoryService {
                 .storyId(chosen.getId())
                 .extension(chosen.getExtension())
                 .currentCollaborationNumber(currentCollaborationNumber)
-                .previousCollaboration(previousCollaboration)
+                .previousCollaboration(findPreviousCollaboration(chosen.getId(), currentCollaborationNumber))
                 .timeLimit((int) secondsRemaining)
                 .build();
     }
 
+    /**
+     * Saca historias del pool hasta reservar una que siga abierta en la base de datos.
+     * La reserva es un compare-and-set en memoria: dos asignaciones concurrentes nunca
+     * obtienen la misma historia y ninguna espera a la otra. Las historias que ya no
+     * existen o se finalizaron se descartan del pool.
+     */
+    private StoryEntity claimFromPool(AssignmentPool.Eligibility eligibility, Long userId,
+                                      LocalDateTime blockedUntil, LocalDateTime now) {
+        Optional<AssignmentPool.PooledStory> claimed;
+        while ((claimed = assignmentPool.claim(eligibility)).isPresent()) {
+            AssignmentPool.PooledStory pooled = claimed.get();
+            if (!leaseTable.tryAcquire(pooled.storyId(), userId, blockedUntil, now)) {
+                // Reservada por otro: volverá al pool cuando la libere
+                continue;
+            }
+            Optional<StoryEntity> story = storyRepository.findById(pooled.storyId());
+            if (story.isPresent() && !story.get().isFinished()) {
+                assignmentPool.returnOnRollback(pooled);
+                leaseTable.releaseOnRollback(pooled.storyId(), userId);
+                return story.get();
+            }
+            leaseTable.release(pooled.storyId());
+        }
+        return null;
+    }
+
+    private CollaborationResponseDTO findPreviousCollaboration(Long storyId, int currentCollaborationNumber) {
+        if (currentCollaborationNumber <= 1) {
+            return null;
+        }
+        // La última colaboración solo cambia al escribir en la historia (ver StoryReadCache)
+        return readCache.get(StoryReadCache.LAST_COLLABORATION, storyId, () ->
+                collaborationRepository.findLastWithUserByStoryId(storyId)
+                        .map(CollaborationResponseDTO::fromEntity)
+                        .orElse(null));
+    }
+
 
 
     @Override
@@ -252,6 +270,11 @@ public class StoryServiceImpl implements StoryService {
     public void unlockStory(Long storyId) {
         System.out.println("🔓 Desbloqueando historia: " + storyId);
         blockedStoryRepository.deleteByStoryId(storyId);
+        leaseTable.releaseAfterCommit(storyId);
+        storyRepository.findById(storyId).ifPresent(story -> {
+            assignmentPool.release(story);
+            eventBroadcaster.publishReleasedAfterCommit(storyId, !story.isFinished());
+        });
     }
 
     // ---------- Helper de mapeo ----------
@@ -267,44 +290,58 @@ public class StoryServiceImpl implements StoryService {
     }
 
 
+    /**
+     * Página de historias completadas, de la más reciente a la más antigua. Se sirve
+     * entera del catálogo (completed_stories), sin tocar collaborations ni users;
+     * se pide una fila de más para saber si hay página siguiente.
+     */
     @Override
     @Transactional(readOnly = true)
-    public List<CompletedStoryDTO> getCompletedStories() {
-        System.out.println("📚 Obteniendo historias completadas...");
-    
-        // Obtener todas las historias finalizadas y públicas
-        List<StoryEntity> finishedStories = storyRepository.findAll()
-                .stream()
-                .filter(StoryEntity::isFinished)
-                .sorted((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt())) // Más recientes primero
-                .collect(Collectors.toList());
-    
-        System.out.println("✅ Encontradas " + finishedStories.size() + " historias completadas");
-    
-        // Mapear a CompletedStoryDTO
-        return finishedStories.stream()
-                .map(story -> {
-                    // Obtener la primera colaboración (orden 1)
-                    List<CollaborationEntity> collaborations = collaborationRepository
-                            .findByStoryIdWithUserOrderByOrderNumberAsc(story.getId());
-                
-                    CollaborationResponseDTO firstCollab = null;
-                    if (!collaborations.isEmpty()) {
-                        firstCollab = CollaborationResponseDTO.fromEntity(collaborations.get(0));
-                    }
-                
-                    // Contar total de colaboraciones
-                    int totalCollabs = collaborations.size();
-                
-                    return CompletedStoryDTO.builder()
-                            .id(story.getId())
-                            .extension(story.getExtension())
-                            .createdAt(story.getCreatedAt())
-                            .updatedAt(story.getUpdatedAt())
-                            .firstCollaboration(firstCollab)
-                            .totalCollaborations(totalCollabs)
-                            .build();
-                })
-                .collect(Collectors.toList());
+    @Cacheable(cacheNames = StoryReadCache.COMPLETED_STORIES, sync = true)
+    public CompletedStoriesPageDTO getCompletedStories(String cursor, Integer limit) {
+        int pageSize = limit == null ? defaultCompletedPageSize : Math.max(1, Math.min(limit, maxCompletedPageSize));
+        Limit fetch = Limit.of(pageSize + 1);
+
+        List<CompletedStoryEntity> entries;
+        if (cursor == null || cursor.isBlank()) {
+            entries = completedStoryRepository.findPage(fetch);
+        } else {
+            CompletedStoryCursor after = CompletedStoryCursor.decode(cursor);
+            entries = completedStoryRepository.findPageAfter(after.createdAt(), after.id(), fetch);
+        }
+
+        boolean hasMore = entries.size() > pageSize;
+        List<CompletedStoryEntity> page = hasMore ? entries.subList(0, pageSize) : entries;
+        return CompletedStoriesPageDTO.builder()
+                .stories(page.stream().map(this::toCompletedStory).toList())
+                .nextCursor(hasMore ? CompletedStoryCursor.after(page.get(pageSize - 1)).encode() : null)
+                .build();
+    }
+
+    private CompletedStoryDTO toCompletedStory(CompletedStoryEntity entry) {
+        CollaborationResponseDTO firstCollab = entry.getFirstCollaborationId() == null ? null
+                : CollaborationResponseDTO.builder()
+                        .id(entry.getFirstCollaborationId())
+                        .text(entry.getFirstText())
+                        .orderNumber(entry.getFirstOrderNumber())
+                        .createdAt(entry.getFirstCreatedAt())
+                        .storyId(entry.getStoryId())
+                        .user(CollaborationResponseDTO.UserBasicDTO.builder()
+                                .id(entry.getAuthorId())
+                                .username(entry.getAuthorUsername())
+                                .name(entry.getAuthorName())
+                                .surname(entry.getAuthorSurname())
+                                .build())
+                        .build();
+
+        return CompletedStoryDTO.builder()
+                .id(entry.getStoryId())
+                .extension(entry.getExtension())
+                .createdAt(entry.getCreatedAt())
+                .updatedAt(entry.getUpdatedAt())
+                .firstCollaboration(firstCollab)
+                .totalCollaborations(entry.getTotalCollaborations())
+                .wordCount(entry.getWordCount())
+                .build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package dev.lin.exquis.story;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Texto completo de una historia finalizada, ya serializado en JSON tal y como lo
+ * devuelve {@code GET /collaborations/story/{storyId}}. Se genera una vez al
+ * finalizar la historia y se sirve como bytes, con su hash como ETag. Se guarda
+ * también comprimida con gzip para no comprimir en cada petición.
+ */
+@Entity
+@Table(name = "story_snapshots")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StorySnapshotEntity {
+
+    // Mismo id que la historia
+    @Id
+    @Column(name = "story_id")
+    private Long storyId;
+
+    // ETag fuerte, con comillas: "<sha-256 en base64url>"
+    @Column(nullable = false, length = 64)
+    private String etag;
+
+    @Lob
+    @Column(nullable = false, length = 10_000_000)
+    @ToString.Exclude
+    private byte[] body;
+
+    // Variante gzip del mismo cuerpo (null si no compensa comprimir)
+    @Lob
+    @Column(name = "body_gzip", length = 10_000_000)
+    @ToString.Exclude
+    private byte[] bodyGzip;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    /** ETag de la variante gzip: otra representación, otro ETag fuerte. */
+    public String getGzipEtag() {
+        return etag.substring(0, etag.length() - 1) + "-gzip\"";
+    }
+}
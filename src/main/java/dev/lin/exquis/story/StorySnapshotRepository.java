@@ -0,0 +1,8 @@
+package dev.lin.exquis.story;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StorySnapshotRepository extends JpaRepository<StorySnapshotEntity, Long> {
+}
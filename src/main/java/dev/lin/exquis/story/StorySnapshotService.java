@@ -0,0 +1,182 @@
+package dev.lin.exquis.story;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.lin.exquis.collaboration.CollaborationRepository;
+import dev.lin.exquis.collaboration.dtos.CollaborationResponseDTO;
+import dev.lin.exquis.outbox.OutboxEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Instantáneas de historias finalizadas. Se generan al entregarse su evento
+ * story-finished (o story-revised, si un admin corrige una colaboración) y, si
+ * falta alguna (historias anteriores a esta tabla), la primera lectura la crea.
+ */
+@Service
+@Slf4j
+public class StorySnapshotService {
+
+    private final StorySnapshotRepository snapshotRepository;
+    private final StoryRepository storyRepository;
+    private final CollaborationRepository collaborationRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    public StorySnapshotService(StorySnapshotRepository snapshotRepository,
+                                StoryRepository storyRepository,
+                                CollaborationRepository collaborationRepository,
+                                ObjectMapper objectMapper,
+                                PlatformTransactionManager transactionManager) {
+        this.snapshotRepository = snapshotRepository;
+        this.storyRepository = storyRepository;
+        this.collaborationRepository = collaborationRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener
+    public void onOutboxEvent(OutboxEvent event) {
+        switch (event.type()) {
+            case OutboxEvent.STORY_FINISHED, OutboxEvent.STORY_REVISED -> render(event.aggregateId());
+            case OutboxEvent.STORY_REOPENED -> transactionTemplate.executeWithoutResult(status ->
+                    snapshotRepository.deleteById(event.aggregateId()));
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Instantánea de la historia si está finalizada (generándola si aún no existe);
+     * vacío si la historia sigue abierta o no existe.
+     */
+    public Optional<StorySnapshotEntity> find(long storyId) {
+        Optional<StorySnapshotEntity> snapshot = snapshotRepository.findById(storyId);
+        if (snapshot.isPresent()) {
+            return snapshot;
+        }
+        boolean finished = storyRepository.findState(storyId).map(StoryState::finished).orElse(false);
+        return finished ? render(storyId) : Optional.empty();
+    }
+
+    /** 📸 Genera (o regenera) la instantánea; si la historia ya no está finalizada la borra. */
+    public Optional<StorySnapshotEntity> render(long storyId) {
+        try {
+            return transactionTemplate.execute(status -> {
+                // Desde la base de datos: una entrada atrasada de la caché borraría una instantánea válida
+                boolean finished = storyRepository.findState(storyId).map(StoryState::finished).orElse(false);
+                if (!finished) {
+                    snapshotRepository.deleteById(storyId);
+                    return Optional.empty();
+                }
+                List<CollaborationResponseDTO> collaborations = collaborationRepository
+                        .findByStoryIdWithUserOrderByOrderNumberAsc(storyId).stream()
+                        .map(CollaborationResponseDTO::fromEntity)
+                        .toList();
+                byte[] body = serialize(collaborations);
+                byte[] gzip = gzip(body);
+                StorySnapshotEntity snapshot = snapshotRepository.save(StorySnapshotEntity.builder()
+                        .storyId(storyId)
+                        .etag(etagOf(body))
+                        .body(body)
+                        .bodyGzip(gzip.length < body.length ? gzip : null)
+                        .createdAt(LocalDateTime.now())
+                        .build());
+                log.debug("📸 Instantánea de la historia {} generada ({} bytes)", storyId, body.length);
+                return Optional.of(snapshot);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Otra petición la generó a la vez: el contenido es el mismo
+            return snapshotRepository.findById(storyId);
+        }
+    }
+
+    /** Compara un If-None-Match (uno o varios ETags, o *) con el ETag de la instantánea. */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** True si el cliente acepta gzip (Accept-Encoding con gzip o *, sin q=0). */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim();
+            if (!coding.equalsIgnoreCase("gzip") && !coding.equals("*")) {
+                continue;
+            }
+            boolean refused = false;
+            for (int i = 1; i < tokens.length; i++) {
+                String param = tokens[i].trim().replace(" ", "");
+                if (param.startsWith("q=")) {
+                    try {
+                        refused = Double.parseDouble(param.substring(2)) <= 0;
+                    } catch (NumberFormatException e) {
+                        refused = true;
+                    }
+                }
+            }
+            return !refused;
+        }
+        return false;
+    }
+
+    // Se comprime una sola vez, al generar la instantánea: máxima compresión
+    static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private byte[] serialize(List<CollaborationResponseDTO> collaborations) {
+        try {
+            return objectMapper.writeValueAsBytes(collaborations);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar la historia", e);
+        }
+    }
+
+    static String etagOf(byte[] body) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(hash) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
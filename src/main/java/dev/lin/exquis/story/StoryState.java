@@ -0,0 +1,13 @@
+package dev.lin.exquis.story;
+
+/**
+ * Estado de una historia leído siempre de la base de datos, sin pasar por la caché
+ * de segundo nivel: para decisiones que no pueden basarse en contadores atrasados.
+ */
+public record StoryState(
+    Integer extension,
+    boolean finished,
+    Integer collaborationCount,
+    Integer lastOrderNumber
+) {
+}
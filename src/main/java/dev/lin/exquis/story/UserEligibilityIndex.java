@@ -0,0 +1,144 @@
+package dev.lin.exquis.story;
+
+import dev.lin.exquis.collaboration.CollaborationRepository;
+import dev.lin.exquis.collaboration.LastOrderByStory;
+import dev.lin.exquis.outbox.OutboxEvent;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static dev.lin.exquis.config.TransactionCallbacks.afterCommit;
+
+/**
+ * Índice por usuario: historia → último número de orden en el que escribió.
+ * Resuelve la regla "mínimo 2 colaboraciones de otros desde tu último turno"
+ * sin consultas por historia. Cada usuario se carga de forma perezosa con una
+ * única consulta agrupada y después se mantiene con las nuevas colaboraciones.
+ * Los usuarios inactivos salen del índice pasado un tiempo sin asignaciones y el
+ * número de usuarios cargados está acotado.
+ */
+@Component
+public class UserEligibilityIndex {
+
+    // Colaboraciones de otros que deben pasar antes de que el usuario repita
+    static final int MIN_OTHERS_BETWEEN_TURNS = 2;
+
+    private final CollaborationRepository collaborationRepository;
+
+    // Se guarda el futuro de la carga: la consulta corre fuera de cualquier bloqueo del
+    // mapa y quien pida el mismo usuario mientras tanto espera a esa misma carga
+    private final AsyncCache<Long, LongIntHashMap> lastOrdersByUser;
+
+    public UserEligibilityIndex(CollaborationRepository collaborationRepository,
+                                @Value("${exquis.stories.eligibility.max-users:50000}") long maxUsers,
+                                @Value("${exquis.stories.eligibility.idle-minutes:30}") long idleMinutes) {
+        this.collaborationRepository = collaborationRepository;
+        this.lastOrdersByUser = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(Duration.ofMinutes(idleMinutes))
+                .buildAsync();
+    }
+
+    /**
+     * Regla de elegibilidad del usuario para usar al reclamar del pool.
+     * Cada comprobación es una búsqueda O(1) en el mapa primitivo del usuario.
+     */
+    public AssignmentPool.Eligibility eligibilityFor(long userId) {
+        LongIntHashMap lastOrders = lastOrdersOf(userId);
+        return (storyId, collaborationCount) -> {
+            int lastUserOrder;
+            synchronized (lastOrders) {
+                lastUserOrder = lastOrders.get(storyId);
+            }
+            return lastUserOrder == LongIntHashMap.MISSING
+                    || collaborationCount >= lastUserOrder + MIN_OTHERS_BETWEEN_TURNS;
+        };
+    }
+
+    /** Registra la colaboración en el índice cuando se confirme la transacción. */
+    public void recordAfterCommit(long userId, long storyId, int orderNumber) {
+        afterCommit(() -> record(userId, storyId, orderNumber));
+    }
+
+    /** Olvida al usuario; se recargará desde la base de datos en su próxima asignación. */
+    public void invalidateAfterCommit(long userId) {
+        afterCommit(() -> lastOrdersByUser.synchronous().invalidate(userId));
+    }
+
+    /**
+     * Al borrar un usuario sus colaboraciones pasan a NoUser: se olvidan los dos
+     * para que se recarguen desde la base de datos.
+     */
+    @EventListener
+    public void onOutboxEvent(OutboxEvent event) {
+        if (!OutboxEvent.USER_DELETED.equals(event.type())) {
+            return;
+        }
+        lastOrdersByUser.synchronous().invalidate(event.aggregateId());
+        Long reassignedTo = event.longValue("reassignedTo");
+        if (reassignedTo != null) {
+            lastOrdersByUser.synchronous().invalidate(reassignedTo);
+        }
+    }
+
+    public void clear() {
+        lastOrdersByUser.synchronous().invalidateAll();
+    }
+
+    void record(long userId, long storyId, int orderNumber) {
+        // Solo si el usuario ya está cargado: si no, la carga perezosa ya verá la fila confirmada.
+        // Si su carga sigue en curso, se aplica al terminar para no perder la colaboración.
+        CompletableFuture<LongIntHashMap> loaded = lastOrdersByUser.getIfPresent(userId);
+        if (loaded == null) {
+            return;
+        }
+        loaded.thenAccept(lastOrders -> {
+            synchronized (lastOrders) {
+                int previous = lastOrders.get(storyId);
+                if (previous == LongIntHashMap.MISSING || orderNumber > previous) {
+                    lastOrders.put(storyId, orderNumber);
+                }
+            }
+        });
+    }
+
+    long loadedUsers() {
+        lastOrdersByUser.synchronous().cleanUp();
+        return lastOrdersByUser.synchronous().estimatedSize();
+    }
+
+    private LongIntHashMap lastOrdersOf(long userId) {
+        CompletableFuture<LongIntHashMap> loading = lastOrdersByUser.getIfPresent(userId);
+        if (loading == null) {
+            CompletableFuture<LongIntHashMap> created = new CompletableFuture<>();
+            loading = lastOrdersByUser.asMap().putIfAbsent(userId, created);
+            if (loading == null) {
+                // Este hilo gana la carga y la hace sin retener ningún bloqueo del mapa;
+                // si falla, la caché descarta el futuro y el siguiente intento recarga
+                loading = created;
+                try {
+                    created.complete(load(userId));
+                } catch (RuntimeException e) {
+                    created.completeExceptionally(e);
+                    throw e;
+                }
+            }
+        }
+        return loading.join();
+    }
+
+    private LongIntHashMap load(long userId) {
+        List<LastOrderByStory> rows = collaborationRepository.findLastOrderNumbersByUser(userId);
+        LongIntHashMap lastOrders = new LongIntHashMap(rows.size());
+        for (LastOrderByStory row : rows) {
+            lastOrders.put(row.storyId(), row.lastOrderNumber());
+        }
+        return lastOrders;
+    }
+}
@@ -0,0 +1,18 @@
+package dev.lin.exquis.story.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CompletedStoriesPageDTO {
+    private List<CompletedStoryDTO> stories;
+    // null si no hay más páginas
+    private String nextCursor;
+}
@@ -19,4 +19,5 @@ public class CompletedStoryDTO {
     private LocalDateTime updatedAt;
     private CollaborationResponseDTO firstCollaboration;
     private Integer totalCollaborations;
+    private Integer wordCount;
 }
\ No newline at end of file
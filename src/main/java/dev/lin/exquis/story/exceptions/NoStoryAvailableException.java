@@ -0,0 +1,11 @@
+package dev.lin.exquis.story.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class NoStoryAvailableException extends RuntimeException {
+    public NoStoryAvailableException() {
+        super("No hay historias disponibles en este momento, inténtalo de nuevo en unos segundos.");
+    }
+}
@@ -1,7 +1,9 @@
 package dev.lin.exquis.user;
 
+import dev.lin.exquis.security.LoginThrottle;
 import dev.lin.exquis.user.dtos.UserRequestDTO;
 import dev.lin.exquis.user.dtos.UserResponseDTO;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 
@@ -14,9 +16,11 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
+    private final LoginThrottle loginThrottle;
 
     @PostMapping("/register")
-    public UserResponseDTO register(@RequestBody UserRequestDTO dto) {
+    public UserResponseDTO register(@RequestBody UserRequestDTO dto, HttpServletRequest request) {
+        loginThrottle.check(dto.email(), request.getRemoteAddr());
         return userService.registerUser(dto);
     }
 
@@ -2,8 +2,12 @@ package dev.lin.exquis.user;
 
 import dev.lin.exquis.collaboration.CollaborationEntity;
 import dev.lin.exquis.collaboration.CollaborationRepository;
+import dev.lin.exquis.outbox.DomainEventOutbox;
+import dev.lin.exquis.outbox.OutboxEvent;
 import dev.lin.exquis.role.RoleEntity;
 import dev.lin.exquis.role.RoleRepository;
+import dev.lin.exquis.security.TokenVersionCache;
+import dev.lin.exquis.story.StoryReadCache;
 import dev.lin.exquis.user.dtos.UserRequestDTO;
 import dev.lin.exquis.user.dtos.UserResponseDTO;
 import lombok.extern.slf4j.Slf4j;
@@ -31,6 +35,15 @@ public class UserServiceImpl implements UserService {
     @Autowired
     private CollaborationRepository collaborationRepository;
 
+    @Autowired
+    private DomainEventOutbox outbox;
+
+    @Autowired
+    private StoryReadCache readCache;
+
+    @Autowired
+    private TokenVersionCache tokenVersions;
+
     @Override
     public UserResponseDTO registerUser(UserRequestDTO dto) {
         if (userRepository.existsByEmail(dto.email())) {
@@ -85,6 +98,7 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional
     public UserResponseDTO updateEntity(Long id, UserRequestDTO dto) {
         UserEntity user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
@@ -120,6 +134,7 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional
     public UserResponseDTO updateByEmail(String email, UserRequestDTO dto) {
         UserEntity user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado con email: " + email));
@@ -155,6 +170,7 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional
     public UserResponseDTO updateByUsername(String username, UserRequestDTO dto) {
         UserEntity user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
@@ -171,6 +187,7 @@ public class UserServiceImpl implements UserService {
         UserEntity user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
         userRepository.delete(user);
+        tokenVersions.revokeAfterCommit(user.getId());
         log.warn("Usuario {} eliminado", username);
     }
 
@@ -205,10 +222,19 @@ public class UserServiceImpl implements UserService {
 
         // 🔹 Eliminar al usuario
         userRepository.delete(userToDelete);
+        readCache.evictAuthorsAfterCommit();
+        tokenVersions.revokeAfterCommit(userToDelete.getId());
+        outbox.record(OutboxEvent.USER_DELETED, userToDelete.getId(), Map.of(
+                "reassignedTo", noUser.getId(),
+                "reassignedCollaborations", collaborations.size()));
     }
 
 
     private void updateUserFields(UserEntity user, UserRequestDTO dto) {
+        // El autor aparece en las colaboraciones cacheadas: si cambia, se invalidan
+        List<String> authorBefore = Arrays.asList(user.getUsername(), user.getName(), user.getSurname());
+        // Email y roles viajan en el token y la contraseña lo respalda: si cambian, los tokens emitidos caducan
+        boolean credentialsChanged = false;
         if (dto.username() != null && !dto.username().isBlank()) {
             if (!user.getUsername().equals(dto.username()) && userRepository.existsByUsername(dto.username())) {
                 throw new RuntimeException("El seudónimo ya está en uso");
@@ -219,12 +245,14 @@ public class UserServiceImpl implements UserService {
             if (!user.getEmail().equals(dto.email()) && userRepository.existsByEmail(dto.email())) {
                 throw new RuntimeException("El email ya está en uso");
             }
+            credentialsChanged |= !user.getEmail().equals(dto.email());
             user.setEmail(dto.email());
         }
         if (dto.name() != null) user.setName(dto.name());
         if (dto.surname() != null) user.setSurname(dto.surname());
         if (dto.password() != null && !dto.password().isBlank()) {
             user.setPassword(passwordEncoder.encode(dto.password()));
+            credentialsChanged = true;
         }
 
         if (dto.roles() != null && !dto.roles().isEmpty()) {
@@ -232,8 +260,17 @@ public class UserServiceImpl implements UserService {
                     .map(roleName -> roleRepository.findByName(roleName)
                             .orElseThrow(() -> new RuntimeException("Rol " + roleName + " no encontrado")))
                     .collect(Collectors.toSet());
+            credentialsChanged |= !newRoles.equals(user.getRoles());
             user.setRoles(newRoles);
         }
+
+        if (!authorBefore.equals(Arrays.asList(user.getUsername(), user.getName(), user.getSurname()))) {
+            readCache.evictAuthorsAfterCommit();
+        }
+        if (credentialsChanged) {
+            user.setTokenVersion(user.getTokenVersion() + 1);
+            tokenVersions.changedAfterCommit(user.getId(), user.getTokenVersion());
+        }
     }
 
     private UserResponseDTO mapToResponseDTO(UserEntity user) {
@@ -0,0 +1,133 @@
+package dev.lin.exquis.auth;
+
+import dev.lin.exquis.collaboration.CollaborationRepository;
+import dev.lin.exquis.outbox.OutboxEventRepository;
+import dev.lin.exquis.role.RoleEntity;
+import dev.lin.exquis.role.RoleRepository;
+import dev.lin.exquis.user.UserEntity;
+import dev.lin.exquis.user.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.Base64;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "exquis.auth.throttle.account.capacity=3",
+        "exquis.auth.throttle.account.refill-per-minute=1"
+})
+@DisplayName("GET /login - Límite de intentos - Tests de Integración")
+class LoginThrottleIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private CollaborationRepository collaborationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Value("${api-endpoint}")
+    private String apiEndpoint;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cleanUp();
+    }
+
+    @Test
+    @DisplayName("Los intentos fallidos repetidos deben acabar en 429 con Retry-After")
+    void shouldThrottleRepeatedWrongPasswords() throws Exception {
+        // Given: se agota el cupo de la cuenta con contraseñas erróneas
+        saveUser("throttled");
+        for (int i = 0; i < 3; i++) {
+            login("throttled@example.com", "wrong").andExpect(status().isUnauthorized());
+        }
+
+        // When / Then: ni siquiera la contraseña correcta pasa hasta que se recargue
+        login("throttled@example.com", "password123")
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    @DisplayName("Un login correcto debe comprobar la contraseña una sola vez")
+    void shouldCheckPasswordOnce() throws Exception {
+        // Given: otra cuenta, con su propio cupo
+        saveUser("once");
+        long before = meterRegistry.get("exquis.auth.hashing.latency").timer().count();
+
+        // When
+        login("once@example.com", "password123").andExpect(status().isOk());
+
+        // Then
+        assertThat(meterRegistry.get("exquis.auth.hashing.latency").timer().count()).isEqualTo(before + 1);
+    }
+
+    private ResultActions login(String email, String password) throws Exception {
+        String credentials = Base64.getEncoder().encodeToString((email + ":" + password).getBytes());
+        return mockMvc.perform(get(apiEndpoint + "/login").header("Authorization", "Basic " + credentials));
+    }
+
+    private void saveUser(String username) {
+        RoleEntity role = roleRepository.findByName("USER")
+                .orElseGet(() -> roleRepository.save(new RoleEntity(null, "USER", null)));
+        userRepository.save(UserEntity.builder()
+                .username(username)
+                .email(username + "@example.com")
+                .name("Test")
+                .surname("User")
+                .password(passwordEncoder.encode("password123"))
+                .roles(Set.of(role))
+                .build());
+    }
+
+    private void cleanUp() {
+        outboxEventRepository.deleteAll();
+        collaborationRepository.deleteAll();
+        userRepository.deleteAll();
+        entityManagerFactory.getCache().evictAll();
+    }
+}
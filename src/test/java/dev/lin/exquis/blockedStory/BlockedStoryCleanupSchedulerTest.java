@@ -0,0 +1,107 @@
+package dev.lin.exquis.blockedStory;
+
+import dev.lin.exquis.story.AssignmentPool;
+import dev.lin.exquis.story.StoryCandidate;
+import dev.lin.exquis.story.StoryEvent;
+import dev.lin.exquis.story.StoryEventBroadcaster;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BlockedStoryCleanupScheduler - Tests Unitarios")
+class BlockedStoryCleanupSchedulerTest {
+
+    @Mock
+    private BlockedStoryRepository blockedStoryRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private StoryEventBroadcaster eventBroadcaster;
+
+    private AssignmentPool assignmentPool;
+    private StoryLeaseTable leaseTable;
+    private BlockedStoryCleanupScheduler scheduler;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        assignmentPool = new AssignmentPool();
+        leaseTable = new StoryLeaseTable(1_000);
+        scheduler = new BlockedStoryCleanupScheduler(blockedStoryRepository, assignmentPool, leaseTable, eventBroadcaster, transactionManager);
+        ReflectionTestUtils.setField(scheduler, "batchSize", 2);
+        now = LocalDateTime.now();
+    }
+
+    @Test
+    @DisplayName("No debe tocar la base de datos si no vence ninguna reserva")
+    void shouldNotTouchDatabaseWithoutExpirations() {
+        // Given
+        leaseTable.tryAcquire(1L, 10L, now.plusMinutes(30), now);
+
+        // When
+        int expired = scheduler.expireDueLeases(now.plusSeconds(5));
+
+        // Then
+        assertThat(expired).isZero();
+        verifyNoInteractions(blockedStoryRepository);
+    }
+
+    @Test
+    @DisplayName("Debe borrar por lotes los bloqueos vencidos y devolver sus historias al pool")
+    void shouldExpireLeasesInBatches() {
+        // Given
+        for (long storyId = 1; storyId <= 3; storyId++) {
+            leaseTable.tryAcquire(storyId, 10L + storyId, now.plusSeconds(1), now);
+        }
+        when(blockedStoryRepository.findExpiredCandidatesByStoryIds(anyCollection(), any()))
+                .thenAnswer(inv -> inv.<List<Long>>getArgument(0).stream()
+                        .map(id -> new StoryCandidate(id, 10, 2))
+                        .toList());
+        when(blockedStoryRepository.deleteExpiredByStoryIds(anyCollection(), any()))
+                .thenAnswer(inv -> inv.<List<Long>>getArgument(0).size());
+
+        // When
+        int expired = scheduler.expireDueLeases(now.plusSeconds(3));
+
+        // Then
+        assertThat(expired).isEqualTo(3);
+        verify(blockedStoryRepository, times(2)).deleteExpiredByStoryIds(anyCollection(), any()); // 2 + 1
+        verify(blockedStoryRepository, never()).deleteExpiredBlocks(any());
+        assertThat(leaseTable.size()).isZero();
+        verify(eventBroadcaster, times(3)).publish(argThat(e -> e.type().equals(StoryEvent.LEASE_EXPIRED)));
+        verify(eventBroadcaster, times(3)).publish(argThat(e -> e.type().equals(StoryEvent.STORY_AVAILABLE)));
+        assertThat(assignmentPool.inProgressSize()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Debe reprogramar las reservas si falla el borrado")
+    void shouldRescheduleWhenDeleteFails() {
+        // Given
+        leaseTable.tryAcquire(1L, 10L, now.plusSeconds(1), now);
+        when(blockedStoryRepository.findExpiredCandidatesByStoryIds(anyCollection(), any()))
+                .thenThrow(new RuntimeException("Base de datos no disponible"));
+
+        // When
+        int expired = scheduler.expireDueLeases(now.plusSeconds(3));
+
+        // Then
+        assertThat(expired).isZero();
+        assertThat(leaseTable.find(1L)).isPresent();
+        assertThat(leaseTable.pendingExpirations()).isEqualTo(1);
+    }
+}
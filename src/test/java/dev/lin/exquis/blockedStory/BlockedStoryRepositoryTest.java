@@ -2,6 +2,7 @@ package dev.lin.exquis.blockedStory;
 
 import dev.lin.exquis.role.RoleEntity;
 import dev.lin.exquis.role.RoleRepository;
+import dev.lin.exquis.story.StoryCandidate;
 import dev.lin.exquis.story.StoryEntity;
 import dev.lin.exquis.story.StoryRepository;
 import dev.lin.exquis.user.UserEntity;
@@ -11,9 +12,13 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -28,6 +33,12 @@ class BlockedStoryRepositoryTest {
     @Autowired
     private BlockedStoryRepository blockedStoryRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
     @Autowired
     private StoryRepository storyRepository;
 
@@ -159,6 +170,76 @@ class BlockedStoryRepositoryTest {
         assertThat(blockedStoryRepository.count()).isEqualTo(1);
     }
 
+    @Test
+    @DisplayName("Debe devolver las historias abiertas cuyos bloqueos expiraron")
+    void shouldFindExpiredCandidates() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        createAndSaveBlock(testStory, testUser, now.minusMinutes(10)); // Expirado
+        createAndSaveBlock(anotherStory, anotherUser, now.plusMinutes(10)); // Vigente
+
+        // When
+        List<StoryCandidate> result = blockedStoryRepository.findExpiredCandidates(now);
+
+        // Then
+        assertThat(result).extracting(StoryCandidate::id).containsExactly(testStory.getId());
+    }
+
+    @Test
+    @DisplayName("Debe borrar solo los bloqueos vencidos de las historias indicadas")
+    void shouldDeleteExpiredBlocksByStoryIds() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        createAndSaveBlock(testStory, testUser, now.minusMinutes(10)); // Vencido
+        createAndSaveBlock(anotherStory, anotherUser, now.plusMinutes(10)); // Vigente
+
+        // When
+        List<StoryCandidate> released = blockedStoryRepository.findExpiredCandidatesByStoryIds(
+                List.of(testStory.getId(), anotherStory.getId()), now);
+        int deleted = blockedStoryRepository.deleteExpiredByStoryIds(
+                List.of(testStory.getId(), anotherStory.getId()), now);
+
+        // Then
+        assertThat(released).extracting(StoryCandidate::id).containsExactly(testStory.getId());
+        assertThat(deleted).isEqualTo(1);
+        assertThat(blockedStoryRepository.findByStoryId(anotherStory.getId())).isPresent();
+    }
+
+    @Test
+    @DisplayName("Debe ignorar el bloqueo vencido del usuario al buscar el vigente")
+    void shouldFindOnlyActiveBlockOfUser() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        createAndSaveBlock(testStory, testUser, now.minusMinutes(1));
+
+        // When & Then
+        assertThat(blockedStoryRepository.findActiveByUserEmail("test@example.com", now)).isEmpty();
+        assertThat(blockedStoryRepository.findActiveByUserEmail("test@example.com", now.minusMinutes(5))).isPresent();
+    }
+
+    @Test
+    @DisplayName("Debe escribir por lotes las renovaciones de los latidos")
+    void shouldFlushHeartbeatRenewals() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        createAndSaveBlock(testStory, testUser, now.plusMinutes(30));
+        StoryLeaseTable leaseTable = new StoryLeaseTable(1_000);
+        leaseTable.tryAcquire(testStory.getId(), testUser.getId(), now.plusMinutes(30), now);
+        LeaseHeartbeatService heartbeatService = new LeaseHeartbeatService(leaseTable, jdbcTemplate);
+        ReflectionTestUtils.setField(heartbeatService, "ttlSeconds", 120L);
+        ReflectionTestUtils.setField(heartbeatService, "batchSize", 500);
+        StoryLease renewed = heartbeatService.heartbeat(testStory.getId(), testUser.getId());
+
+        // When
+        heartbeatService.flush();
+
+        // Then
+        entityManager.clear();
+        assertThat(blockedStoryRepository.findByStoryId(testStory.getId()))
+                .hasValueSatisfying(block -> assertThat(block.getBlockedUntil())
+                        .isCloseTo(renewed.expiresAt(), within(1, ChronoUnit.MILLIS)));
+    }
+
     @Test
     @DisplayName("Debe encontrar bloqueos activos/vigentes")
     void shouldFindActiveBlocks() {
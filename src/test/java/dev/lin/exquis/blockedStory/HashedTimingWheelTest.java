@@ -0,0 +1,71 @@
+package dev.lin.exquis.blockedStory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("HashedTimingWheel - Tests Unitarios")
+class HashedTimingWheelTest {
+
+    private static final long START = 1_000_000L;
+
+    private HashedTimingWheel wheel;
+
+    @BeforeEach
+    void setUp() {
+        wheel = new HashedTimingWheel(1_000, 8, START);
+    }
+
+    @Test
+    @DisplayName("Debe vencer justo al alcanzar el tick del plazo")
+    void shouldFireAtDeadlineTick() {
+        // Given
+        wheel.schedule(1L, START + 2_500);
+
+        // When & Then
+        assertThat(wheel.advance(START + 2_999)).isEmpty();
+        assertThat(wheel.advance(START + 3_000))
+                .containsExactly(new HashedTimingWheel.Timeout(1L, START + 2_500));
+        assertThat(wheel.pending()).isZero();
+    }
+
+    @Test
+    @DisplayName("Debe respetar plazos más largos que una vuelta de la rueda")
+    void shouldHandleDeadlinesBeyondOneRevolution() {
+        // Given: 8 casillas de 1s, plazo a 20s
+        wheel.schedule(1L, START + 20_000);
+
+        // When & Then
+        assertThat(wheel.advance(START + 12_000)).isEmpty();
+        assertThat(wheel.advance(START + 19_000)).isEmpty();
+        assertThat(wheel.advance(START + 20_000)).extracting(HashedTimingWheel.Timeout::key).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("Debe entregar todos los vencimientos tras una pausa larga")
+    void shouldCatchUpAfterLongPause() {
+        // Given
+        for (long key = 1; key <= 20; key++) {
+            wheel.schedule(key, START + key * 1_000);
+        }
+
+        // When
+        var due = wheel.advance(START + 60_000);
+
+        // Then
+        assertThat(due).hasSize(20);
+        assertThat(wheel.pending()).isZero();
+    }
+
+    @Test
+    @DisplayName("Un plazo ya pasado debe vencer en el siguiente avance")
+    void shouldFirePastDeadlinesOnNextAdvance() {
+        // Given
+        wheel.schedule(1L, START - 5_000);
+
+        // When & Then
+        assertThat(wheel.advance(START + 1_000)).extracting(HashedTimingWheel.Timeout::key).containsExactly(1L);
+    }
+}
@@ -0,0 +1,109 @@
+package dev.lin.exquis.blockedStory;
+
+import dev.lin.exquis.blockedStory.exceptions.LeaseNotHeldException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("LeaseHeartbeatService - Tests Unitarios")
+class LeaseHeartbeatServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private StoryLeaseTable leaseTable;
+    private LeaseHeartbeatService heartbeatService;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        leaseTable = new StoryLeaseTable(1_000);
+        heartbeatService = new LeaseHeartbeatService(leaseTable, jdbcTemplate);
+        ReflectionTestUtils.setField(heartbeatService, "ttlSeconds", 120L);
+        ReflectionTestUtils.setField(heartbeatService, "batchSize", 500);
+        now = LocalDateTime.now();
+    }
+
+    @Test
+    @DisplayName("Debe renovar la reserva en memoria sin escribir en la base de datos")
+    void shouldRenewInMemoryWithoutDatabaseWrite() {
+        // Given
+        leaseTable.tryAcquire(1L, 10L, now.plusMinutes(30), now);
+
+        // When
+        StoryLease renewed = heartbeatService.heartbeat(1L, 10L);
+
+        // Then
+        assertThat(renewed.expiresAt()).isBefore(now.plusMinutes(3));
+        assertThat(leaseTable.find(1L)).contains(renewed);
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Debe rechazar el latido de quien no tiene la reserva")
+    void shouldRejectHeartbeatFromAnotherUser() {
+        // Given
+        leaseTable.tryAcquire(1L, 10L, now.plusMinutes(30), now);
+
+        // When & Then
+        assertThatThrownBy(() -> heartbeatService.heartbeat(1L, 20L))
+                .isInstanceOf(LeaseNotHeldException.class);
+        assertThatThrownBy(() -> heartbeatService.heartbeat(2L, 10L))
+                .isInstanceOf(LeaseNotHeldException.class);
+    }
+
+    @Test
+    @DisplayName("Debe agrupar varios latidos de la misma historia en una sola escritura")
+    @SuppressWarnings("unchecked")
+    void shouldCoalesceHeartbeatsIntoOneBatch() {
+        // Given
+        leaseTable.tryAcquire(1L, 10L, now.plusMinutes(30), now);
+        leaseTable.tryAcquire(2L, 20L, now.plusMinutes(30), now);
+        heartbeatService.heartbeat(1L, 10L);
+        heartbeatService.heartbeat(1L, 10L);
+        StoryLease latest = heartbeatService.heartbeat(1L, 10L);
+        heartbeatService.heartbeat(2L, 20L);
+
+        // When
+        int flushed = heartbeatService.flush();
+
+        // Then
+        ArgumentCaptor<Collection<StoryLease>> batch = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), batch.capture(), eq(500), any());
+        assertThat(flushed).isEqualTo(2);
+        assertThat(batch.getValue()).hasSize(2).contains(latest);
+        assertThat(heartbeatService.pendingCount()).isZero();
+        assertThat(heartbeatService.flush()).isZero();
+    }
+
+    @Test
+    @DisplayName("Debe conservar las renovaciones si falla la escritura")
+    void shouldKeepRenewalsWhenFlushFails() {
+        // Given
+        leaseTable.tryAcquire(1L, 10L, now.plusMinutes(30), now);
+        heartbeatService.heartbeat(1L, 10L);
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any()))
+                .thenThrow(new RuntimeException("Base de datos no disponible"));
+
+        // When
+        int flushed = heartbeatService.flush();
+
+        // Then
+        assertThat(flushed).isZero();
+        assertThat(heartbeatService.pendingCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,156 @@
+package dev.lin.exquis.blockedStory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("StoryLeaseTable - Tests Unitarios")
+class StoryLeaseTableTest {
+
+    private StoryLeaseTable leaseTable;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        leaseTable = new StoryLeaseTable(1_000);
+        now = LocalDateTime.now();
+    }
+
+    @Test
+    @DisplayName("Solo un usuario debe poder reservar una historia vigente")
+    void shouldLeaseStoryOnlyOnce() {
+        // When
+        boolean first = leaseTable.tryAcquire(1L, 10L, now.plusMinutes(30), now);
+        boolean second = leaseTable.tryAcquire(1L, 20L, now.plusMinutes(30), now);
+
+        // Then
+        assertThat(first).isTrue();
+        assertThat(second).isFalse();
+        assertThat(leaseTable.find(1L)).hasValueSatisfying(lease -> assertThat(lease.userId()).isEqualTo(10L));
+    }
+
+    @Test
+    @DisplayName("Debe permitir sustituir una reserva caducada")
+    void shouldReplaceExpiredLease() {
+        // Given
+        leaseTable.tryAcquire(1L, 10L, now.minusMinutes(1), now.minusMinutes(31));
+
+        // When
+        boolean acquired = leaseTable.tryAcquire(1L, 20L, now.plusMinutes(30), now);
+
+        // Then
+        assertThat(acquired).isTrue();
+        assertThat(leaseTable.isLeased(1L, now)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Debe liberar solo las reservas caducadas")
+    void shouldReleaseOnlyExpiredLeases() {
+        // Given
+        leaseTable.tryAcquire(1L, 10L, now.minusMinutes(1), now.minusMinutes(31));
+        leaseTable.tryAcquire(2L, 20L, now.plusMinutes(30), now);
+
+        // When
+        int released = leaseTable.releaseExpired(now);
+        leaseTable.releaseIfExpired(2L, now);
+
+        // Then
+        assertThat(released).isEqualTo(1);
+        assertThat(leaseTable.isLeased(1L, now)).isFalse();
+        assertThat(leaseTable.isLeased(2L, now)).isTrue();
+    }
+
+    @Test
+    @DisplayName("La rueda debe vencer las reservas con la resolución del tick configurado")
+    void shouldExpireWithConfiguredTickResolution() {
+        // Given: ticks de 100 ms en lugar de 1 s
+        leaseTable = new StoryLeaseTable(100);
+        leaseTable.tryAcquire(1L, 10L, now.plusNanos(150_000_000), now);
+
+        // When
+        List<StoryLease> expired = leaseTable.pollExpired(now.plusNanos(300_000_000));
+
+        // Then
+        assertThat(expired).extracting(StoryLease::storyId).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("Debe reconstruirse a partir de las reservas vigentes")
+    void shouldRebuildFromActiveLeases() {
+        // Given
+        leaseTable.tryAcquire(9L, 10L, now.plusMinutes(30), now);
+
+        // When
+        leaseTable.rebuild(List.of(new StoryLease(1L, 10L, now.plusMinutes(5))));
+
+        // Then
+        assertThat(leaseTable.size()).isEqualTo(1);
+        assertThat(leaseTable.isLeased(1L, now)).isTrue();
+        assertThat(leaseTable.isLeased(9L, now)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Debe devolver las reservas caducadas al avanzar la rueda")
+    void shouldPollExpiredLeases() {
+        // Given
+        leaseTable.tryAcquire(1L, 10L, now.plusSeconds(5), now);
+        leaseTable.tryAcquire(2L, 20L, now.plusMinutes(30), now);
+
+        // When & Then
+        assertThat(leaseTable.pollExpired(now.plusSeconds(2))).isEmpty();
+        assertThat(leaseTable.pollExpired(now.plusSeconds(7)))
+                .extracting(StoryLease::storyId)
+                .containsExactly(1L);
+        assertThat(leaseTable.find(1L)).isPresent(); // Sigue hasta que se borre su fila
+    }
+
+    @Test
+    @DisplayName("No debe devolver reservas liberadas ni sustituidas antes de vencer")
+    void shouldSkipReleasedAndReplacedLeases() {
+        // Given
+        leaseTable.tryAcquire(1L, 10L, now.plusSeconds(5), now);
+        leaseTable.tryAcquire(2L, 20L, now.plusSeconds(5), now);
+        leaseTable.release(1L);
+        leaseTable.tryAcquire(2L, 30L, now.plusMinutes(30), now.plusSeconds(6)); // Sustituye la caducada
+
+        // When
+        var expired = leaseTable.pollExpired(now.plusSeconds(7));
+
+        // Then
+        assertThat(expired).isEmpty();
+        assertThat(leaseTable.find(2L)).hasValueSatisfying(lease -> assertThat(lease.userId()).isEqualTo(30L));
+    }
+
+    @Test
+    @DisplayName("Debe renovar solo la reserva vigente del mismo usuario")
+    void shouldRenewOnlyOwnActiveLease() {
+        // Given
+        leaseTable.tryAcquire(1L, 10L, now.plusMinutes(30), now);
+        leaseTable.tryAcquire(2L, 10L, now.minusMinutes(1), now.minusMinutes(31));
+
+        // When & Then
+        assertThat(leaseTable.renew(1L, 10L, now.plusMinutes(2), now)).isPresent();
+        assertThat(leaseTable.find(1L)).hasValueSatisfying(lease ->
+                assertThat(lease.expiresAt()).isEqualTo(now.plusMinutes(2)));
+        assertThat(leaseTable.renew(1L, 20L, now.plusMinutes(2), now)).isEmpty(); // Otro usuario
+        assertThat(leaseTable.renew(2L, 10L, now.plusMinutes(2), now)).isEmpty(); // Ya caducada
+        assertThat(leaseTable.renew(3L, 10L, now.plusMinutes(2), now)).isEmpty(); // Sin reserva
+    }
+
+    @Test
+    @DisplayName("Una reserva renovada debe vencer en su nuevo plazo")
+    void shouldExpireRenewedLeaseAtNewDeadline() {
+        // Given
+        leaseTable.tryAcquire(1L, 10L, now.plusSeconds(5), now);
+        leaseTable.renew(1L, 10L, now.plusSeconds(20), now.plusSeconds(1));
+
+        // When & Then
+        assertThat(leaseTable.pollExpired(now.plusSeconds(7))).isEmpty();
+        assertThat(leaseTable.pollExpired(now.plusSeconds(22))).extracting(StoryLease::storyId).containsExactly(1L);
+    }
+}
@@ -0,0 +1,195 @@
+package dev.lin.exquis.collaboration;
+
+import dev.lin.exquis.blockedStory.BlockedStoryRepository;
+import dev.lin.exquis.collaboration.dtos.CollaborationBatchItemDTO;
+import dev.lin.exquis.collaboration.dtos.CollaborationBatchResultDTO;
+import dev.lin.exquis.collaboration.dtos.CollaborationBatchResultDTO.Status;
+import dev.lin.exquis.collaboration.exceptions.InvalidCollaborationException;
+import dev.lin.exquis.role.RoleEntity;
+import dev.lin.exquis.role.RoleRepository;
+import dev.lin.exquis.story.AssignmentPool;
+import dev.lin.exquis.story.StoryEntity;
+import dev.lin.exquis.story.StoryRepository;
+import dev.lin.exquis.user.UserEntity;
+import dev.lin.exquis.user.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Alta masiva de colaboraciones - Tests de Integración")
+class CollaborationBatchServiceIntegrationTest {
+
+    @Autowired
+    private CollaborationBatchService batchService;
+
+    @Autowired
+    private CollaborationRepository collaborationRepository;
+
+    @Autowired
+    private StoryRepository storyRepository;
+
+    @Autowired
+    private BlockedStoryRepository blockedStoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private AssignmentPool assignmentPool;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private UserEntity alice;
+    private UserEntity bob;
+    private StoryEntity shortStory;
+    private StoryEntity longStory;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+
+        RoleEntity userRole = roleRepository.findByName("USER")
+                .orElseGet(() -> roleRepository.save(new RoleEntity(null, "USER", null)));
+        alice = userRepository.save(createUser("alice", userRole));
+        bob = userRepository.save(createUser("bob", userRole));
+        shortStory = storyRepository.save(StoryEntity.builder().extension(3).finished(false).build());
+        longStory = storyRepository.save(StoryEntity.builder().extension(10).finished(false).build());
+        assignmentPool.rebuild(storyRepository.findPoolCandidates(LocalDateTime.now()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        cleanUp();
+    }
+
+    @Test
+    @DisplayName("Debe crear las válidas, numerarlas por historia y rechazar el resto una a una")
+    void shouldCreateValidItemsAndReportEachResult() {
+        // Given
+        List<CollaborationBatchItemDTO> items = List.of(
+                item(shortStory.getId(), "Primera de la corta", alice.getId()),
+                item(longStory.getId(), "Primera de la larga", null),   // Autor: el usuario autenticado
+                item(shortStory.getId(), "Segunda de la corta", bob.getId()),
+                item(shortStory.getId(), " ", bob.getId()),              // Texto vacío
+                item(shortStory.getId(), "Tercera de la corta", alice.getId()),
+                item(shortStory.getId(), "Ya no cabe", bob.getId()),     // Historia completa
+                item(999_999L, "Historia inexistente", alice.getId()),
+                item(longStory.getId(), "Usuario inexistente", 999_999L),
+                item(longStory.getId(), "Segunda de la larga", bob.getId()));
+
+        // When
+        List<CollaborationBatchResultDTO> results = batchService.createCollaborations(items, alice.getId());
+
+        // Then
+        assertThat(results).extracting(CollaborationBatchResultDTO::getStatus).containsExactly(
+                Status.CREATED, Status.CREATED, Status.CREATED, Status.REJECTED, Status.CREATED,
+                Status.REJECTED, Status.REJECTED, Status.REJECTED, Status.CREATED);
+        assertThat(results).extracting(CollaborationBatchResultDTO::getOrderNumber)
+                .containsExactly(1, 1, 2, null, 3, null, null, null, 2);
+
+        StoryEntity finished = storyRepository.findById(shortStory.getId()).orElseThrow();
+        assertThat(finished.isFinished()).isTrue();
+        assertThat(finished.getCollaborationCount()).isEqualTo(3);
+        assertThat(finished.getUpdatedAt()).isNotNull();
+        StoryEntity inProgress = storyRepository.findById(longStory.getId()).orElseThrow();
+        assertThat(inProgress.isFinished()).isFalse();
+        assertThat(inProgress.getLastOrderNumber()).isEqualTo(2);
+
+        assertThat(collaborationRepository.findByStoryIdWithUserOrderByOrderNumberAsc(longStory.getId()))
+                .extracting(c -> c.getUser().getId())
+                .containsExactly(alice.getId(), bob.getId());
+        assertThat(storyRepository.countStoriesWithDriftedCounters()).isZero();
+        assertThat(assignmentPool.contains(shortStory.getId())).isFalse();
+        assertThat(assignmentPool.contains(longStory.getId())).isTrue();
+    }
+
+    @Test
+    @DisplayName("Debe continuar la numeración de historias con colaboraciones previas")
+    void shouldContinueExistingNumbering() {
+        // Given
+        batchService.createCollaborations(List.of(item(longStory.getId(), "Primera", alice.getId())), alice.getId());
+
+        // When
+        List<CollaborationBatchResultDTO> results = batchService.createCollaborations(
+                List.of(item(longStory.getId(), "Segunda", bob.getId()), item(longStory.getId(), "Tercera", alice.getId())),
+                alice.getId());
+
+        // Then
+        assertThat(results).extracting(CollaborationBatchResultDTO::getOrderNumber).containsExactly(2, 3);
+    }
+
+    @Test
+    @DisplayName("Debe comprobar los autores por id sin cargar usuarios ni roles")
+    void shouldCheckAuthorsWithoutLoadingUsers() {
+        // Given
+        entityManagerFactory.getCache().evictAll();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        List<CollaborationBatchResultDTO> results = batchService.createCollaborations(
+                List.of(item(longStory.getId(), "Primera", alice.getId()), item(longStory.getId(), "Segunda", bob.getId())),
+                alice.getId());
+
+        // Then
+        assertThat(results).extracting(CollaborationBatchResultDTO::getStatus).containsOnly(Status.CREATED);
+        assertThat(statistics.getEntityStatistics(UserEntity.class.getName()).getLoadCount()).isZero();
+        assertThat(statistics.getEntityStatistics(RoleEntity.class.getName()).getLoadCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Debe rechazar peticiones por encima del máximo")
+    void shouldRejectOversizedRequest() {
+        // Given
+        List<CollaborationBatchItemDTO> items = new ArrayList<>(Collections.nCopies(5_001,
+                item(longStory.getId(), "Texto", alice.getId())));
+
+        // When & Then
+        assertThatThrownBy(() -> batchService.createCollaborations(items, alice.getId()))
+                .isInstanceOf(InvalidCollaborationException.class);
+    }
+
+    private CollaborationBatchItemDTO item(Long storyId, String text, Long userId) {
+        return new CollaborationBatchItemDTO(storyId, text, userId);
+    }
+
+    private UserEntity createUser(String name, RoleEntity role) {
+        return UserEntity.builder()
+                .username(name)
+                .email(name + "@example.com")
+                .name("Test")
+                .surname("User")
+                .password("encoded")
+                .roles(Set.of(role))
+                .build();
+    }
+
+    private void cleanUp() {
+        blockedStoryRepository.deleteAll();
+        collaborationRepository.deleteAll();
+        storyRepository.deleteAll();
+        userRepository.deleteAll();
+        assignmentPool.rebuild(List.of());
+    }
+}
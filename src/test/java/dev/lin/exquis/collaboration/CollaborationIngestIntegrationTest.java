@@ -0,0 +1,293 @@
+package dev.lin.exquis.collaboration;
+
+import dev.lin.exquis.blockedStory.BlockedStoryRepository;
+import dev.lin.exquis.collaboration.dtos.CollaborationBatchItemDTO;
+import dev.lin.exquis.collaboration.dtos.CollaborationBatchResultDTO;
+import dev.lin.exquis.collaboration.dtos.CollaborationRequestDTO;
+import dev.lin.exquis.collaboration.exceptions.StoryAlreadyFinishedException;
+import dev.lin.exquis.collaboration.exceptions.SynchronousWriteDisabledException;
+import dev.lin.exquis.role.RoleEntity;
+import dev.lin.exquis.role.RoleRepository;
+import dev.lin.exquis.story.AssignmentPool;
+import dev.lin.exquis.story.StoryEntity;
+import dev.lin.exquis.story.StoryRepository;
+import dev.lin.exquis.user.UserEntity;
+import dev.lin.exquis.user.UserRepository;
+import dev.lin.exquis.security.JwtService;
+import dev.lin.exquis.security.TokenVersionCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "exquis.collaborations.write-behind.enabled=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DisplayName("Escritura diferida de colaboraciones - Tests de Integración")
+class CollaborationIngestIntegrationTest {
+
+    private static final int WRITERS = 30;
+    private static final int EXTENSION = 10;
+
+    @Autowired
+    private CollaborationIngestService ingestService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private TokenVersionCache tokenVersionCache;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${api-endpoint}")
+    private String apiEndpoint;
+
+    @Autowired
+    private CollaborationBatchService batchService;
+
+    @Autowired
+    private CollaborationService collaborationService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CollaborationRepository collaborationRepository;
+
+    @Autowired
+    private StoryRepository storyRepository;
+
+    @Autowired
+    private BlockedStoryRepository blockedStoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private AssignmentPool assignmentPool;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<UserEntity> users = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+
+        RoleEntity userRole = roleRepository.findByName("USER")
+                .orElseGet(() -> roleRepository.save(new RoleEntity(null, "USER", null)));
+        for (int i = 0; i < WRITERS; i++) {
+            users.add(UserEntity.builder()
+                    .username("ingest" + i)
+                    .email("ingest" + i + "@example.com")
+                    .name("Test")
+                    .surname("User")
+                    .password("encoded")
+                    .roles(Set.of(userRole))
+                    .build());
+        }
+        userRepository.saveAll(users);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cleanUp();
+    }
+
+    @Test
+    @DisplayName("Una ráfaga de envíos debe guardarse por lotes y completar la historia exactamente")
+    void shouldGroupCommitBurstAndFinishStoryExactly() throws Exception {
+        // Given
+        StoryEntity story = storyRepository.save(StoryEntity.builder().extension(EXTENSION).finished(false).build());
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger refused = new AtomicInteger();
+        List<Future<?>> results = new ArrayList<>();
+        for (UserEntity user : users) {
+            results.add(executor.submit(() -> {
+                start.await();
+                try {
+                    ingestService.submit(story.getId(), user, "Colaboración de " + user.getUsername());
+                } catch (StoryAlreadyFinishedException e) {
+                    refused.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        // When
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        awaitFlushed(story.getId(), EXTENSION);
+
+        // Then
+        assertThat(refused.get()).isEqualTo(WRITERS - EXTENSION);
+        assertThat(collaborationRepository.findByStoryIdWithUserOrderByOrderNumberAsc(story.getId()))
+                .extracting(CollaborationEntity::getOrderNumber)
+                .containsExactlyElementsOf(IntStream.rangeClosed(1, EXTENSION).boxed().toList());
+        StoryEntity reloaded = storyRepository.findById(story.getId()).orElseThrow();
+        assertThat(reloaded.isFinished()).isTrue();
+        assertThat(reloaded.getCollaborationCount()).isEqualTo(EXTENSION);
+        assertThat(reloaded.getLastOrderNumber()).isEqualTo(EXTENSION);
+    }
+
+    @Test
+    @DisplayName("El alta masiva debe numerar con la misma secuencia que los envíos en cola")
+    void shouldShareSequenceBetweenQueueAndBatch() throws Exception {
+        // Given: envíos en cola, quizá aún sin guardar
+        StoryEntity story = storyRepository.save(StoryEntity.builder().extension(EXTENSION).finished(false).build());
+        double failedBefore = meterRegistry.counter("exquis.collaborations.ingest.failed").count();
+        for (int i = 0; i < 3; i++) {
+            ingestService.submit(story.getId(), users.get(i), "En cola " + i);
+        }
+
+        // When: alta masiva y más envíos sobre la misma historia
+        List<CollaborationBatchResultDTO> results = batchService.createCollaborations(List.of(
+                new CollaborationBatchItemDTO(story.getId(), "Masiva 1", users.get(3).getId()),
+                new CollaborationBatchItemDTO(story.getId(), "Masiva 2", users.get(4).getId())),
+                users.get(3).getId());
+        ingestService.submit(story.getId(), users.get(5), "En cola 5");
+        awaitCollaborations(story.getId(), 6);
+
+        // Then: números únicos y consecutivos, nada descartado
+        assertThat(results).extracting(CollaborationBatchResultDTO::getOrderNumber).containsExactly(4, 5);
+        assertThat(collaborationRepository.findByStoryIdWithUserOrderByOrderNumberAsc(story.getId()))
+                .extracting(CollaborationEntity::getOrderNumber)
+                .containsExactly(1, 2, 3, 4, 5, 6);
+        assertThat(storyRepository.findById(story.getId()).orElseThrow().getLastOrderNumber()).isEqualTo(6);
+        assertThat(meterRegistry.counter("exquis.collaborations.ingest.failed").count()).isEqualTo(failedBefore);
+    }
+
+    @Test
+    @DisplayName("Una secuencia nueva debe partir de la base de datos aunque la caché esté atrasada")
+    void shouldSeedSequenceFromDatabaseNotCache() throws Exception {
+        // Given: la caché de segundo nivel conserva la historia sin colaboraciones
+        StoryEntity story = storyRepository.save(StoryEntity.builder().extension(EXTENSION).finished(false).build());
+        storyRepository.findById(story.getId());
+        jdbcTemplate.update("INSERT INTO collaborations (text, order_number, created_at, story_id, user_id) VALUES (?, ?, ?, ?, ?)",
+                "Ya guardada", 1, LocalDateTime.now(), story.getId(), users.get(0).getId());
+        jdbcTemplate.update("UPDATE stories SET collaboration_count = 1, last_order_number = 1 WHERE id = ?", story.getId());
+        assertThat(storyRepository.findById(story.getId()).orElseThrow().getLastOrderNumber()).isZero();
+        double deadLetteredBefore = meterRegistry.counter("exquis.collaborations.ingest.dead-lettered").count();
+
+        // When
+        PendingCollaboration pending = ingestService.submit(story.getId(), users.get(1), "Siguiente");
+        awaitCollaborations(story.getId(), 2);
+
+        // Then: no repite el número 1 ni acaba apartada
+        assertThat(pending.orderNumber()).isEqualTo(2);
+        assertThat(collaborationRepository.findByStoryIdWithUserOrderByOrderNumberAsc(story.getId()))
+                .extracting(CollaborationEntity::getOrderNumber)
+                .containsExactly(1, 2);
+        assertThat(meterRegistry.counter("exquis.collaborations.ingest.dead-lettered").count()).isEqualTo(deadLetteredBefore);
+    }
+
+    @Test
+    @DisplayName("La escritura síncrona debe rechazarse con la escritura diferida activada")
+    void shouldRejectSynchronousWrites() throws InterruptedException {
+        // Given
+        StoryEntity story = storyRepository.save(StoryEntity.builder().extension(EXTENSION).finished(false).build());
+        ingestService.submit(story.getId(), users.get(0), "En cola");
+        CollaborationRequestDTO request = CollaborationRequestDTO.builder().storyId(story.getId()).text("Síncrona").build();
+
+        // When / Then
+        assertThatThrownBy(() -> collaborationService.createCollaboration(request, users.get(1).getEmail()))
+                .isInstanceOf(SynchronousWriteDisabledException.class);
+        awaitCollaborations(story.getId(), 1);
+    }
+
+    @Test
+    @DisplayName("POST /collaborations debe responder 202 sin cargar al autor")
+    void shouldAcknowledgeWithoutLoadingAuthor() throws Exception {
+        // Given
+        StoryEntity story = storyRepository.save(StoryEntity.builder().extension(EXTENSION).finished(false).build());
+        UserEntity author = users.get(0);
+        String token = jwtService.generateToken(author);
+        // La versión del token se cachea por usuario (una lectura por TTL, no por petición)
+        tokenVersionCache.isCurrent(author.getId(), author.getTokenVersion());
+        entityManagerFactory.getCache().evictAll();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When / Then
+        mockMvc.perform(post(apiEndpoint + "/collaborations")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"storyId\": " + story.getId() + ", \"text\": \"Desde la API\"}"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.orderNumber").value(1))
+                .andExpect(jsonPath("$.user.id").value(author.getId()));
+        assertThat(statistics.getEntityStatistics(UserEntity.class.getName()).getLoadCount()).isZero();
+        awaitCollaborations(story.getId(), 1);
+    }
+
+    private void awaitCollaborations(Long storyId, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            if (ingestService.queueSize() == 0
+                    && storyRepository.findById(storyId).orElseThrow().getCollaborationCount() >= expected) {
+                return;
+            }
+            Thread.sleep(20);
+        }
+        fail("La cola no se vació a tiempo");
+    }
+
+    private void awaitFlushed(Long storyId, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            StoryEntity story = storyRepository.findById(storyId).orElseThrow();
+            if (ingestService.queueSize() == 0 && story.getCollaborationCount() >= expected && story.isFinished()) {
+                return;
+            }
+            Thread.sleep(20);
+        }
+        fail("La cola no se vació a tiempo");
+    }
+
+    private void cleanUp() {
+        blockedStoryRepository.deleteAll();
+        collaborationRepository.deleteAll();
+        storyRepository.deleteAll();
+        userRepository.deleteAll();
+        users.clear();
+        assignmentPool.rebuild(List.of());
+        entityManagerFactory.getCache().evictAll();
+    }
+}
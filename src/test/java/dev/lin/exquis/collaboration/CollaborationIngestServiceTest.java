@@ -0,0 +1,196 @@
+package dev.lin.exquis.collaboration;
+
+import dev.lin.exquis.collaboration.exceptions.IngestionQueueFullException;
+import dev.lin.exquis.collaboration.exceptions.InvalidCollaborationException;
+import dev.lin.exquis.collaboration.exceptions.StoryAlreadyFinishedException;
+import dev.lin.exquis.outbox.DomainEventOutbox;
+import dev.lin.exquis.story.AssignmentPool;
+import dev.lin.exquis.story.StoryReadCache;
+import dev.lin.exquis.story.StoryRepository;
+import dev.lin.exquis.story.StoryState;
+import dev.lin.exquis.story.UserEligibilityIndex;
+import dev.lin.exquis.user.UserEntity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CollaborationIngestService - Tests Unitarios")
+class CollaborationIngestServiceTest {
+
+    private static final String TEXT = "Un texto suficientemente largo para la historia";
+
+    @Mock
+    private StoryRepository storyRepository;
+
+    @Mock
+    private AssignmentPool assignmentPool;
+
+    @Mock
+    private UserEligibilityIndex eligibilityIndex;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private DomainEventOutbox outbox;
+
+    @Mock
+    private StoryReadCache readCache;
+
+    @Mock
+    private CollaborationDeadLetterRepository deadLetters;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CollaborationIngestService ingestService;
+    private UserEntity user;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // Sin arrancar el hilo de vaciado: la cola solo se llena
+        ingestService = new CollaborationIngestService(storyRepository, assignmentPool, eligibilityIndex,
+                jdbcTemplate, eventPublisher, outbox, readCache, deadLetters, transactionManager, meterRegistry, 3, 200);
+        user = UserEntity.builder().id(7L).email("test@example.com").build();
+    }
+
+    private void givenStory(long id, int extension, int collaborationCount) {
+        when(storyRepository.findState(id)).thenReturn(Optional.of(
+                new StoryState(extension, false, collaborationCount, collaborationCount)));
+    }
+
+    @Test
+    @DisplayName("Debe numerar en memoria a partir del contador de la historia")
+    void shouldNumberFromStoryCounter() {
+        // Given
+        givenStory(1L, 10, 4);
+
+        // When
+        PendingCollaboration first = ingestService.submit(1L, user, TEXT);
+        PendingCollaboration second = ingestService.submit(1L, user, TEXT);
+
+        // Then
+        assertThat(first.orderNumber()).isEqualTo(5);
+        assertThat(second.orderNumber()).isEqualTo(6);
+        assertThat(ingestService.queueSize()).isEqualTo(2);
+        verify(storyRepository, times(1)).findState(1L); // La historia se carga una sola vez
+        assertThat(meterRegistry.counter("exquis.collaborations.ingest.accepted").count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("No debe aceptar más colaboraciones de las que caben en la historia")
+    void shouldRejectBeyondExtension() {
+        // Given
+        givenStory(1L, 5, 4);
+        ingestService.submit(1L, user, TEXT);
+
+        // When & Then
+        assertThatThrownBy(() -> ingestService.submit(1L, user, TEXT))
+                .isInstanceOf(StoryAlreadyFinishedException.class);
+        assertThat(ingestService.queueSize()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Debe rechazar con la cola llena sin gastar números de orden")
+    void shouldApplyBackpressureWhenQueueIsFull() {
+        // Given
+        givenStory(1L, 10, 0);
+        givenStory(2L, 10, 0);
+        ingestService.submit(1L, user, TEXT);
+        ingestService.submit(1L, user, TEXT);
+        ingestService.submit(1L, user, TEXT);
+
+        // When & Then
+        assertThatThrownBy(() -> ingestService.submit(1L, user, TEXT))
+                .isInstanceOf(IngestionQueueFullException.class);
+        assertThatThrownBy(() -> ingestService.submit(2L, user, TEXT))
+                .isInstanceOf(IngestionQueueFullException.class);
+        assertThat(meterRegistry.counter("exquis.collaborations.ingest.rejected").count()).isEqualTo(2);
+        assertThat(meterRegistry.get("exquis.collaborations.ingest.queue.size").gauge().value()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Debe validar antes de aceptar")
+    void shouldValidateBeforeAccepting() {
+        // When & Then
+        assertThatThrownBy(() -> ingestService.submit(1L, user, " "))
+                .isInstanceOf(InvalidCollaborationException.class);
+        assertThatThrownBy(() -> ingestService.submit(1L, user, "x".repeat(261)))
+                .isInstanceOf(InvalidCollaborationException.class);
+        assertThatThrownBy(() -> ingestService.submit(null, user, TEXT))
+                .isInstanceOf(InvalidCollaborationException.class);
+        verifyNoInteractions(storyRepository);
+    }
+
+    @Test
+    @DisplayName("No debe aceptar colaboraciones en historias ya finalizadas")
+    void shouldRejectFinishedStory() {
+        // Given
+        when(storyRepository.findState(1L)).thenReturn(Optional.of(new StoryState(3, true, 3, 3)));
+
+        // When & Then
+        assertThatThrownBy(() -> ingestService.submit(1L, user, TEXT))
+                .isInstanceOf(StoryAlreadyFinishedException.class);
+    }
+
+    @Test
+    @DisplayName("Una colaboración aceptada que no se puede guardar debe apartarse, no descartarse")
+    void shouldDeadLetterUnsaveableCollaboration() {
+        // Given
+        givenStory(1L, 10, 4);
+        PendingCollaboration pending = ingestService.submit(1L, user, TEXT);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(), any()))
+                .thenThrow(new DataIntegrityViolationException("fk"));
+
+        // When
+        ingestService.flush(List.of(pending));
+
+        // Then
+        verify(deadLetters).save(argThat(deadLetter -> deadLetter.getOrderNumber() == 5
+                && deadLetter.getStoryId() == 1L && deadLetter.getUserId() == 7L && TEXT.equals(deadLetter.getText())));
+        assertThat(meterRegistry.counter("exquis.collaborations.ingest.dead-lettered").count()).isEqualTo(1);
+        // Sin pendientes, la secuencia se retira y el siguiente envío vuelve a leer la historia
+        ingestService.submit(1L, user, TEXT);
+        verify(storyRepository, times(2)).findState(1L);
+    }
+
+    @Test
+    @DisplayName("Si ni siquiera se puede apartar, debe conservarse sin liberar su número de orden")
+    void shouldKeepCollaborationWhenDeadLetterFails() {
+        // Given: base de datos caída
+        givenStory(1L, 10, 4);
+        PendingCollaboration pending = ingestService.submit(1L, user, TEXT);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(), any()))
+                .thenThrow(new DataAccessResourceFailureException("caída"));
+        when(deadLetters.save(any())).thenThrow(new DataAccessResourceFailureException("caída"));
+
+        // When
+        ingestService.flush(List.of(pending));
+
+        // Then: la secuencia sigue viva y no se repite el número 5
+        assertThat(ingestService.submit(1L, user, TEXT).orderNumber()).isEqualTo(6);
+        verify(storyRepository, times(1)).findState(1L);
+        assertThat(meterRegistry.counter("exquis.collaborations.ingest.dead-lettered").count()).isZero();
+    }
+}
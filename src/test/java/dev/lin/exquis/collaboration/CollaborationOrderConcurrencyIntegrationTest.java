@@ -0,0 +1,170 @@
+package dev.lin.exquis.collaboration;
+
+import dev.lin.exquis.blockedStory.BlockedStoryRepository;
+import dev.lin.exquis.collaboration.dtos.CollaborationRequestDTO;
+import dev.lin.exquis.role.RoleEntity;
+import dev.lin.exquis.role.RoleRepository;
+import dev.lin.exquis.story.AssignmentPool;
+import dev.lin.exquis.story.StoryEntity;
+import dev.lin.exquis.story.StoryRepository;
+import dev.lin.exquis.user.UserEntity;
+import dev.lin.exquis.user.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Números de orden concurrentes - Tests de Integración")
+class CollaborationOrderConcurrencyIntegrationTest {
+
+    private static final int WRITERS = 40;
+    private static final String TEXT = "Una colaboración escrita a la vez que las demás";
+
+    @Autowired
+    private CollaborationService collaborationService;
+
+    @Autowired
+    private CollaborationRepository collaborationRepository;
+
+    @Autowired
+    private StoryRepository storyRepository;
+
+    @Autowired
+    private BlockedStoryRepository blockedStoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private AssignmentPool assignmentPool;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<String> emails = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+
+        RoleEntity userRole = roleRepository.findByName("USER")
+                .orElseGet(() -> roleRepository.save(new RoleEntity(null, "USER", null)));
+
+        List<UserEntity> users = new ArrayList<>();
+        for (int i = 0; i < WRITERS; i++) {
+            String email = "writer" + i + "@example.com";
+            emails.add(email);
+            users.add(UserEntity.builder()
+                    .username("writer" + i)
+                    .email(email)
+                    .name("Test")
+                    .surname("User")
+                    .password("encoded")
+                    .roles(Set.of(userRole))
+                    .build());
+        }
+        userRepository.saveAll(users);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cleanUp();
+    }
+
+    @Test
+    @DisplayName("Escritores concurrentes en una historia deben recibir órdenes únicos y sin huecos")
+    void shouldAllocateUniqueGaplessOrderNumbers() throws Exception {
+        // Given
+        StoryEntity story = storyRepository.save(StoryEntity.builder().extension(1_000).finished(false).build());
+
+        // When
+        runConcurrently(story.getId(), emails).get(60, TimeUnit.SECONDS);
+
+        // Then
+        List<Integer> orders = collaborationRepository.findByStoryIdWithUserOrderByOrderNumberAsc(story.getId())
+                .stream().map(CollaborationEntity::getOrderNumber).toList();
+        assertThat(orders).containsExactlyElementsOf(IntStream.rangeClosed(1, WRITERS).boxed().toList());
+        StoryEntity reloaded = storyRepository.findById(story.getId()).orElseThrow();
+        assertThat(reloaded.getLastOrderNumber()).isEqualTo(WRITERS);
+        assertThat(reloaded.getCollaborationCount()).isEqualTo(WRITERS);
+    }
+
+    @Test
+    @DisplayName("Una transacción abierta sobre una historia no debe frenar a las demás")
+    void shouldNotBlockOtherStories() throws Exception {
+        // Given
+        StoryEntity busy = storyRepository.save(StoryEntity.builder().extension(1_000).finished(false).build());
+        StoryEntity other = storyRepository.save(StoryEntity.builder().extension(1_000).finished(false).build());
+        CountDownLatch othersDone = new CountDownLatch(1);
+        ExecutorService holder = Executors.newSingleThreadExecutor();
+
+        // Reserva un orden en "busy" y mantiene la transacción abierta hasta que terminen los demás
+        Future<?> held = holder.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            storyRepository.allocateOrderNumber(busy.getId());
+            try {
+                othersDone.await(60, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            status.setRollbackOnly();
+        }));
+
+        // When
+        runConcurrently(other.getId(), emails.subList(0, WRITERS / 2)).get(30, TimeUnit.SECONDS);
+        othersDone.countDown();
+        held.get(30, TimeUnit.SECONDS);
+        holder.shutdown();
+
+        // Then
+        assertThat(collaborationRepository.findByStoryIdWithUserOrderByOrderNumberAsc(other.getId()))
+                .extracting(CollaborationEntity::getOrderNumber)
+                .containsExactlyElementsOf(IntStream.rangeClosed(1, WRITERS / 2).boxed().toList());
+        assertThat(storyRepository.findById(busy.getId()).orElseThrow().getLastOrderNumber()).isZero();
+    }
+
+    private CompletableFuture<Void> runConcurrently(Long storyId, List<String> writers) {
+        ExecutorService executor = Executors.newFixedThreadPool(writers.size());
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        for (String email : writers) {
+            results.add(CompletableFuture.runAsync(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                collaborationService.createCollaboration(new CollaborationRequestDTO(TEXT, storyId), email);
+            }, executor));
+        }
+        start.countDown();
+        return CompletableFuture.allOf(results.toArray(CompletableFuture[]::new))
+                .whenComplete((ignored, error) -> executor.shutdown());
+    }
+
+    private void cleanUp() {
+        blockedStoryRepository.deleteAll();
+        collaborationRepository.deleteAll();
+        storyRepository.deleteAll();
+        userRepository.deleteAll();
+        emails.clear();
+        assignmentPool.rebuild(List.of());
+    }
+}
@@ -11,6 +11,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.time.LocalDateTime;
@@ -276,26 +277,38 @@ class CollaborationRepositoryTest {
     }
 
     @Test
-    @DisplayName("Debe preservar orden temporal cuando orderNumber es igual")
-    void shouldPreserveTemporalOrderWhenOrderNumberIsEqual() {
-        // Given - Aunque en producción no debería pasar, probar el comportamiento
-        CollaborationEntity collab1 = createCollaboration("Primera", 1, testStory, testUser);
-        collab1.setCreatedAt(LocalDateTime.now().minusHours(2));
-        collaborationRepository.save(collab1);
+    @DisplayName("No debe permitir dos colaboraciones con el mismo orden en una historia")
+    void shouldRejectDuplicateOrderNumberInStory() {
+        // Given
+        createAndSaveCollaboration("Primera", 1, testStory, testUser);
 
-        CollaborationEntity collab2 = createCollaboration("Segunda", 1, testStory, anotherUser);
-        collab2.setCreatedAt(LocalDateTime.now().minusHours(1));
-        collaborationRepository.save(collab2);
+        // When & Then
+        assertThatThrownBy(() -> collaborationRepository.saveAndFlush(
+                createCollaboration("Repetida", 1, testStory, anotherUser)))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    @DisplayName("Debe devolver la última colaboración del usuario en cada historia")
+    void shouldFindLastOrderNumbersByUser() {
+        // Given
+        StoryEntity otherStory = storyRepository.save(StoryEntity.builder()
+                .extension(10)
+                .finished(false)
+                .createdAt(LocalDateTime.now())
+                .build());
+        createAndSaveCollaboration("Primera", 1, testStory, testUser);
+        createAndSaveCollaboration("Segunda", 2, testStory, anotherUser);
+        createAndSaveCollaboration("Tercera", 3, testStory, testUser);
+        createAndSaveCollaboration("Otra", 1, otherStory, anotherUser);
 
         // When
-        List<CollaborationEntity> result = collaborationRepository.findByStoryIdOrderByOrderNumberAsc(testStory.getId());
+        List<LastOrderByStory> result = collaborationRepository.findLastOrderNumbersByUser(testUser.getId());
 
         // Then
-        assertThat(result).hasSize(2);
-        assertThat(result.get(0).getCreatedAt()).isBefore(result.get(1).getCreatedAt());
+        assertThat(result).containsExactly(new LastOrderByStory(testStory.getId(), 3));
     }
 
-    // Helper methods
     private CollaborationEntity createCollaboration(String text, int orderNumber, StoryEntity story, UserEntity user) {
         return CollaborationEntity.builder()
                 .text(text)
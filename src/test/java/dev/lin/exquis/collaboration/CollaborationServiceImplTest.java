@@ -0,0 +1,185 @@
+package dev.lin.exquis.collaboration;
+
+import dev.lin.exquis.collaboration.dtos.CollaborationRequestDTO;
+import dev.lin.exquis.collaboration.exceptions.CollaborationNotFoundException;
+import dev.lin.exquis.collaboration.exceptions.StoryAlreadyFinishedException;
+import dev.lin.exquis.outbox.DomainEventOutbox;
+import dev.lin.exquis.story.AssignmentPool;
+import dev.lin.exquis.story.StoryCompletedEvent;
+import dev.lin.exquis.story.StoryEntity;
+import dev.lin.exquis.story.StoryProgress;
+import dev.lin.exquis.story.StoryReadCache;
+import dev.lin.exquis.story.StoryRepository;
+import dev.lin.exquis.story.UserEligibilityIndex;
+import dev.lin.exquis.user.UserEntity;
+import dev.lin.exquis.user.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CollaborationServiceImpl - Tests Unitarios")
+class CollaborationServiceImplTest {
+
+    @Mock
+    private CollaborationRepository collaborationRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private StoryRepository storyRepository;
+
+    @Mock
+    private AssignmentPool assignmentPool;
+
+    @Mock
+    private UserEligibilityIndex eligibilityIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private DomainEventOutbox outbox;
+
+    @Spy
+    private StoryReadCache readCache = new StoryReadCache(new ConcurrentMapCacheManager(), mock(EntityManagerFactory.class, RETURNS_DEEP_STUBS));
+
+    @InjectMocks
+    private CollaborationServiceImpl collaborationService;
+
+    private StoryEntity testStory;
+    private UserEntity testUser;
+
+    @BeforeEach
+    void setUp() {
+        testStory = StoryEntity.builder()
+                .id(1L)
+                .extension(10)
+                .finished(false)
+                .collaborationCount(4)
+                .lastOrderNumber(4)
+                .createdAt(LocalDateTime.now())
+                .build();
+
+        testUser = UserEntity.builder()
+                .id(1L)
+                .username("testuser")
+                .email("test@example.com")
+                .name("Test")
+                .surname("User")
+                .build();
+    }
+
+    @Test
+    @DisplayName("Debe asignar el siguiente orden desde el contador sin contar colaboraciones")
+    void shouldAssignNextOrderFromStoryCounter() {
+        // Given
+        CollaborationRequestDTO request = new CollaborationRequestDTO("Un texto suficientemente largo para la historia", 1L);
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(storyRepository.findById(1L)).thenReturn(Optional.of(testStory));
+        when(storyRepository.allocateOrderNumber(1L)).thenReturn(1);
+        when(storyRepository.findProgress(1L)).thenReturn(new StoryProgress(5, 5));
+        when(collaborationRepository.save(any(CollaborationEntity.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        // When
+        CollaborationEntity result = collaborationService.createCollaboration(request, "test@example.com");
+
+        // Then
+        assertThat(result.getOrderNumber()).isEqualTo(5);
+        verify(storyRepository).allocateOrderNumber(1L);
+        verify(storyRepository).markFinishedIfComplete(eq(1L), any());
+        verify(collaborationRepository, never()).countByStoryId(anyLong());
+        verify(assignmentPool).updateAfterCommit(1L, 5);
+        verify(eligibilityIndex).recordAfterCommit(1L, 1L, 5);
+        verifyNoInteractions(eventPublisher); // No se completó
+    }
+
+    @Test
+    @DisplayName("Debe delegar la finalización de la historia en el UPDATE condicional")
+    void shouldFinishStoryThroughConditionalUpdate() {
+        // Given
+        CollaborationRequestDTO request = new CollaborationRequestDTO("La última colaboración que cierra la historia", 1L);
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(storyRepository.findById(1L)).thenReturn(Optional.of(testStory));
+        when(storyRepository.allocateOrderNumber(1L)).thenReturn(1);
+        when(storyRepository.findProgress(1L)).thenReturn(new StoryProgress(10, 10));
+        when(collaborationRepository.save(any(CollaborationEntity.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(storyRepository.markFinishedIfComplete(eq(1L), any())).thenReturn(1);
+
+        // When
+        CollaborationEntity result = collaborationService.createCollaboration(request, "test@example.com");
+
+        // Then
+        assertThat(result.getOrderNumber()).isEqualTo(10);
+        verify(storyRepository).allocateOrderNumber(1L);
+        verify(storyRepository, never()).save(any());
+        verify(assignmentPool).removeAfterCommit(1L);
+        verify(eventPublisher).publishEvent(argThat((Object e) -> e instanceof StoryCompletedEvent c && c.storyId() == 1L));
+    }
+
+    @Test
+    @DisplayName("Debe rechazar la colaboración si la historia ya está finalizada o completa")
+    void shouldRejectWhenOrderCannotBeAllocated() {
+        // Given: el UPDATE condicional no toca ninguna fila
+        CollaborationRequestDTO request = new CollaborationRequestDTO("Una colaboración que llega tarde", 1L);
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(storyRepository.findById(1L)).thenReturn(Optional.of(testStory));
+        when(storyRepository.allocateOrderNumber(1L)).thenReturn(0);
+
+        // When & Then
+        assertThatThrownBy(() -> collaborationService.createCollaboration(request, "test@example.com"))
+                .isInstanceOf(StoryAlreadyFinishedException.class);
+        verify(collaborationRepository, never()).save(any());
+        verifyNoInteractions(outbox);
+    }
+
+    @Test
+    @DisplayName("Debe descontar la colaboración del contador al eliminarla")
+    void shouldDecrementCounterOnDelete() {
+        // Given
+        CollaborationEntity existing = CollaborationEntity.builder()
+                .id(7L)
+                .text("Texto")
+                .orderNumber(3)
+                .story(testStory)
+                .user(testUser)
+                .build();
+        when(collaborationRepository.findById(7L)).thenReturn(Optional.of(existing));
+
+        // When
+        collaborationService.deleteEntity(7L);
+
+        // Then
+        verify(collaborationRepository).delete(existing);
+        verify(storyRepository).removeCollaboration(1L);
+        verify(eligibilityIndex).invalidateAfterCommit(1L);
+    }
+
+    @Test
+    @DisplayName("Debe lanzar excepción al eliminar colaboración inexistente")
+    void shouldThrowWhenDeletingMissingCollaboration() {
+        // Given
+        when(collaborationRepository.findById(99L)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThatThrownBy(() -> collaborationService.deleteEntity(99L))
+                .isInstanceOf(CollaborationNotFoundException.class);
+        verify(storyRepository, never()).removeCollaboration(anyLong());
+    }
+}
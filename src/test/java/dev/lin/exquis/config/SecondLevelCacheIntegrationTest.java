@@ -0,0 +1,267 @@
+package dev.lin.exquis.config;
+
+import dev.lin.exquis.blockedStory.BlockedStoryRepository;
+import dev.lin.exquis.collaboration.CollaborationBatchService;
+import dev.lin.exquis.collaboration.CollaborationRepository;
+import dev.lin.exquis.collaboration.CollaborationService;
+import dev.lin.exquis.collaboration.dtos.CollaborationRequestDTO;
+import dev.lin.exquis.collaboration.dtos.CollaborationBatchItemDTO;
+import dev.lin.exquis.outbox.OutboxEventRepository;
+import dev.lin.exquis.role.RoleEntity;
+import dev.lin.exquis.role.RoleRepository;
+import dev.lin.exquis.security.JpaUserDetailsService;
+import dev.lin.exquis.security.SecurityUser;
+import dev.lin.exquis.story.AssignmentPool;
+import dev.lin.exquis.story.StoryEntity;
+import dev.lin.exquis.story.StoryRepository;
+import dev.lin.exquis.user.UserEntity;
+import dev.lin.exquis.user.UserRepository;
+import dev.lin.exquis.user.UserService;
+import dev.lin.exquis.user.dtos.UserRequestDTO;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Caché de segundo nivel de Hibernate - Tests de Integración")
+class SecondLevelCacheIntegrationTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JpaUserDetailsService userDetailsService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CollaborationBatchService batchService;
+
+    @Autowired
+    private CollaborationService collaborationService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private CollaborationRepository collaborationRepository;
+
+    @Autowired
+    private StoryRepository storyRepository;
+
+    @Autowired
+    private BlockedStoryRepository blockedStoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private AssignmentPool assignmentPool;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+    private UserEntity user;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        RoleEntity userRole = roleRepository.findByName("USER")
+                .orElseGet(() -> roleRepository.save(new RoleEntity(null, "USER", null)));
+        user = userRepository.save(UserEntity.builder()
+                .username("cached")
+                .email("cached@example.com")
+                .name("Test")
+                .surname("User")
+                .password("encoded")
+                .roles(Set.of(userRole))
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        cleanUp();
+    }
+
+    @Test
+    @DisplayName("Buscar un rol por nombre por segunda vez no debe lanzar SQL")
+    void shouldServeRoleLookupFromQueryCache() {
+        // Given
+        roleRepository.findByName("USER");
+
+        // When
+        long statements = statementsDuring(() -> roleRepository.findByName("USER"));
+
+        // Then
+        assertThat(statements).isZero();
+        assertThat(roleRepository.findByName("USER")).get().extracting(RoleEntity::getName).isEqualTo("USER");
+    }
+
+    @Test
+    @DisplayName("Cargar el usuario autenticado por segunda vez no debe lanzar SQL")
+    void shouldServeAuthenticatedUserFromCache() {
+        // Given: primera carga, como en la primera petición con el token
+        long first = statementsDuring(() -> userDetailsService.loadUserById(user.getId()));
+
+        // When
+        long second = statementsDuring(() -> userDetailsService.loadUserById(user.getId()));
+
+        // Then: usuario, sus roles y cada rol salen de la caché
+        assertThat(first).isPositive();
+        assertThat(second).isZero();
+        SecurityUser loaded = (SecurityUser) userDetailsService.loadUserById(user.getId());
+        assertThat(loaded.getAuthorities()).extracting(Object::toString).contains("ROLE_USER");
+    }
+
+    @Test
+    @DisplayName("Leer una historia por segunda vez no debe lanzar SQL")
+    void shouldServeStoryFromCache() {
+        // Given
+        StoryEntity story = storyRepository.save(StoryEntity.builder().extension(5).finished(false).build());
+        entityManagerFactory.getCache().evictAll();
+        storyRepository.findById(story.getId());
+
+        // When
+        long statements = statementsDuring(() -> storyRepository.findById(story.getId()));
+
+        // Then
+        assertThat(statements).isZero();
+    }
+
+    @Test
+    @DisplayName("Colaborar en una historia no debe sacar otras historias de la caché")
+    void shouldKeepOtherStoriesCachedOnCollaboration() {
+        // Given
+        StoryEntity cached = storyRepository.save(StoryEntity.builder().extension(5).finished(false).build());
+        StoryEntity written = storyRepository.save(StoryEntity.builder().extension(5).finished(false).build());
+        entityManagerFactory.getCache().evictAll();
+        storyRepository.findById(cached.getId());
+
+        // When
+        collaborationService.createCollaboration(
+                CollaborationRequestDTO.builder().storyId(written.getId()).text("En otra historia").build(),
+                user.getEmail());
+
+        // Then: la otra sigue en caché; la escrita se invalida y se lee al día
+        assertThat(entityManagerFactory.getCache().contains(StoryEntity.class, cached.getId())).isTrue();
+        assertThat(statementsDuring(() -> storyRepository.findById(cached.getId()))).isZero();
+        assertThat(statementsDuring(() -> storyRepository.findById(written.getId()))).isPositive();
+        assertThat(storyRepository.findById(written.getId()).orElseThrow().getCollaborationCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Una lectura que vio la historia antes del commit no debe dejarla en caché")
+    void shouldNotCacheStoryReadBeforeCommit() throws Exception {
+        // Given: un lector con instantánea anterior a la colaboración
+        StoryEntity story = storyRepository.save(StoryEntity.builder().extension(5).finished(false).build());
+        entityManagerFactory.getCache().evictAll();
+        CountDownLatch snapshotTaken = new CountDownLatch(1);
+        CountDownLatch written = new CountDownLatch(1);
+        TransactionTemplate snapshot = new TransactionTemplate(transactionManager);
+        snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        CompletableFuture<Integer> reader = CompletableFuture.supplyAsync(() -> snapshot.execute(status -> {
+            storyRepository.findProgress(story.getId());
+            snapshotTaken.countDown();
+            await(written);
+            return storyRepository.findById(story.getId()).orElseThrow().getCollaborationCount();
+        }));
+        await(snapshotTaken);
+
+        // When: la colaboración se confirma antes de que el lector cargue la entidad
+        collaborationService.createCollaboration(
+                CollaborationRequestDTO.builder().storyId(story.getId()).text("Durante la lectura").build(),
+                user.getEmail());
+        written.countDown();
+
+        // Then: el lector ve su instantánea, pero la caché no se queda con ella
+        assertThat(reader.get(5, TimeUnit.SECONDS)).isZero();
+        assertThat(storyRepository.findById(story.getId()).orElseThrow().getCollaborationCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Modificar un usuario debe actualizar su entrada en la caché")
+    void shouldRefreshUserOnUpdate() {
+        // Given
+        userDetailsService.loadUserById(user.getId());
+
+        // When
+        userService.updateEntity(user.getId(), new UserRequestDTO("renamed", null, null, null, null, null));
+
+        // Then
+        assertThat(userRepository.findById(user.getId())).get()
+                .extracting(UserEntity::getUsername).isEqualTo("renamed");
+    }
+
+    @Test
+    @DisplayName("El alta masiva por JDBC debe invalidar las historias cacheadas")
+    void shouldEvictStoriesWrittenByBatch() {
+        // Given
+        StoryEntity story = storyRepository.save(StoryEntity.builder().extension(2).finished(false).build());
+        storyRepository.findById(story.getId());
+
+        // When
+        batchService.createCollaborations(List.of(
+                new CollaborationBatchItemDTO(story.getId(), "Uno", user.getId()),
+                new CollaborationBatchItemDTO(story.getId(), "Dos", user.getId())), null);
+
+        // Then
+        StoryEntity reloaded = storyRepository.findById(story.getId()).orElseThrow();
+        assertThat(reloaded.getCollaborationCount()).isEqualTo(2);
+        assertThat(reloaded.isFinished()).isTrue();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private long statementsDuring(Runnable action) {
+        long before = statistics.getPrepareStatementCount();
+        action.run();
+        return statistics.getPrepareStatementCount() - before;
+    }
+
+    private void cleanUp() {
+        outboxEventRepository.deleteAll();
+        blockedStoryRepository.deleteAll();
+        collaborationRepository.deleteAll();
+        storyRepository.deleteAll();
+        userRepository.deleteAll();
+        assignmentPool.rebuild(List.of());
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        entityManagerFactory.getCache().evictAll();
+    }
+}
@@ -0,0 +1,211 @@
+package dev.lin.exquis.outbox;
+
+import dev.lin.exquis.blockedStory.BlockedStoryRepository;
+import dev.lin.exquis.collaboration.CollaborationRepository;
+import dev.lin.exquis.collaboration.CollaborationService;
+import dev.lin.exquis.collaboration.dtos.CollaborationRequestDTO;
+import dev.lin.exquis.role.RoleEntity;
+import dev.lin.exquis.role.RoleRepository;
+import dev.lin.exquis.story.AssignmentPool;
+import dev.lin.exquis.story.StoryEntity;
+import dev.lin.exquis.story.StoryRepository;
+import dev.lin.exquis.user.UserEntity;
+import dev.lin.exquis.user.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.event.EventListener;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(OutboxIntegrationTest.RecordingListener.class)
+@DisplayName("Outbox de eventos de dominio - Tests de Integración")
+class OutboxIntegrationTest {
+
+    /** Listener de prueba: guarda lo recibido y puede fallar a propósito. */
+    @TestConfiguration
+    static class RecordingListener {
+        static final List<OutboxEvent> received = new CopyOnWriteArrayList<>();
+        static final AtomicInteger failuresLeft = new AtomicInteger();
+
+        @EventListener
+        public void onOutboxEvent(OutboxEvent event) {
+            if (failuresLeft.getAndDecrement() > 0) {
+                throw new IllegalStateException("Fallo simulado");
+            }
+            received.add(event);
+        }
+    }
+
+    @Autowired
+    private CollaborationService collaborationService;
+
+    @Autowired
+    private DomainEventOutbox outbox;
+
+    @Autowired
+    private OutboxRelay relay;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private CollaborationRepository collaborationRepository;
+
+    @Autowired
+    private StoryRepository storyRepository;
+
+    @Autowired
+    private BlockedStoryRepository blockedStoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private AssignmentPool assignmentPool;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        RoleEntity userRole = roleRepository.findByName("USER")
+                .orElseGet(() -> roleRepository.save(new RoleEntity(null, "USER", null)));
+        userRepository.save(UserEntity.builder()
+                .username("outboxer")
+                .email("outboxer@example.com")
+                .name("Test")
+                .surname("User")
+                .password("encoded")
+                .roles(Set.of(userRole))
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        cleanUp();
+    }
+
+    @Test
+    @DisplayName("Crear una colaboración debe dejar sus eventos en el outbox")
+    void shouldRecordEventsWithCollaboration() {
+        // Given
+        StoryEntity story = storyRepository.save(StoryEntity.builder().extension(1).finished(false).build());
+
+        // When
+        collaborationService.createCollaboration(
+                new CollaborationRequestDTO("La única colaboración", story.getId()), "outboxer@example.com");
+
+        // Then
+        assertThat(outboxEventRepository.findAll())
+                .extracting(OutboxEventEntity::getType, OutboxEventEntity::getAggregateId)
+                .containsExactly(
+                        tuple(OutboxEvent.COLLABORATION_ADDED, story.getId()),
+                        tuple(OutboxEvent.STORY_FINISHED, story.getId()));
+    }
+
+    @Test
+    @DisplayName("Si la transacción se deshace, no debe quedar ningún evento")
+    void shouldNotRecordEventsOnRollback() {
+        // Given
+        StoryEntity story = storyRepository.save(StoryEntity.builder().extension(5).finished(false).build());
+
+        // When
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            collaborationService.createCollaboration(
+                    new CollaborationRequestDTO("Colaboración que no llega", story.getId()), "outboxer@example.com");
+            status.setRollbackOnly();
+        });
+
+        // Then
+        assertThat(collaborationRepository.count()).isZero();
+        assertThat(outboxEventRepository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Registrar fuera de una transacción debe fallar")
+    void shouldRequireTransaction() {
+        assertThatThrownBy(() -> outbox.record(OutboxEvent.LEASE_GRANTED, 1L, Map.of()))
+                .isInstanceOf(RuntimeException.class);
+    }
+
+    @Test
+    @DisplayName("El relay debe entregar en orden por lotes y borrar lo entregado")
+    void shouldDispatchInOrderAndDelete() {
+        // Given
+        ReflectionTestUtils.setField(relay, "batchSize", 2);
+        recordAll(5);
+
+        // When
+        int dispatched = relay.relay();
+
+        // Then
+        assertThat(dispatched).isEqualTo(5);
+        assertThat(RecordingListener.received)
+                .extracting(OutboxEvent::aggregateId)
+                .containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(RecordingListener.received.get(0).longValue("index")).isEqualTo(1L);
+        assertThat(outboxEventRepository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Si un listener falla, el evento debe quedarse y reintentarse")
+    void shouldRetryFailedEvent() {
+        // Given
+        recordAll(3);
+        RecordingListener.failuresLeft.set(1);
+
+        // When
+        int first = relay.relay();
+        int second = relay.relay();
+
+        // Then
+        assertThat(first).isZero();
+        assertThat(second).isEqualTo(3);
+        assertThat(RecordingListener.received)
+                .extracting(OutboxEvent::aggregateId)
+                .containsExactly(1L, 2L, 3L);
+        assertThat(outboxEventRepository.count()).isZero();
+    }
+
+    private void recordAll(int count) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                outbox.recordAll(LongStream.rangeClosed(1, count)
+                        .mapToObj(i -> new DomainEventOutbox.Draft(OutboxEvent.COLLABORATION_ADDED, i, Map.of("index", i)))
+                        .toList()));
+    }
+
+    private void cleanUp() {
+        ReflectionTestUtils.setField(relay, "batchSize", 500);
+        RecordingListener.received.clear();
+        RecordingListener.failuresLeft.set(0);
+        outboxEventRepository.deleteAll();
+        blockedStoryRepository.deleteAll();
+        collaborationRepository.deleteAll();
+        storyRepository.deleteAll();
+        userRepository.deleteAll();
+        assignmentPool.rebuild(List.of());
+    }
+}
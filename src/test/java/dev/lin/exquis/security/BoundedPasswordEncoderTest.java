@@ -0,0 +1,104 @@
+package dev.lin.exquis.security;
+
+import dev.lin.exquis.security.exceptions.PasswordHashingBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("BoundedPasswordEncoder - Tests Unitarios")
+class BoundedPasswordEncoderTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private SimpleMeterRegistry meterRegistry;
+    private BoundedPasswordEncoder encoder;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // Un hilo y una plaza en cola; cada hash espera hasta que el test lo suelte
+        encoder = new BoundedPasswordEncoder(new SlowEncoder(release), 1, 1, 3, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        encoder.close();
+    }
+
+    @Test
+    @DisplayName("Debe delegar el hash y medir su latencia")
+    void shouldDelegateAndRecordLatency() {
+        // Given
+        release.countDown();
+
+        // When
+        String encoded = encoder.encode("secreto");
+
+        // Then
+        assertThat(encoded).isEqualTo("hash:secreto");
+        assertThat(encoder.matches("secreto", encoded)).isTrue();
+        assertThat(meterRegistry.get("exquis.auth.hashing.latency").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Debe rechazar al momento con 503 y Retry-After si el ejecutor está saturado")
+    void shouldRejectWhenSaturated() throws InterruptedException {
+        // Given: un hash en curso y otro en cola
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("uno"));
+        awaitUntil(() -> meterRegistry.get("exquis.auth.hashing.active").gauge().value() == 1);
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("dos"));
+        awaitUntil(() -> encoder.queueSize() == 1);
+        assertThat(meterRegistry.get("exquis.auth.hashing.queue").gauge().value()).isEqualTo(1);
+
+        // When / Then
+        assertThatThrownBy(() -> encoder.encode("tres"))
+                .isInstanceOfSatisfying(PasswordHashingBusyException.class, e -> {
+                    assertThat(e.getStatusCode().value()).isEqualTo(503);
+                    assertThat(e.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("3");
+                });
+        assertThat(meterRegistry.get("exquis.auth.hashing.rejected").counter().count()).isEqualTo(1);
+
+        // Los aceptados terminan al liberar el ejecutor
+        release.countDown();
+        assertThat(running.join()).isEqualTo("hash:uno");
+        assertThat(queued.join()).isEqualTo("hash:dos");
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("La condición no se cumplió a tiempo");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private record SlowEncoder(CountDownLatch release) implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "hash:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    }
+}
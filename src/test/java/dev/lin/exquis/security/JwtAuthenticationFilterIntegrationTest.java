@@ -0,0 +1,188 @@
+package dev.lin.exquis.security;
+
+import dev.lin.exquis.collaboration.CollaborationRepository;
+import dev.lin.exquis.outbox.OutboxEventRepository;
+import dev.lin.exquis.role.RoleEntity;
+import dev.lin.exquis.role.RoleRepository;
+import dev.lin.exquis.user.UserEntity;
+import dev.lin.exquis.user.UserRepository;
+import dev.lin.exquis.user.UserService;
+import dev.lin.exquis.user.dtos.UserRequestDTO;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("JwtAuthenticationFilter - Tokens sin estado - Tests de Integración")
+class JwtAuthenticationFilterIntegrationTest {
+
+    @Autowired
+    private JwtAuthenticationFilter filter;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private CollaborationRepository collaborationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    private Statistics statistics;
+    private UserEntity user;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        user = userRepository.save(UserEntity.builder()
+                .username("stateless")
+                .email("stateless@example.com")
+                .name("Test")
+                .surname("User")
+                .password("encoded")
+                .roles(Set.of(role("USER")))
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        cleanUp();
+    }
+
+    @Test
+    @DisplayName("El token debe llevar roles y versión del usuario")
+    void shouldEmbedRolesAndVersion() {
+        // When
+        String token = jwtService.generateToken(user);
+
+        // Then
+        assertThat(jwtService.extractRoles(token)).containsExactly("USER");
+        assertThat(jwtService.extractTokenVersion(token)).isZero();
+        assertThat(jwtService.extractEmail(token)).isEqualTo("stateless@example.com");
+    }
+
+    @Test
+    @DisplayName("Debe autenticar con los claims del token sin consultar la base de datos")
+    void shouldAuthenticateFromClaimsWithoutSql() {
+        // Given: versión vigente ya conocida y sin usuarios en la caché de segundo nivel
+        String token = jwtService.generateToken(user);
+        authenticate(token);
+        entityManagerFactory.getCache().evictAll();
+
+        // When
+        long before = statistics.getPrepareStatementCount();
+        Authentication authentication = authenticate(token);
+
+        // Then
+        assertThat(statistics.getPrepareStatementCount() - before).isZero();
+        assertThat(authentication).isNotNull();
+        assertThat(authentication.getName()).isEqualTo("stateless@example.com");
+        assertThat(authentication.getAuthorities()).extracting(Object::toString).containsExactly("ROLE_USER");
+        assertThat(((SecurityUser) authentication.getPrincipal()).getUser().getId()).isEqualTo(user.getId());
+    }
+
+    @Test
+    @DisplayName("Los tokens sin versión deben seguir validándose contra la base de datos")
+    void shouldLoadUserForUnversionedTokens() {
+        // Given
+        String legacyToken = jwtService.generateToken(user.getId(), user.getEmail());
+        entityManagerFactory.getCache().evictAll();
+
+        // When
+        long before = statistics.getPrepareStatementCount();
+        Authentication authentication = authenticate(legacyToken);
+
+        // Then
+        assertThat(statistics.getPrepareStatementCount() - before).isPositive();
+        assertThat(authentication).isNotNull();
+        assertThat(authentication.getName()).isEqualTo("stateless@example.com");
+    }
+
+    @Test
+    @DisplayName("Cambiar los roles debe invalidar los tokens emitidos antes")
+    void shouldRejectTokenAfterRoleChange() {
+        // Given
+        role("ADMIN");
+        String oldToken = jwtService.generateToken(user);
+        assertThat(authenticate(oldToken)).isNotNull();
+
+        // When
+        userService.updateEntity(user.getId(), new UserRequestDTO(null, null, null, null, null, Set.of("ADMIN")));
+
+        // Then
+        assertThat(authenticate(oldToken)).isNull();
+        UserEntity updated = userRepository.findById(user.getId()).orElseThrow();
+        Authentication authentication = authenticate(jwtService.generateToken(updated));
+        assertThat(authentication.getAuthorities()).extracting(Object::toString).containsExactly("ROLE_ADMIN");
+    }
+
+    @Test
+    @DisplayName("Borrar al usuario debe invalidar sus tokens")
+    void shouldRejectTokenOfDeletedUser() {
+        // Given
+        String token = jwtService.generateToken(user);
+        assertThat(authenticate(token)).isNotNull();
+
+        // When
+        userService.deleteEntity(user.getId());
+
+        // Then
+        assertThat(authenticate(token)).isNull();
+    }
+
+    private Authentication authenticate(String token) {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/stories");
+        request.addHeader("Authorization", "Bearer " + token);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private RoleEntity role(String name) {
+        return roleRepository.findByName(name)
+                .orElseGet(() -> roleRepository.save(new RoleEntity(null, name, null)));
+    }
+
+    private void cleanUp() {
+        outboxEventRepository.deleteAll();
+        collaborationRepository.deleteAll();
+        userRepository.deleteAll();
+        entityManagerFactory.getCache().evictAll();
+    }
+}
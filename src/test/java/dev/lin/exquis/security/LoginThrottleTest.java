@@ -0,0 +1,77 @@
+package dev.lin.exquis.security;
+
+import dev.lin.exquis.security.exceptions.TooManyAttemptsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("LoginThrottle - Tests Unitarios")
+class LoginThrottleTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private SimpleMeterRegistry meterRegistry;
+    private LoginThrottle throttle;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // Cuenta: 3 intentos y 1 por minuto; IP: 5 intentos y 6 por minuto
+        throttle = new LoginThrottle(3, 1, 5, 6, 1000, meterRegistry, now::get);
+    }
+
+    @Test
+    @DisplayName("Debe rechazar la cuenta al agotar su ráfaga, con Retry-After")
+    void shouldThrottleAccountAfterBurst() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            throttle.check("ana@example.com", "10.0.0." + i);
+        }
+
+        // When / Then
+        assertThatThrownBy(() -> throttle.check("ANA@example.com ", "10.0.0.9"))
+                .isInstanceOfSatisfying(TooManyAttemptsException.class, e -> {
+                    assertThat(e.getStatusCode().value()).isEqualTo(429);
+                    assertThat(e.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("60");
+                });
+        assertThat(meterRegistry.get("exquis.auth.throttled").tag("scope", "account").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Debe rechazar la IP aunque cada cuenta sea distinta")
+    void shouldThrottleAddress() {
+        // Given
+        for (int i = 0; i < 5; i++) {
+            throttle.check("user" + i + "@example.com", "10.0.0.1");
+        }
+
+        // When / Then
+        assertThatThrownBy(() -> throttle.check("other@example.com", "10.0.0.1"))
+                .isInstanceOfSatisfying(TooManyAttemptsException.class,
+                        e -> assertThat(e.getRetryAfterSeconds()).isEqualTo(10));
+        assertThatCode(() -> throttle.check("other@example.com", "10.0.0.2")).doesNotThrowAnyException();
+    }
+
+    @Test
+    @DisplayName("El cubo debe rellenarse con el tiempo")
+    void shouldRefillOverTime() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            throttle.check("ana@example.com", "10.0.0." + i);
+        }
+
+        // When
+        now.addAndGet(TimeUnit.SECONDS.toNanos(60));
+
+        // Then: una ficha nueva, no más
+        assertThatCode(() -> throttle.check("ana@example.com", "10.0.0.7")).doesNotThrowAnyException();
+        assertThatThrownBy(() -> throttle.check("ana@example.com", "10.0.0.8"))
+                .isInstanceOf(TooManyAttemptsException.class);
+    }
+}
@@ -0,0 +1,64 @@
+package dev.lin.exquis.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("PasswordEncoders - Tests Unitarios")
+class PasswordEncodersTest {
+
+    private final PasswordEncoder encoder = PasswordEncoders.delegating(5);
+
+    @Test
+    @DisplayName("Los hashes nuevos deben usar bcrypt con el coste configurado")
+    void shouldEncodeWithTargetCost() {
+        // When
+        String hash = encoder.encode("secreto");
+
+        // Then
+        assertThat(hash).startsWith("{bcrypt}$2a$05$");
+        assertThat(encoder.matches("secreto", hash)).isTrue();
+        assertThat(encoder.upgradeEncoding(hash)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Los bcrypt sin prefijo deben comprobarse y marcarse para migrar")
+    void shouldMatchAndUpgradeLegacyBcrypt() {
+        // Given: formato anterior, sin {id}
+        String legacy = new BCryptPasswordEncoder(5).encode("secreto");
+
+        // Then
+        assertThat(encoder.matches("secreto", legacy)).isTrue();
+        assertThat(encoder.matches("otra", legacy)).isFalse();
+        assertThat(encoder.upgradeEncoding(legacy)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Un coste distinto del configurado, mayor o menor, debe marcarse para migrar")
+    void shouldUpgradeAnyOtherCost() {
+        // Given
+        String cheaper = "{bcrypt}" + new BCryptPasswordEncoder(4).encode("secreto");
+        String costlier = "{bcrypt}" + new BCryptPasswordEncoder(6).encode("secreto");
+
+        // Then
+        assertThat(encoder.matches("secreto", cheaper)).isTrue();
+        assertThat(encoder.matches("secreto", costlier)).isTrue();
+        assertThat(encoder.upgradeEncoding(cheaper)).isTrue();
+        assertThat(encoder.upgradeEncoding(costlier)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Otros algoritmos deben comprobarse y marcarse para migrar")
+    void shouldMatchAndUpgradeOtherAlgorithms() {
+        // Given
+        String pbkdf2 = "{pbkdf2}" + Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8().encode("secreto");
+
+        // Then
+        assertThat(encoder.matches("secreto", pbkdf2)).isTrue();
+        assertThat(encoder.upgradeEncoding(pbkdf2)).isTrue();
+    }
+}
@@ -0,0 +1,154 @@
+package dev.lin.exquis.security;
+
+import dev.lin.exquis.collaboration.CollaborationRepository;
+import dev.lin.exquis.outbox.OutboxEventRepository;
+import dev.lin.exquis.role.RoleEntity;
+import dev.lin.exquis.role.RoleRepository;
+import dev.lin.exquis.user.UserEntity;
+import dev.lin.exquis.user.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Base64;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DisplayName("PasswordRehasher - Migración de hashes en el login - Tests de Integración")
+class PasswordRehasherIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private CollaborationRepository collaborationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Value("${api-endpoint}")
+    private String apiEndpoint;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cleanUp();
+    }
+
+    @Test
+    @DisplayName("Un hash antiguo debe migrarse tras el login sin cambiar la contraseña")
+    void shouldRehashLegacyHashAfterLogin() throws Exception {
+        // Given: bcrypt sin prefijo y con otro coste
+        UserEntity user = saveUser(new BCryptPasswordEncoder(5).encode("password123"));
+        double before = upgradedCount();
+
+        // When
+        login("password123");
+
+        // Then: el contador se incrementa justo después del commit que hace visible el hash
+        awaitUntil(() -> upgradedCount() == before + 1);
+        assertThat(currentHash(user)).startsWith("{bcrypt}$2a$04$");
+        assertThat(passwordEncoder.upgradeEncoding(currentHash(user))).isFalse();
+        login("password123");
+    }
+
+    @Test
+    @DisplayName("Un hash con el coste configurado no debe tocarse")
+    void shouldKeepHashAtTargetCost() throws Exception {
+        // Given
+        String hash = passwordEncoder.encode("password123");
+        UserEntity user = saveUser(hash);
+        double before = upgradedCount();
+
+        // When
+        login("password123");
+
+        // Then
+        assertThat(currentHash(user)).isEqualTo(hash);
+        assertThat(upgradedCount()).isEqualTo(before);
+    }
+
+    private void login(String password) throws Exception {
+        String credentials = Base64.getEncoder().encodeToString(("rehash@example.com:" + password).getBytes());
+        mockMvc.perform(get(apiEndpoint + "/login").header("Authorization", "Basic " + credentials))
+                .andExpect(status().isOk());
+    }
+
+    private UserEntity saveUser(String passwordHash) {
+        return userRepository.save(UserEntity.builder()
+                .username("rehash")
+                .email("rehash@example.com")
+                .name("Test")
+                .surname("User")
+                .password(passwordHash)
+                .roles(Set.of(role("USER")))
+                .build());
+    }
+
+    private String currentHash(UserEntity user) {
+        return userRepository.findById(user.getId()).orElseThrow().getPassword();
+    }
+
+    private double upgradedCount() {
+        return meterRegistry.get("exquis.auth.rehash.upgraded").counter().count();
+    }
+
+    private RoleEntity role(String name) {
+        return roleRepository.findByName(name)
+                .orElseGet(() -> roleRepository.save(new RoleEntity(null, name, null)));
+    }
+
+    private void cleanUp() {
+        outboxEventRepository.deleteAll();
+        collaborationRepository.deleteAll();
+        userRepository.deleteAll();
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("La condición no se cumplió a tiempo");
+            }
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package dev.lin.exquis.security;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("VerifiedTokenCache - Tests Unitarios")
+class VerifiedTokenCacheTest {
+
+    private JwtService jwtService;
+    private VerifiedTokenCache cache;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = spy(jwtService(3_600_000L));
+        cache = new VerifiedTokenCache(jwtService, new SimpleMeterRegistry(), 100);
+    }
+
+    @Test
+    @DisplayName("Un token repetido debe verificarse una sola vez")
+    void shouldVerifyRepeatedTokenOnce() {
+        // Given
+        String token = jwtService.generateToken(7L, "cached@example.com");
+
+        // When
+        VerifiedTokenCache.VerifiedToken first = cache.verify(token);
+        VerifiedTokenCache.VerifiedToken second = cache.verify(token);
+
+        // Then
+        assertThat(second).isSameAs(first);
+        assertThat(second.claims().userId()).isEqualTo("7");
+        assertThat(second.principal().getUsername()).isEqualTo("cached@example.com");
+        verify(jwtService, times(1)).parse(token);
+    }
+
+    @Test
+    @DisplayName("Los tokens inválidos no deben guardarse")
+    void shouldNotCacheInvalidTokens() {
+        // When / Then
+        assertThatThrownBy(() -> cache.verify("no.es.un-token")).isInstanceOf(JwtException.class);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Una entrada no debe sobrevivir al exp de su token")
+    void shouldExpireWithToken() throws InterruptedException {
+        // Given: token de dos segundos (exp se guarda en segundos enteros)
+        JwtService shortLived = jwtService(2_000L);
+        VerifiedTokenCache shortCache = new VerifiedTokenCache(shortLived, new SimpleMeterRegistry(), 100);
+        String token = shortLived.generateToken(7L, "cached@example.com");
+        shortCache.verify(token);
+
+        // When
+        Thread.sleep(2_200);
+
+        // Then: ya no se sirve de la caché y la verificación falla
+        assertThat(shortCache.size()).isZero();
+        assertThatThrownBy(() -> shortCache.verify(token)).isInstanceOf(ExpiredJwtException.class);
+    }
+
+    @Test
+    @DisplayName("Peticiones concurrentes con el mismo token deben compartir una verificación")
+    void shouldShareVerificationAcrossThreads() throws Exception {
+        // Given
+        String token = jwtService.generateToken(7L, "cached@example.com");
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // When
+        List<Future<VerifiedTokenCache.VerifiedToken>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return cache.verify(token);
+            }));
+        }
+        start.countDown();
+        List<VerifiedTokenCache.VerifiedToken> verified = new ArrayList<>();
+        for (Future<VerifiedTokenCache.VerifiedToken> result : results) {
+            verified.add(result.get());
+        }
+        executor.shutdown();
+
+        // Then
+        assertThat(verified).allSatisfy(v -> assertThat(v).isSameAs(verified.get(0)));
+        verify(jwtService, times(1)).parse(token);
+    }
+
+    private static JwtService jwtService(long expirationMs) {
+        JwtService service = new JwtService();
+        ReflectionTestUtils.setField(service, "secretKey", "test-secret-key-for-testing-purposes-only-minimum-256-bits");
+        ReflectionTestUtils.setField(service, "jwtExpiration", expirationMs);
+        service.init();
+        return service;
+    }
+}
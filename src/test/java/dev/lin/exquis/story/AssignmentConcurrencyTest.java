@@ -0,0 +1,85 @@
+package dev.lin.exquis.story;
+
+import dev.lin.exquis.blockedStory.StoryLeaseTable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("Asignación concurrente - Pool y reservas en memoria")
+class AssignmentConcurrencyTest {
+
+    private static final int USERS = 200;
+    private static final int STORIES = 300;
+
+    private AssignmentPool pool;
+    private StoryLeaseTable leaseTable;
+    private Map<Long, AtomicInteger> leasesPerStory;
+
+    @BeforeEach
+    void setUp() {
+        pool = new AssignmentPool();
+        leaseTable = new StoryLeaseTable(1_000);
+        leasesPerStory = new ConcurrentHashMap<>();
+        for (long id = 1; id <= STORIES; id++) {
+            pool.add(id, (int) (id % 4));
+        }
+    }
+
+    @Test
+    @DisplayName("200 usuarios concurrentes no deben reservar nunca la misma historia")
+    void shouldNeverLeaseTheSameStoryTwice() throws Exception {
+        // When
+        assignAll();
+
+        // Then
+        assertThat(leasesPerStory).hasSize(USERS);
+        assertThat(leasesPerStory.values()).allSatisfy(count -> assertThat(count.get()).isEqualTo(1));
+        assertThat(leaseTable.size()).isEqualTo(USERS);
+        assertThat(pool.inProgressSize() + pool.freshSize()).isEqualTo(STORIES - USERS);
+    }
+
+    /** Asigna una historia a cada usuario, un hilo por usuario, todos a la vez. */
+    private void assignAll() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(USERS);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(USERS);
+        LocalDateTime now = LocalDateTime.now();
+
+        for (long userId = 1; userId <= USERS; userId++) {
+            long user = userId;
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    Optional<AssignmentPool.PooledStory> claimed;
+                    while ((claimed = pool.claim((storyId, count) -> true)).isPresent()) {
+                        long storyId = claimed.get().storyId();
+                        if (leaseTable.tryAcquire(storyId, user, now.plusMinutes(30), now)) {
+                            leasesPerStory.computeIfAbsent(storyId, id -> new AtomicInteger()).incrementAndGet();
+                            break;
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        start.countDown();
+        assertThat(done.await(30, TimeUnit.SECONDS)).isTrue();
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,120 @@
+package dev.lin.exquis.story;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("AssignmentPool - Tests Unitarios")
+class AssignmentPoolTest {
+
+    private static final AssignmentPool.Eligibility ANY = (storyId, count) -> true;
+
+    private AssignmentPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new AssignmentPool();
+    }
+
+    @Test
+    @DisplayName("Debe separar historias nuevas y en progreso al reconstruir")
+    void shouldSplitBucketsOnRebuild() {
+        // When
+        pool.rebuild(List.of(
+                new StoryCandidate(1L, 10, 0),
+                new StoryCandidate(2L, 10, 3),
+                new StoryCandidate(3L, 10, 0)));
+
+        // Then
+        assertThat(pool.freshSize()).isEqualTo(2);
+        assertThat(pool.inProgressSize()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Debe reclamar primero las historias en progreso")
+    void shouldClaimInProgressFirst() {
+        // Given
+        pool.add(1L, 0);
+        pool.add(2L, 4);
+
+        // When
+        Optional<AssignmentPool.PooledStory> claimed = pool.claim(ANY);
+
+        // Then
+        assertThat(claimed).contains(new AssignmentPool.PooledStory(2L, 4));
+        assertThat(pool.contains(2L)).isFalse();
+        assertThat(pool.contains(1L)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Debe respetar la regla de elegibilidad")
+    void shouldRespectEligibility() {
+        // Given
+        pool.add(1L, 2);
+        pool.add(2L, 5);
+
+        // When
+        Optional<AssignmentPool.PooledStory> claimed = pool.claim((storyId, count) -> storyId != 2L);
+
+        // Then
+        assertThat(claimed.map(AssignmentPool.PooledStory::storyId)).contains(1L);
+        assertThat(pool.claim((storyId, count) -> storyId != 2L)).isEmpty();
+        assertThat(pool.contains(2L)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Debe mover la historia de bucket al recibir su primera colaboración")
+    void shouldMoveStoryBetweenBuckets() {
+        // Given
+        pool.add(1L, 0);
+
+        // When
+        pool.updateIfPresent(1L, 1);
+        pool.updateIfPresent(9L, 1); // No estaba: se ignora
+
+        // Then
+        assertThat(pool.freshSize()).isZero();
+        assertThat(pool.inProgressSize()).isEqualTo(1);
+        assertThat(pool.contains(9L)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Debe vaciarse reclamando cada historia exactamente una vez")
+    void shouldClaimEveryStoryOnce() {
+        // Given
+        for (long id = 0; id < 1_000; id++) {
+            pool.add(id, (int) (id % 3));
+        }
+
+        // When
+        Set<Long> claimed = new HashSet<>();
+        Optional<AssignmentPool.PooledStory> next;
+        while ((next = pool.claim(ANY)).isPresent()) {
+            assertThat(claimed.add(next.get().storyId())).isTrue();
+        }
+
+        // Then
+        assertThat(claimed).hasSize(1_000);
+        assertThat(pool.inProgressSize() + pool.freshSize()).isZero();
+    }
+
+    @Test
+    @DisplayName("No debe devolver al pool historias finalizadas")
+    void shouldNotReleaseFinishedStories() {
+        // Given
+        StoryEntity finished = StoryEntity.builder().id(5L).extension(10).finished(true).build();
+
+        // When
+        pool.release(finished);
+
+        // Then
+        assertThat(pool.contains(5L)).isFalse();
+    }
+}
@@ -0,0 +1,208 @@
+package dev.lin.exquis.story;
+
+import dev.lin.exquis.blockedStory.BlockedStoryRepository;
+import dev.lin.exquis.collaboration.CollaborationRepository;
+import dev.lin.exquis.collaboration.CollaborationService;
+import dev.lin.exquis.collaboration.dtos.CollaborationRequestDTO;
+import dev.lin.exquis.outbox.OutboxEventRepository;
+import dev.lin.exquis.outbox.OutboxRelay;
+import dev.lin.exquis.role.RoleEntity;
+import dev.lin.exquis.role.RoleRepository;
+import dev.lin.exquis.story.dtos.CompletedStoriesPageDTO;
+import dev.lin.exquis.story.dtos.CompletedStoryDTO;
+import dev.lin.exquis.story.dtos.StoryRequestDTO;
+import dev.lin.exquis.user.UserEntity;
+import dev.lin.exquis.user.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Catálogo de historias completadas - Tests de Integración")
+class CompletedStoryCatalogIntegrationTest {
+
+    @Autowired
+    private CompletedStoryCatalog catalog;
+
+    @Autowired
+    private StoryService storyService;
+
+    @Autowired
+    private CollaborationService collaborationService;
+
+    @Autowired
+    private OutboxRelay relay;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private CompletedStoryRepository completedStoryRepository;
+
+    @Autowired
+    private CollaborationRepository collaborationRepository;
+
+    @Autowired
+    private StoryRepository storyRepository;
+
+    @Autowired
+    private BlockedStoryRepository blockedStoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private AssignmentPool assignmentPool;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        RoleEntity userRole = roleRepository.findByName("USER")
+                .orElseGet(() -> roleRepository.save(new RoleEntity(null, "USER", null)));
+        userRepository.save(UserEntity.builder()
+                .username("cataloguer")
+                .email("cataloguer@example.com")
+                .name("Test")
+                .surname("User")
+                .password("encoded")
+                .roles(Set.of(userRole))
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        cleanUp();
+    }
+
+    @Test
+    @DisplayName("Una historia completada debe entrar en el catálogo al entregarse su evento")
+    void shouldProjectStoryWhenFinished() {
+        // Given
+        StoryEntity story = storyRepository.save(StoryEntity.builder().extension(2).finished(false).build());
+        write(story, "Había una vez");
+        write(story, "un gato muy  curioso");
+        assertThat(storyService.getCompletedStories(null, null).getStories()).isEmpty();
+
+        // When
+        relay.relay();
+
+        // Then
+        List<CompletedStoryDTO> stories = storyService.getCompletedStories(null, null).getStories();
+        assertThat(stories).hasSize(1);
+        CompletedStoryDTO completed = stories.get(0);
+        assertThat(completed.getId()).isEqualTo(story.getId());
+        assertThat(completed.getFirstCollaboration().getText()).isEqualTo("Había una vez");
+        assertThat(completed.getFirstCollaboration().getUser().getUsername()).isEqualTo("cataloguer");
+        assertThat(completed.getTotalCollaborations()).isEqualTo(2);
+        assertThat(completed.getWordCount()).isEqualTo(7);
+    }
+
+    @Test
+    @DisplayName("Reabrir una historia debe sacarla del catálogo")
+    void shouldRemoveReopenedStory() {
+        // Given
+        StoryEntity story = storyRepository.save(StoryEntity.builder().extension(1).finished(false).build());
+        write(story, "Final");
+        relay.relay();
+
+        // When
+        storyService.updateStory(story.getId(), StoryRequestDTO.builder().extension(3).finished(false).build());
+        relay.relay();
+
+        // Then
+        assertThat(completedStoryRepository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Regenerar debe rellenar el catálogo por lotes y paginar igual que antes")
+    void shouldRebuildCatalog() {
+        // Given: historias finalizadas sin pasar por el outbox
+        for (int i = 0; i < 5; i++) {
+            storyRepository.save(StoryEntity.builder().extension(1).finished(true).build());
+        }
+        storyRepository.save(StoryEntity.builder().extension(1).finished(false).build());
+
+        // When
+        int rebuilt = catalog.rebuild();
+
+        // Then
+        assertThat(rebuilt).isEqualTo(5);
+        CompletedStoriesPageDTO first = storyService.getCompletedStories(null, 3);
+        CompletedStoriesPageDTO second = storyService.getCompletedStories(first.getNextCursor(), 3);
+        assertThat(first.getStories()).hasSize(3);
+        assertThat(second.getStories()).hasSize(2);
+        assertThat(second.getNextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("Regenerar debe corregir las entradas en su sitio y quitar solo las que sobran")
+    void shouldRebuildInPlace() {
+        // Given: una entrada atrasada y otra de una historia que ya no está finalizada
+        StoryEntity finished = storyRepository.save(StoryEntity.builder().extension(1).finished(false).build());
+        write(finished, "Texto actual");
+        relay.relay();
+        CompletedStoryEntity stale = completedStoryRepository.findById(finished.getId()).orElseThrow();
+        stale.setFirstText("Texto antiguo");
+        completedStoryRepository.save(stale);
+        StoryEntity reopened = storyRepository.save(StoryEntity.builder().extension(3).finished(false).build());
+        completedStoryRepository.save(CompletedStoryEntity.builder()
+                .storyId(reopened.getId())
+                .extension(3)
+                .createdAt(reopened.getCreatedAt())
+                .totalCollaborations(0)
+                .wordCount(0)
+                .build());
+
+        // When
+        int rebuilt = catalog.rebuild();
+
+        // Then
+        assertThat(rebuilt).isEqualTo(1);
+        assertThat(completedStoryRepository.findAll())
+                .singleElement()
+                .satisfies(entry -> {
+                    assertThat(entry.getStoryId()).isEqualTo(finished.getId());
+                    assertThat(entry.getFirstText()).isEqualTo("Texto actual");
+                });
+    }
+
+    @Test
+    @DisplayName("Debe contar palabras separadas por cualquier espacio")
+    void shouldCountWords() {
+        assertThat(CompletedStoryCatalog.countWords("  uno\tdos\ntres  ")).isEqualTo(3);
+        assertThat(CompletedStoryCatalog.countWords("")).isZero();
+        assertThat(CompletedStoryCatalog.countWords(null)).isZero();
+    }
+
+    private void write(StoryEntity story, String text) {
+        collaborationService.createCollaboration(new CollaborationRequestDTO(text, story.getId()), "cataloguer@example.com");
+    }
+
+    private void cleanUp() {
+        outboxEventRepository.deleteAll();
+        completedStoryRepository.deleteAll();
+        blockedStoryRepository.deleteAll();
+        collaborationRepository.deleteAll();
+        storyRepository.deleteAll();
+        userRepository.deleteAll();
+        assignmentPool.rebuild(List.of());
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+}
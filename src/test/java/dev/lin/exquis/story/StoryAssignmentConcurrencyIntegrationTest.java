@@ -0,0 +1,140 @@
+package dev.lin.exquis.story;
+
+import dev.lin.exquis.blockedStory.BlockedStoryRepository;
+import dev.lin.exquis.blockedStory.StoryLeaseTable;
+import dev.lin.exquis.collaboration.CollaborationRepository;
+import dev.lin.exquis.role.RoleEntity;
+import dev.lin.exquis.role.RoleRepository;
+import dev.lin.exquis.story.dtos.StoryAssignmentResponseDTO;
+import dev.lin.exquis.user.UserEntity;
+import dev.lin.exquis.user.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Asignación concurrente - Tests de Integración")
+class StoryAssignmentConcurrencyIntegrationTest {
+
+    private static final int USERS = 200;
+    private static final int STORIES = 250;
+
+    @Autowired
+    private StoryService storyService;
+
+    @Autowired
+    private StoryRepository storyRepository;
+
+    @Autowired
+    private BlockedStoryRepository blockedStoryRepository;
+
+    @Autowired
+    private CollaborationRepository collaborationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private AssignmentPool assignmentPool;
+
+    @Autowired
+    private StoryLeaseTable leaseTable;
+
+    private final List<String> emails = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+
+        RoleEntity userRole = roleRepository.findByName("USER")
+                .orElseGet(() -> roleRepository.save(new RoleEntity(null, "USER", null)));
+
+        List<UserEntity> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            String email = "concurrent" + i + "@example.com";
+            emails.add(email);
+            users.add(UserEntity.builder()
+                    .username("concurrent" + i)
+                    .email(email)
+                    .name("Test")
+                    .surname("User")
+                    .password("encoded")
+                    .roles(Set.of(userRole))
+                    .build());
+        }
+        userRepository.saveAll(users);
+
+        List<StoryEntity> stories = new ArrayList<>();
+        for (int i = 0; i < STORIES; i++) {
+            stories.add(StoryEntity.builder().extension(10).finished(false).build());
+        }
+        storyRepository.saveAll(stories);
+
+        LocalDateTime now = LocalDateTime.now();
+        leaseTable.rebuild(blockedStoryRepository.findAllLeases());
+        assignmentPool.rebuild(storyRepository.findPoolCandidates(now));
+    }
+
+    @AfterEach
+    void tearDown() {
+        cleanUp();
+    }
+
+    @Test
+    @DisplayName("200 usuarios asignando a la vez deben recibir historias distintas")
+    void shouldAssignDistinctStoriesToConcurrentUsers() throws Exception {
+        // Given
+        ExecutorService executor = Executors.newFixedThreadPool(USERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<StoryAssignmentResponseDTO>> results = new ArrayList<>();
+        for (String email : emails) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return storyService.assignRandomAvailableStory(email);
+            }));
+        }
+
+        // When
+        start.countDown();
+        Set<Long> assigned = ConcurrentHashMap.newKeySet();
+        for (Future<StoryAssignmentResponseDTO> result : results) {
+            assigned.add(result.get(60, TimeUnit.SECONDS).getStoryId());
+        }
+        executor.shutdown();
+
+        // Then
+        assertThat(assigned).hasSize(USERS);
+        assertThat(blockedStoryRepository.count()).isEqualTo(USERS);
+        assertThat(blockedStoryRepository.findAll())
+                .extracting(block -> block.getStory().getId())
+                .doesNotHaveDuplicates();
+        assertThat(storyRepository.count()).isEqualTo(STORIES); // Ninguna historia nueva: había de sobra
+        assertThat(leaseTable.size()).isEqualTo(USERS);
+    }
+
+    private void cleanUp() {
+        blockedStoryRepository.deleteAll();
+        collaborationRepository.deleteAll();
+        storyRepository.deleteAll();
+        userRepository.deleteAll();
+        emails.clear();
+        leaseTable.rebuild(List.of());
+        assignmentPool.rebuild(List.of());
+    }
+}
@@ -0,0 +1,137 @@
+package dev.lin.exquis.story;
+
+import dev.lin.exquis.blockedStory.BlockedStoryRepository;
+import dev.lin.exquis.collaboration.CollaborationRepository;
+import dev.lin.exquis.collaboration.CollaborationService;
+import dev.lin.exquis.collaboration.dtos.CollaborationRequestDTO;
+import dev.lin.exquis.config.AsyncConfiguration;
+import dev.lin.exquis.role.RoleEntity;
+import dev.lin.exquis.role.RoleRepository;
+import dev.lin.exquis.user.UserEntity;
+import dev.lin.exquis.user.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(StoryCompletionPipelineIntegrationTest.SlowConsumer.class)
+@DisplayName("Eventos de historia completada - Tests de Integración")
+class StoryCompletionPipelineIntegrationTest {
+
+    /** Consumidor lento: retiene el hilo hasta que el test lo suelta. */
+    @TestConfiguration
+    static class SlowConsumer {
+        static final BlockingQueue<String> threads = new LinkedBlockingQueue<>();
+        static volatile CountDownLatch release = new CountDownLatch(0);
+
+        @Async(AsyncConfiguration.STORY_EVENTS_EXECUTOR)
+        @TransactionalEventListener
+        public void onStoryCompleted(StoryCompletedEvent event) throws InterruptedException {
+            release.await(10, TimeUnit.SECONDS);
+            threads.add(Thread.currentThread().getName());
+        }
+    }
+
+    @Autowired
+    private CollaborationService collaborationService;
+
+    @Autowired
+    private CollaborationRepository collaborationRepository;
+
+    @Autowired
+    private StoryRepository storyRepository;
+
+    @Autowired
+    private BlockedStoryRepository blockedStoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private AssignmentPool assignmentPool;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        RoleEntity userRole = roleRepository.findByName("USER")
+                .orElseGet(() -> roleRepository.save(new RoleEntity(null, "USER", null)));
+        userRepository.save(UserEntity.builder()
+                .username("finisher")
+                .email("finisher@example.com")
+                .name("Test")
+                .surname("User")
+                .password("encoded")
+                .roles(Set.of(userRole))
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        SlowConsumer.release.countDown();
+        cleanUp();
+    }
+
+    @Test
+    @DisplayName("Completar una historia no debe esperar a los consumidores del evento")
+    void shouldRunCompletionConsumersAfterCommitInBackground() throws Exception {
+        // Given
+        SlowConsumer.release = new CountDownLatch(1);
+        StoryEntity story = storyRepository.save(StoryEntity.builder().extension(1).finished(false).build());
+
+        // When
+        collaborationService.createCollaboration(
+                new CollaborationRequestDTO("La única colaboración de la historia", story.getId()), "finisher@example.com");
+
+        // Then: la historia ya está completa y el consumidor sigue retenido
+        assertThat(storyRepository.findById(story.getId()).orElseThrow().isFinished()).isTrue();
+        assertThat(SlowConsumer.threads).isEmpty();
+
+        SlowConsumer.release.countDown();
+        String thread = SlowConsumer.threads.poll(10, TimeUnit.SECONDS);
+        assertThat(thread).startsWith("story-completion-");
+    }
+
+    @Test
+    @DisplayName("No debe publicar nada si la historia no se completa")
+    void shouldNotPublishWhenStoryIsNotComplete() throws Exception {
+        // Given
+        StoryEntity story = storyRepository.save(StoryEntity.builder().extension(5).finished(false).build());
+
+        // When
+        collaborationService.createCollaboration(
+                new CollaborationRequestDTO("Una colaboración de cinco", story.getId()), "finisher@example.com");
+
+        // Then
+        assertThat(SlowConsumer.threads.poll(300, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    private void cleanUp() {
+        SlowConsumer.threads.clear();
+        blockedStoryRepository.deleteAll();
+        collaborationRepository.deleteAll();
+        storyRepository.deleteAll();
+        userRepository.deleteAll();
+        assignmentPool.rebuild(List.of());
+    }
+}
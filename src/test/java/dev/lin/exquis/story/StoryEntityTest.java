@@ -21,6 +21,8 @@ class StoryEntityTest {
         assertThat(story).isNotNull();
         assertThat(story.getExtension()).isEqualTo(10); // Default value
         assertThat(story.isFinished()).isFalse(); // Default value
+        assertThat(story.getCollaborationCount()).isZero(); // Default value
+        assertThat(story.getLastOrderNumber()).isZero(); // Default value
         assertThat(story.getCreatedAt()).isNotNull(); // Auto-set
     }
 
@@ -91,6 +93,8 @@ class StoryEntityTest {
                 1L,
                 15,
                 true,
+                15,
+                15,
                 now,
                 now.plusHours(1)
         );
@@ -99,6 +103,8 @@ class StoryEntityTest {
         assertThat(story.getId()).isEqualTo(1L);
         assertThat(story.getExtension()).isEqualTo(15);
         assertThat(story.isFinished()).isTrue();
+        assertThat(story.getCollaborationCount()).isEqualTo(15);
+        assertThat(story.getLastOrderNumber()).isEqualTo(15);
         assertThat(story.getCreatedAt()).isEqualTo(now);
         assertThat(story.getUpdatedAt()).isEqualTo(now.plusHours(1));
     }
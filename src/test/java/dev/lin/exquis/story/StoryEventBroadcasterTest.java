@@ -0,0 +1,184 @@
+package dev.lin.exquis.story;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("StoryEventBroadcaster - Tests Unitarios")
+class StoryEventBroadcasterTest {
+
+    /** Emisor que guarda lo enviado en lugar de escribir en la respuesta. */
+    private static class RecordingEmitter extends SseEmitter {
+        final List<String> received = Collections.synchronizedList(new ArrayList<>());
+        boolean broken;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (broken) {
+                throw new IOException("Conexión cerrada");
+            }
+            Set<DataWithMediaType> parts = builder.build();
+            StringBuilder text = new StringBuilder();
+            parts.forEach(part -> text.append(part.getData()));
+            received.add(text.toString());
+        }
+    }
+
+    /** Emisor cuya conexión no avanza hasta que se libera. */
+    private static class StalledEmitter extends SseEmitter {
+        final CountDownLatch sending = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private StoryEventBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        broadcaster = new StoryEventBroadcaster(Runnable::run, 100, 10_000);
+    }
+
+    @Test
+    @DisplayName("Debe enviar los eventos a todos los suscriptores")
+    void shouldBroadcastToAllSubscribers() {
+        // Given
+        RecordingEmitter first = new RecordingEmitter();
+        RecordingEmitter second = new RecordingEmitter();
+        broadcaster.register(first, null);
+        broadcaster.register(second, null);
+
+        // When
+        broadcaster.publish(StoryEvent.storyAvailable(1L));
+
+        // Then
+        assertThat(first.received).singleElement().asString().contains("event:story-available");
+        assertThat(second.received).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Debe filtrar por historia si el suscriptor lo pide")
+    void shouldFilterByStory() {
+        // Given
+        RecordingEmitter writer = new RecordingEmitter();
+        broadcaster.register(writer, 1L);
+
+        // When
+        broadcaster.publish(StoryEvent.leaseExpired(2L, LocalDateTime.now()));
+        broadcaster.publish(StoryEvent.leaseExpired(1L, LocalDateTime.now()));
+
+        // Then
+        assertThat(writer.received).singleElement().asString().contains("event:lease-expired");
+    }
+
+    @Test
+    @DisplayName("Debe descartar a los suscriptores desconectados")
+    void shouldDropBrokenSubscribers() {
+        // Given
+        RecordingEmitter alive = new RecordingEmitter();
+        RecordingEmitter gone = new RecordingEmitter();
+        gone.broken = true;
+        broadcaster.register(alive, null);
+        broadcaster.register(gone, null);
+
+        // When
+        broadcaster.keepAlive();
+
+        // Then
+        assertThat(broadcaster.subscriberCount()).isEqualTo(1);
+        assertThat(alive.received).singleElement().asString().contains("keep-alive");
+    }
+
+    @Test
+    @DisplayName("Debe avisar de la liberación y de la disponibilidad de la historia")
+    void shouldPublishReleaseAndAvailability() {
+        // Given
+        RecordingEmitter client = new RecordingEmitter();
+        broadcaster.register(client, null);
+
+        // When
+        broadcaster.publishReleasedAfterCommit(1L, true);
+        broadcaster.publishReleasedAfterCommit(2L, false);
+
+        // Then
+        assertThat(client.received).hasSize(3);
+        assertThat(client.received.get(0)).contains("event:lease-released");
+        assertThat(client.received.get(1)).contains("event:story-available");
+    }
+
+    @Test
+    @DisplayName("Un cliente atascado no debe retrasar a los demás y debe desconectarse")
+    void shouldIsolateAndDropStalledSubscriber() throws Exception {
+        // Given
+        ExecutorService dispatcher = Executors.newFixedThreadPool(2);
+        broadcaster = new StoryEventBroadcaster(dispatcher, 100, 0);
+        StalledEmitter stalled = new StalledEmitter();
+        RecordingEmitter healthy = new RecordingEmitter();
+        broadcaster.register(stalled, null);
+        broadcaster.register(healthy, null);
+
+        try {
+            // When
+            broadcaster.publish(StoryEvent.storyAvailable(1L));
+            broadcaster.publish(StoryEvent.storyAvailable(2L));
+            assertThat(stalled.sending.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // Then: el otro recibe todo mientras el atascado sigue bloqueado
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (healthy.received.size() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(healthy.received).hasSize(2);
+            Thread.sleep(5);
+            broadcaster.dropStalledSubscribers();
+            assertThat(broadcaster.subscriberCount()).isEqualTo(1);
+        } finally {
+            stalled.release.countDown();
+            dispatcher.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Un cliente atrasado debe quedarse con los eventos más recientes")
+    void shouldKeepNewestEventsWhenQueueIsFull() {
+        // Given: los envíos no salen hasta que se ejecutan a mano
+        List<Runnable> tasks = new ArrayList<>();
+        broadcaster = new StoryEventBroadcaster(tasks::add, 2, 10_000);
+        RecordingEmitter client = new RecordingEmitter();
+        broadcaster.register(client, null);
+
+        // When
+        for (long storyId = 1; storyId <= 4; storyId++) {
+            broadcaster.publish(StoryEvent.storyAvailable(storyId));
+        }
+        tasks.forEach(Runnable::run);
+
+        // Then: una sola tarea de envío y solo los dos últimos eventos
+        assertThat(tasks).hasSize(1);
+        assertThat(client.received).hasSize(2);
+        assertThat(client.received.get(0)).contains("storyId=3");
+        assertThat(client.received.get(1)).contains("storyId=4");
+    }
+}
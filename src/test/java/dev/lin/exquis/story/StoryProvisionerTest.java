@@ -0,0 +1,104 @@
+package dev.lin.exquis.story;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("StoryProvisioner - Tests Unitarios")
+class StoryProvisionerTest {
+
+    @Mock
+    private StoryRepository storyRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private StoryEventBroadcaster eventBroadcaster;
+
+    private AssignmentPool assignmentPool;
+    private StoryProvisioner provisioner;
+    private final AtomicLong ids = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        assignmentPool = new AssignmentPool();
+        provisioner = new StoryProvisioner(storyRepository, assignmentPool, eventBroadcaster, transactionManager);
+        ReflectionTestUtils.setField(provisioner, "lowWaterMark", 25);
+        ReflectionTestUtils.setField(provisioner, "batchSize", 10);
+        ReflectionTestUtils.setField(provisioner, "defaultExtension", 12);
+    }
+
+    @Test
+    @DisplayName("Debe reponer historias nuevas por lotes hasta el mínimo")
+    void shouldRefillInBatchesUpToLowWaterMark() {
+        // Given
+        assignmentPool.add(1_000L, 0);
+        stubSaveAll();
+
+        // When
+        int created = provisioner.refill();
+
+        // Then
+        assertThat(created).isEqualTo(24);
+        assertThat(assignmentPool.freshSize()).isEqualTo(25);
+        verify(storyRepository, times(3)).saveAll(anyList()); // 10 + 10 + 4
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    @DisplayName("Debe crear las historias con la extensión por defecto y vacías")
+    void shouldCreateEmptyStoriesWithDefaultExtension() {
+        // Given
+        ReflectionTestUtils.setField(provisioner, "lowWaterMark", 1);
+        stubSaveAll();
+
+        // When
+        provisioner.refill();
+
+        // Then
+        verify(storyRepository).saveAll(argThat(stories -> {
+            StoryEntity story = ((List<StoryEntity>) stories).get(0);
+            return story.getExtension() == 12 && !story.isFinished() && story.getCollaborationCount() == 0;
+        }));
+    }
+
+    @Test
+    @DisplayName("No debe crear nada si la reserva está completa")
+    void shouldDoNothingWhenAboveLowWaterMark() {
+        // Given
+        ReflectionTestUtils.setField(provisioner, "lowWaterMark", 2);
+        assignmentPool.add(1L, 0);
+        assignmentPool.add(2L, 0);
+
+        // When
+        int created = provisioner.refill();
+        provisioner.requestRefillIfLow();
+
+        // Then
+        assertThat(created).isZero();
+        verifyNoInteractions(storyRepository);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubSaveAll() {
+        when(storyRepository.saveAll(anyList())).thenAnswer(inv -> {
+            List<StoryEntity> stories = inv.getArgument(0);
+            stories.forEach(story -> story.setId(ids.incrementAndGet()));
+            return stories;
+        });
+    }
+}
@@ -0,0 +1,218 @@
+package dev.lin.exquis.story;
+
+import dev.lin.exquis.blockedStory.BlockedStoryRepository;
+import dev.lin.exquis.collaboration.CollaborationRepository;
+import dev.lin.exquis.collaboration.CollaborationService;
+import dev.lin.exquis.collaboration.dtos.CollaborationRequestDTO;
+import dev.lin.exquis.outbox.OutboxEventRepository;
+import dev.lin.exquis.role.RoleEntity;
+import dev.lin.exquis.role.RoleRepository;
+import dev.lin.exquis.story.dtos.StoryRequestDTO;
+import dev.lin.exquis.user.UserEntity;
+import dev.lin.exquis.user.UserRepository;
+import dev.lin.exquis.user.UserService;
+import dev.lin.exquis.user.dtos.UserRequestDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Cachés de lectura de historias - Tests de Integración")
+class StoryReadCacheIntegrationTest {
+
+    @Autowired
+    private StoryService storyService;
+
+    @Autowired
+    private CollaborationService collaborationService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private CollaborationRepository collaborationRepository;
+
+    @Autowired
+    private StoryRepository storyRepository;
+
+    @Autowired
+    private BlockedStoryRepository blockedStoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private AssignmentPool assignmentPool;
+
+    @Autowired
+    private StoryReadCache readCache;
+
+    private UserEntity user;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        RoleEntity userRole = roleRepository.findByName("USER")
+                .orElseGet(() -> roleRepository.save(new RoleEntity(null, "USER", null)));
+        user = userRepository.save(UserEntity.builder()
+                .username("cached")
+                .email("cached@example.com")
+                .name("Test")
+                .surname("User")
+                .password("encoded")
+                .roles(Set.of(userRole))
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        cleanUp();
+    }
+
+    @Test
+    @DisplayName("Lecturas repetidas de una historia deben salir de la caché")
+    void shouldServeRepeatedReadsFromCache() {
+        // Given
+        StoryEntity story = storyRepository.save(StoryEntity.builder().extension(5).finished(false).build());
+        double hitsBefore = gets(StoryReadCache.STORIES, "hit");
+
+        // When
+        storyService.getStoryById(story.getId());
+        storyRepository.deleteById(story.getId()); // Fuera del servicio: la caché no se entera
+        var cached = storyService.getStoryById(story.getId());
+
+        // Then
+        assertThat(cached.getId()).isEqualTo(story.getId());
+        assertThat(gets(StoryReadCache.STORIES, "hit")).isEqualTo(hitsBefore + 1);
+    }
+
+    @Test
+    @DisplayName("Crear una colaboración debe invalidar las colaboraciones cacheadas de su historia")
+    void shouldEvictCollaborationsOnWrite() {
+        // Given
+        StoryEntity story = storyRepository.save(StoryEntity.builder().extension(5).finished(false).build());
+        write(story, "Primera");
+        assertThat(collaborationService.getCollaborationsByStory(story.getId())).hasSize(1);
+
+        // When
+        write(story, "Segunda");
+
+        // Then
+        assertThat(collaborationService.getCollaborationsByStory(story.getId())).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Actualizar una historia debe invalidarla solo al confirmar")
+    void shouldEvictStoryOnlyAfterCommit() {
+        // Given
+        StoryEntity story = storyRepository.save(StoryEntity.builder().extension(5).finished(false).build());
+        storyService.getStoryById(story.getId());
+
+        // When: la transacción se deshace
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            storyService.updateStory(story.getId(), StoryRequestDTO.builder().extension(8).build());
+            status.setRollbackOnly();
+        });
+
+        // Then: sigue en caché
+        assertThat(cacheManager.getCache(StoryReadCache.STORIES).get(story.getId())).isNotNull();
+
+        // When: se confirma
+        storyService.updateStory(story.getId(), StoryRequestDTO.builder().extension(8).build());
+
+        // Then
+        assertThat(cacheManager.getCache(StoryReadCache.STORIES).get(story.getId())).isNull();
+        assertThat(storyService.getStoryById(story.getId()).getExtension()).isEqualTo(8);
+    }
+
+    @Test
+    @DisplayName("Renombrar a un autor debe invalidar las colaboraciones cacheadas")
+    void shouldEvictCollaborationsWhenAuthorRenamed() {
+        // Given
+        StoryEntity story = storyRepository.save(StoryEntity.builder().extension(5).finished(false).build());
+        write(story, "Firmada");
+        collaborationService.getCollaborationsByStory(story.getId());
+
+        // When
+        userService.updateEntity(user.getId(), new UserRequestDTO("renamed", null, null, null, null, null));
+
+        // Then
+        assertThat(collaborationService.getCollaborationsByStory(story.getId()).get(0).getUser().getUsername())
+                .isEqualTo("renamed");
+    }
+
+    @Test
+    @DisplayName("Una lectura en curso al invalidar no debe dejar el valor antiguo en caché")
+    void shouldDiscardLoadInFlightWhenEvicted() throws Exception {
+        // Given: una lectura que ya consultó la base de datos y aún no ha guardado su valor
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> reader = CompletableFuture.supplyAsync(() ->
+                readCache.get(StoryReadCache.STORY_COLLABORATIONS, 42L, () -> {
+                    loading.countDown();
+                    assertThat(release.await(5, TimeUnit.SECONDS)).isTrue();
+                    return "antiguo";
+                }));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // When: se confirma una escritura mientras la carga sigue en curso
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> readCache.evictStoryAfterCommit(42L));
+        Thread.sleep(100);
+        release.countDown();
+        writer.get(5, TimeUnit.SECONDS);
+
+        // Then: la lectura devuelve su valor, pero no queda cacheado
+        assertThat(reader.get(5, TimeUnit.SECONDS)).isEqualTo("antiguo");
+        assertThat(cacheManager.getCache(StoryReadCache.STORY_COLLABORATIONS).get(42L)).isNull();
+    }
+
+    private double gets(String cache, String result) {
+        return meterRegistry.get("cache.gets").tag("cache", cache).tag("result", result).functionCounter().count();
+    }
+
+    private void write(StoryEntity story, String text) {
+        collaborationService.createCollaboration(new CollaborationRequestDTO(text, story.getId()), "cached@example.com");
+    }
+
+    private void cleanUp() {
+        outboxEventRepository.deleteAll();
+        blockedStoryRepository.deleteAll();
+        collaborationRepository.deleteAll();
+        storyRepository.deleteAll();
+        userRepository.deleteAll();
+        assignmentPool.rebuild(List.of());
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+}
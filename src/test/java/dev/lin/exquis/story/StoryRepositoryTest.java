@@ -0,0 +1,288 @@
+package dev.lin.exquis.story;
+
+import dev.lin.exquis.blockedStory.BlockedStoryEntity;
+import dev.lin.exquis.blockedStory.BlockedStoryRepository;
+import dev.lin.exquis.collaboration.CollaborationEntity;
+import dev.lin.exquis.collaboration.CollaborationRepository;
+import dev.lin.exquis.role.RoleEntity;
+import dev.lin.exquis.role.RoleRepository;
+import dev.lin.exquis.user.UserEntity;
+import dev.lin.exquis.user.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@DisplayName("StoryRepository - Tests de Queries del Pool y Contadores")
+class StoryRepositoryTest {
+
+    @Autowired
+    private StoryRepository storyRepository;
+
+    @Autowired
+    private CollaborationRepository collaborationRepository;
+
+    @Autowired
+    private BlockedStoryRepository blockedStoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private UserEntity testUser;
+    private UserEntity anotherUser;
+    private UserEntity thirdUser;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        blockedStoryRepository.deleteAll();
+        collaborationRepository.deleteAll();
+        storyRepository.deleteAll();
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+
+        RoleEntity userRole = new RoleEntity();
+        userRole.setName("USER");
+        userRole = roleRepository.save(userRole);
+
+        testUser = userRepository.save(createUser("testuser", "test@example.com", userRole));
+        anotherUser = userRepository.save(createUser("anotheruser", "another@example.com", userRole));
+        thirdUser = userRepository.save(createUser("thirduser", "third@example.com", userRole));
+        now = LocalDateTime.now();
+    }
+
+    @Test
+    @DisplayName("Debe cargar historias abiertas con su número de colaboraciones")
+    void shouldLoadOpenStoriesWithCounters() {
+        // Given
+        StoryEntity fresh = saveStory(false);
+        StoryEntity inProgress = saveStory(false);
+        saveCollaboration(inProgress, anotherUser);
+        saveCollaboration(inProgress, thirdUser);
+
+        // When
+        List<StoryCandidate> result = storyRepository.findPoolCandidates(now);
+
+        // Then
+        assertThat(result)
+                .extracting(StoryCandidate::id, StoryCandidate::collaborationCount)
+                .containsExactlyInAnyOrder(tuple(fresh.getId(), 0), tuple(inProgress.getId(), 2));
+    }
+
+    @Test
+    @DisplayName("Debe excluir historias finalizadas")
+    void shouldExcludeFinishedStories() {
+        // Given
+        saveStory(true);
+
+        // When
+        List<StoryCandidate> result = storyRepository.findPoolCandidates(now);
+
+        // Then
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Debe excluir historias con bloqueo vigente pero no las de bloqueo expirado")
+    void shouldExcludeOnlyActivelyBlockedStories() {
+        // Given
+        StoryEntity blocked = saveStory(false);
+        StoryEntity expired = saveStory(false);
+        blockedStoryRepository.save(block(blocked, now.plusMinutes(10)));
+        blockedStoryRepository.save(block(expired, now.minusMinutes(1)));
+
+        // When
+        List<StoryCandidate> result = storyRepository.findPoolCandidates(now);
+
+        // Then
+        assertThat(result).extracting(StoryCandidate::id).containsExactly(expired.getId());
+    }
+
+    @Test
+    @DisplayName("Debe reservar números de orden consecutivos de forma atómica")
+    void shouldAllocateConsecutiveOrderNumbers() {
+        // Given
+        StoryEntity story = saveStory(false);
+
+        // When
+        saveCollaboration(story, testUser);
+        saveCollaboration(story, anotherUser);
+
+        // Then
+        assertThat(storyRepository.findProgress(story.getId())).isEqualTo(new StoryProgress(2, 2));
+        StoryEntity reloaded = reload(story);
+        assertThat(reloaded.getCollaborationCount()).isEqualTo(2);
+        assertThat(reloaded.getLastOrderNumber()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("No debe reservar números de orden en historias finalizadas o completas")
+    void shouldNotAllocateBeyondExtensionOrOnFinishedStory() {
+        // Given
+        StoryEntity complete = storyRepository.save(StoryEntity.builder().extension(1).build());
+        saveCollaboration(complete, testUser);
+        StoryEntity finished = saveStory(true);
+
+        // When & Then
+        assertThat(storyRepository.allocateOrderNumber(complete.getId())).isZero();
+        assertThat(storyRepository.allocateOrderNumber(finished.getId())).isZero();
+        assertThat(storyRepository.findProgress(complete.getId())).isEqualTo(new StoryProgress(1, 1));
+        assertThat(storyRepository.findProgress(finished.getId())).isEqualTo(new StoryProgress(0, 0));
+    }
+
+    @Test
+    @DisplayName("Debe marcar como finalizada solo una vez al alcanzar la extensión")
+    void shouldMarkFinishedOnlyOnce() {
+        // Given
+        StoryEntity story = storyRepository.save(StoryEntity.builder().extension(2).build());
+        saveCollaboration(story, testUser);
+
+        // When & Then
+        assertThat(storyRepository.markFinishedIfComplete(story.getId(), now)).isZero();
+        saveCollaboration(story, anotherUser);
+        assertThat(storyRepository.markFinishedIfComplete(story.getId(), now)).isEqualTo(1);
+        assertThat(storyRepository.markFinishedIfComplete(story.getId(), now)).isZero();
+        assertThat(reload(story).isFinished()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Debe detectar y reparar contadores desajustados")
+    void shouldDetectAndRepairDriftedCounters() {
+        // Given
+        StoryEntity drifted = saveStory(false);
+        saveCollaborationWithoutCounters(drifted, testUser, 1);
+        saveCollaborationWithoutCounters(drifted, anotherUser, 2);
+        StoryEntity consistent = saveStory(false);
+        saveCollaboration(consistent, testUser);
+
+        // When
+        long driftedCount = storyRepository.countStoriesWithDriftedCounters();
+        int repaired = storyRepository.repairProgressCounters();
+
+        // Then
+        assertThat(driftedCount).isEqualTo(1);
+        assertThat(repaired).isEqualTo(1);
+        assertThat(storyRepository.countStoriesWithDriftedCounters()).isZero();
+        StoryEntity reloaded = reload(drifted);
+        assertThat(reloaded.getCollaborationCount()).isEqualTo(2);
+        assertThat(reloaded.getLastOrderNumber()).isEqualTo(2);
+    }
+
+    // Helper methods
+    @Test
+    @DisplayName("Debe listar completadas con su primera colaboración y autor en una consulta")
+    void shouldLoadCompletedPageWithFirstCollaboration() {
+        // Given
+        StoryEntity older = saveFinishedStory(now.minusDays(2));
+        StoryEntity newer = storyRepository.save(StoryEntity.builder().extension(2).createdAt(now.minusDays(1)).build());
+        saveStory(false);
+        saveCollaboration(newer, anotherUser);
+        saveCollaboration(newer, thirdUser);
+        storyRepository.markFinishedIfComplete(newer.getId(), now);
+        entityManager.clear();
+
+        // When
+        List<CompletedStoryRow> page = storyRepository.findCompletedPage(Limit.of(10));
+
+        // Then
+        assertThat(page).extracting(CompletedStoryRow::id).containsExactly(newer.getId(), older.getId());
+        CompletedStoryRow first = page.get(0);
+        assertThat(first.firstOrderNumber()).isEqualTo(1);
+        assertThat(first.authorUsername()).isEqualTo("anotheruser");
+        assertThat(first.collaborationCount()).isEqualTo(2);
+        assertThat(page.get(1).firstCollaborationId()).isNull();
+    }
+
+    @Test
+    @DisplayName("Debe paginar por keyset sin saltar historias con la misma fecha")
+    void shouldPageCompletedStoriesByKeyset() {
+        // Given: tres historias con el mismo created_at
+        LocalDateTime createdAt = now.minusHours(1);
+        StoryEntity a = saveFinishedStory(createdAt);
+        StoryEntity b = saveFinishedStory(createdAt);
+        StoryEntity c = saveFinishedStory(createdAt);
+
+        // When
+        List<CompletedStoryRow> firstPage = storyRepository.findCompletedPage(Limit.of(2));
+        CompletedStoryRow last = firstPage.get(firstPage.size() - 1);
+        List<CompletedStoryRow> secondPage = storyRepository.findCompletedPageAfter(last.createdAt(), last.id(), Limit.of(2));
+
+        // Then
+        assertThat(firstPage).extracting(CompletedStoryRow::id).containsExactly(c.getId(), b.getId());
+        assertThat(secondPage).extracting(CompletedStoryRow::id).containsExactly(a.getId());
+    }
+
+    private UserEntity createUser(String username, String email, RoleEntity role) {
+        return UserEntity.builder()
+                .username(username)
+                .email(email)
+                .name("Test")
+                .surname("User")
+                .password("encoded")
+                .roles(Set.of(role))
+                .build();
+    }
+
+    private StoryEntity saveFinishedStory(LocalDateTime createdAt) {
+        return storyRepository.save(StoryEntity.builder()
+                .extension(2)
+                .finished(true)
+                .createdAt(createdAt)
+                .build());
+    }
+
+    private StoryEntity saveStory(boolean finished) {
+        return storyRepository.save(StoryEntity.builder()
+                .extension(10)
+                .finished(finished)
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    private void saveCollaboration(StoryEntity story, UserEntity user) {
+        storyRepository.allocateOrderNumber(story.getId());
+        saveCollaborationWithoutCounters(story, user, storyRepository.findProgress(story.getId()).lastOrderNumber());
+    }
+
+    private void saveCollaborationWithoutCounters(StoryEntity story, UserEntity user, int orderNumber) {
+        collaborationRepository.save(CollaborationEntity.builder()
+                .text("Texto de prueba número " + orderNumber)
+                .orderNumber(orderNumber)
+                .story(story)
+                .user(user)
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    private StoryEntity reload(StoryEntity story) {
+        entityManager.clear();
+        return storyRepository.findById(story.getId()).orElseThrow();
+    }
+
+    private BlockedStoryEntity block(StoryEntity story, LocalDateTime until) {
+        return BlockedStoryEntity.builder()
+                .story(story)
+                .lockedBy(anotherUser)
+                .blockedUntil(until)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -2,22 +2,33 @@ package dev.lin.exquis.story;
 
 import dev.lin.exquis.blockedStory.BlockedStoryEntity;
 import dev.lin.exquis.blockedStory.BlockedStoryRepository;
+import dev.lin.exquis.blockedStory.StoryLeaseTable;
 import dev.lin.exquis.collaboration.CollaborationEntity;
 import dev.lin.exquis.collaboration.CollaborationRepository;
 import dev.lin.exquis.collaboration.dtos.CollaborationResponseDTO;
+import dev.lin.exquis.outbox.DomainEventOutbox;
+import dev.lin.exquis.story.dtos.CompletedStoriesPageDTO;
 import dev.lin.exquis.story.dtos.CompletedStoryDTO;
 import dev.lin.exquis.story.dtos.StoryAssignmentResponseDTO;
 import dev.lin.exquis.story.dtos.StoryRequestDTO;
 import dev.lin.exquis.story.dtos.StoryResponseDTO;
+import dev.lin.exquis.story.exceptions.InvalidCursorException;
+import dev.lin.exquis.story.exceptions.NoStoryAvailableException;
 import dev.lin.exquis.user.UserEntity;
 import dev.lin.exquis.user.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -33,6 +44,9 @@ class StoryServiceImplTest {
     @Mock
     private StoryRepository storyRepository;
 
+    @Mock
+    private CompletedStoryRepository completedStoryRepository;
+
     @Mock
     private BlockedStoryRepository blockedStoryRepository;
 
@@ -42,6 +56,30 @@ class StoryServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Spy
+    private AssignmentPool assignmentPool = new AssignmentPool();
+
+    @Mock
+    private UserEligibilityIndex eligibilityIndex;
+
+    @Spy
+    private StoryLeaseTable leaseTable = new StoryLeaseTable(1_000);
+
+    @Mock
+    private StoryProvisioner storyProvisioner;
+
+    @Mock
+    private StoryEventBroadcaster eventBroadcaster;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private DomainEventOutbox outbox;
+
+    @Spy
+    private StoryReadCache readCache = new StoryReadCache(new ConcurrentMapCacheManager(), mock(EntityManagerFactory.class, RETURNS_DEEP_STUBS));
+
     @InjectMocks
     private StoryServiceImpl storyService;
 
@@ -73,6 +111,10 @@ class StoryServiceImplTest {
                 .blockedUntil(LocalDateTime.now().plusMinutes(30))
                 .createdAt(LocalDateTime.now())
                 .build();
+
+        lenient().when(eligibilityIndex.eligibilityFor(anyLong())).thenReturn((storyId, count) -> true);
+        ReflectionTestUtils.setField(storyService, "defaultCompletedPageSize", 20);
+        ReflectionTestUtils.setField(storyService, "maxCompletedPageSize", 100);
     }
 
     // ========== CRUD BÁSICO ==========
@@ -325,14 +367,11 @@ class StoryServiceImplTest {
     void shouldAssignAvailableStoryAndCreateBlock() {
         // Given
         String userEmail = "test@example.com";
-        LocalDateTime now = LocalDateTime.now();
+        assignmentPool.add(1L, 0);
 
-        when(blockedStoryRepository.deleteExpiredBlocks(any())).thenReturn(0);
         when(userRepository.findByEmail(userEmail)).thenReturn(Optional.of(testUser));
-        when(blockedStoryRepository.findByUserEmail(userEmail)).thenReturn(Optional.empty());
-        when(blockedStoryRepository.findActiveBlocks(any())).thenReturn(Collections.emptyList());
-        when(storyRepository.findAll()).thenReturn(Arrays.asList(testStory));
-        when(collaborationRepository.countByStoryId(1L)).thenReturn(0L);
+        when(blockedStoryRepository.findActiveByUserEmail(eq(userEmail), any())).thenReturn(Optional.empty());
+        when(storyRepository.findById(1L)).thenReturn(Optional.of(testStory));
         when(blockedStoryRepository.save(any(BlockedStoryEntity.class))).thenReturn(blockedStory);
 
         // When
@@ -344,7 +383,9 @@ class StoryServiceImplTest {
         assertThat(result.getExtension()).isEqualTo(10);
         assertThat(result.getCurrentCollaborationNumber()).isEqualTo(1);
         assertThat(result.getTimeLimit()).isEqualTo(1800); // 30 min
+        assertThat(assignmentPool.contains(1L)).isFalse(); // Sale del pool al bloquearse
         verify(blockedStoryRepository).save(any(BlockedStoryEntity.class));
+        verify(storyRepository, never()).findAll();
     }
 
     @Test
@@ -353,12 +394,10 @@ class StoryServiceImplTest {
         // Given
         String userEmail = "test@example.com";
 
-        when(blockedStoryRepository.deleteExpiredBlocks(any())).thenReturn(0);
         when(userRepository.findByEmail(userEmail)).thenReturn(Optional.of(testUser));
-        when(blockedStoryRepository.findByUserEmail(userEmail)).thenReturn(Optional.of(blockedStory));
-        when(collaborationRepository.countByStoryId(1L)).thenReturn(2L);
-        when(collaborationRepository.findByStoryIdOrderByOrderNumberDesc(1L))
-                .thenReturn(Collections.emptyList());
+        when(blockedStoryRepository.findActiveByUserEmail(eq(userEmail), any())).thenReturn(Optional.of(blockedStory));
+        testStory.setCollaborationCount(2);
+        when(collaborationRepository.findLastWithUserByStoryId(1L)).thenReturn(Optional.empty());
 
         // When
         StoryAssignmentResponseDTO result = storyService.assignRandomAvailableStory(userEmail);
@@ -368,147 +407,140 @@ class StoryServiceImplTest {
         assertThat(result.getStoryId()).isEqualTo(1L);
         assertThat(result.getCurrentCollaborationNumber()).isEqualTo(3);
         verify(blockedStoryRepository, never()).save(any()); // No crea nuevo bloqueo
+        verify(collaborationRepository, never()).countByStoryId(anyLong()); // Usa el contador
     }
 
     @Test
-    @DisplayName("Debe limpiar bloqueos expirados al asignar")
-    void shouldCleanExpiredBlocksWhenAssigning() {
+    @DisplayName("No debe borrar bloqueos expirados en la petición de asignación")
+    void shouldNotSweepExpiredBlocksWhenAssigning() {
         // Given
         String userEmail = "test@example.com";
+        assignmentPool.add(1L, 0);
 
-        when(blockedStoryRepository.deleteExpiredBlocks(any())).thenReturn(3);
         when(userRepository.findByEmail(userEmail)).thenReturn(Optional.of(testUser));
-        when(blockedStoryRepository.findByUserEmail(userEmail)).thenReturn(Optional.empty());
-        when(blockedStoryRepository.findActiveBlocks(any())).thenReturn(Collections.emptyList());
-        when(storyRepository.findAll()).thenReturn(Arrays.asList(testStory));
-        when(collaborationRepository.countByStoryId(1L)).thenReturn(0L);
+        when(blockedStoryRepository.findActiveByUserEmail(eq(userEmail), any())).thenReturn(Optional.empty());
+        when(storyRepository.findById(1L)).thenReturn(Optional.of(testStory));
         when(blockedStoryRepository.save(any())).thenReturn(blockedStory);
 
         // When
         storyService.assignRandomAvailableStory(userEmail);
 
         // Then
-        verify(blockedStoryRepository).deleteExpiredBlocks(any());
+        verify(blockedStoryRepository, never()).deleteExpiredBlocks(any());
+        verify(blockedStoryRepository, never()).findExpiredCandidates(any());
     }
 
     @Test
-    @DisplayName("Debe excluir historias bloqueadas activamente")
-    void shouldExcludeActivelyBlockedStories() {
+    @DisplayName("Debe priorizar historias en progreso sobre nuevas")
+    void shouldPrioritizeInProgressStories() {
         // Given
         String userEmail = "test@example.com";
-        StoryEntity anotherStory = StoryEntity.builder()
-                .id(2L)
-                .extension(10)
-                .finished(false)
-                .createdAt(LocalDateTime.now())
-                .build();
+        testStory.setCollaborationCount(5);
+        assignmentPool.add(1L, 5);
+        assignmentPool.add(2L, 0);
 
-        BlockedStoryEntity activeBlock = BlockedStoryEntity.builder()
-                .story(testStory)
-                .lockedBy(testUser)
-                .blockedUntil(LocalDateTime.now().plusMinutes(15))
-                .build();
-
-        when(blockedStoryRepository.deleteExpiredBlocks(any())).thenReturn(0);
         when(userRepository.findByEmail(userEmail)).thenReturn(Optional.of(testUser));
-        when(blockedStoryRepository.findByUserEmail(userEmail)).thenReturn(Optional.empty());
-        when(blockedStoryRepository.findActiveBlocks(any()))
-                .thenReturn(Arrays.asList(activeBlock));
-        when(storyRepository.findAll()).thenReturn(Arrays.asList(testStory, anotherStory));
-        when(collaborationRepository.countByStoryId(2L)).thenReturn(0L);
+        when(blockedStoryRepository.findActiveByUserEmail(eq(userEmail), any())).thenReturn(Optional.empty());
+        when(storyRepository.findById(1L)).thenReturn(Optional.of(testStory));
         when(blockedStoryRepository.save(any())).thenReturn(blockedStory);
+        when(collaborationRepository.findLastWithUserByStoryId(1L)).thenReturn(Optional.empty());
 
         // When
         StoryAssignmentResponseDTO result = storyService.assignRandomAvailableStory(userEmail);
 
         // Then
-        assertThat(result.getStoryId()).isEqualTo(2L); // Asigna la no bloqueada
+        assertThat(result.getStoryId()).isEqualTo(1L);
+        assertThat(result.getCurrentCollaborationNumber()).isEqualTo(6);
+        assertThat(assignmentPool.contains(2L)).isTrue();
+        verify(blockedStoryRepository).save(any());
     }
 
     @Test
-    @DisplayName("Debe excluir historias finalizadas")
-    void shouldExcludeFinishedStories() {
+    @DisplayName("No debe asignar una historia donde el usuario escribió hace menos de 2 colaboraciones")
+    void shouldSkipStoriesWhereUserWroteRecently() {
         // Given
         String userEmail = "test@example.com";
-        testStory.setFinished(true);
+        assignmentPool.add(1L, 5);
+        assignmentPool.add(2L, 0);
+        StoryEntity freshStory = StoryEntity.builder().id(2L).extension(10).finished(false).build();
 
-        when(blockedStoryRepository.deleteExpiredBlocks(any())).thenReturn(0);
         when(userRepository.findByEmail(userEmail)).thenReturn(Optional.of(testUser));
-        when(blockedStoryRepository.findByUserEmail(userEmail)).thenReturn(Optional.empty());
-        when(blockedStoryRepository.findActiveBlocks(any())).thenReturn(Collections.emptyList());
-        when(storyRepository.findAll()).thenReturn(Arrays.asList(testStory));
-        when(storyRepository.save(any())).thenAnswer(inv -> {
-            StoryEntity e = inv.getArgument(0);
-            e.setId(2L);
-            return e;
-        });
+        when(blockedStoryRepository.findActiveByUserEmail(eq(userEmail), any())).thenReturn(Optional.empty());
+        when(eligibilityIndex.eligibilityFor(1L)).thenReturn((storyId, count) -> storyId != 1L);
+        when(storyRepository.findById(2L)).thenReturn(Optional.of(freshStory));
         when(blockedStoryRepository.save(any())).thenReturn(blockedStory);
-        when(collaborationRepository.countByStoryId(anyLong())).thenReturn(0L);
 
         // When
         StoryAssignmentResponseDTO result = storyService.assignRandomAvailableStory(userEmail);
 
         // Then
-        verify(storyRepository).save(any()); // Crea nueva historia
+        assertThat(result.getStoryId()).isEqualTo(2L);
+        assertThat(assignmentPool.contains(1L)).isTrue(); // Sigue disponible para otros
     }
 
     @Test
-    @DisplayName("Debe priorizar historias en progreso sobre nuevas")
-    void shouldPrioritizeInProgressStories() {
+    @DisplayName("No debe crear historias dentro de la asignación si no hay disponibles")
+    void shouldNotCreateStoriesInlineWhenNoneAvailable() {
         // Given
         String userEmail = "test@example.com";
-        StoryEntity newStory = StoryEntity.builder()
-                .id(2L)
-                .extension(10)
-                .finished(false)
-                .createdAt(LocalDateTime.now())
-                .build();
 
-        when(blockedStoryRepository.deleteExpiredBlocks(any())).thenReturn(0);
         when(userRepository.findByEmail(userEmail)).thenReturn(Optional.of(testUser));
-        when(blockedStoryRepository.findByUserEmail(userEmail)).thenReturn(Optional.empty());
-        when(blockedStoryRepository.findActiveBlocks(any())).thenReturn(Collections.emptyList());
-        when(storyRepository.findAll()).thenReturn(Arrays.asList(testStory, newStory));
-        when(collaborationRepository.countByStoryId(1L)).thenReturn(5L); // En progreso
-        when(collaborationRepository.countByStoryId(2L)).thenReturn(0L); // Nueva
+        when(blockedStoryRepository.findActiveByUserEmail(eq(userEmail), any())).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThatThrownBy(() -> storyService.assignRandomAvailableStory(userEmail))
+                .isInstanceOf(NoStoryAvailableException.class);
+        verify(storyRepository, never()).save(any());
+        verify(blockedStoryRepository, never()).save(any());
+        verify(storyProvisioner).requestRefillIfLow();
+    }
+
+    @Test
+    @DisplayName("Debe descartar del pool historias que ya no están abiertas")
+    void shouldDiscardStaleStoriesFromPool() {
+        // Given
+        String userEmail = "test@example.com";
+        assignmentPool.add(1L, 0);
+        assignmentPool.add(2L, 3);
+
+        when(userRepository.findByEmail(userEmail)).thenReturn(Optional.of(testUser));
+        when(blockedStoryRepository.findActiveByUserEmail(eq(userEmail), any())).thenReturn(Optional.empty());
+        when(storyRepository.findById(2L)).thenReturn(Optional.empty()); // Borrada
+        when(storyRepository.findById(1L)).thenReturn(Optional.of(testStory));
         when(blockedStoryRepository.save(any())).thenReturn(blockedStory);
-        when(collaborationRepository.findByStoryIdOrderByOrderNumberDesc(anyLong()))
-                .thenReturn(Collections.emptyList());
 
         // When
         StoryAssignmentResponseDTO result = storyService.assignRandomAvailableStory(userEmail);
 
         // Then
-        assertThat(result.getStoryId()).isIn(1L, 2L); // Puede ser cualquiera pero prioriza 1
-        verify(blockedStoryRepository).save(any());
+        assertThat(result.getStoryId()).isEqualTo(1L);
+        assertThat(assignmentPool.contains(2L)).isFalse();
+        verify(storyRepository, never()).save(any());
     }
 
     @Test
-    @DisplayName("Debe crear nueva historia si no hay disponibles")
-    void shouldCreateNewStoryIfNoneAvailable() {
+    @DisplayName("Debe saltar historias reservadas por otro usuario")
+    void shouldSkipStoriesLeasedByAnotherUser() {
         // Given
         String userEmail = "test@example.com";
+        LocalDateTime now = LocalDateTime.now();
+        assignmentPool.add(1L, 0);
+        assignmentPool.add(2L, 3);
+        leaseTable.tryAcquire(2L, 99L, now.plusMinutes(30), now);
 
-        when(blockedStoryRepository.deleteExpiredBlocks(any())).thenReturn(0);
         when(userRepository.findByEmail(userEmail)).thenReturn(Optional.of(testUser));
-        when(blockedStoryRepository.findByUserEmail(userEmail)).thenReturn(Optional.empty());
-        when(blockedStoryRepository.findActiveBlocks(any())).thenReturn(Collections.emptyList());
-        when(storyRepository.findAll()).thenReturn(Collections.emptyList());
-        when(storyRepository.save(any())).thenAnswer(inv -> {
-            StoryEntity e = inv.getArgument(0);
-            e.setId(3L);
-            return e;
-        });
+        when(blockedStoryRepository.findActiveByUserEmail(eq(userEmail), any())).thenReturn(Optional.empty());
+        when(storyRepository.findById(1L)).thenReturn(Optional.of(testStory));
         when(blockedStoryRepository.save(any())).thenReturn(blockedStory);
-        when(collaborationRepository.countByStoryId(anyLong())).thenReturn(0L);
 
         // When
         StoryAssignmentResponseDTO result = storyService.assignRandomAvailableStory(userEmail);
 
         // Then
-        verify(storyRepository).save(any(StoryEntity.class)); // Crea nueva
-        verify(blockedStoryRepository).save(any());
-        assertThat(result).isNotNull();
+        assertThat(result.getStoryId()).isEqualTo(1L);
+        assertThat(leaseTable.find(1L)).hasValueSatisfying(lease -> assertThat(lease.userId()).isEqualTo(1L));
+        assertThat(leaseTable.find(2L)).hasValueSatisfying(lease -> assertThat(lease.userId()).isEqualTo(99L));
+        verify(storyRepository, never()).findById(2L);
     }
 
     @Test
@@ -516,7 +548,9 @@ class StoryServiceImplTest {
     void shouldIncludePreviousCollaborationWhenExists() {
         // Given
         String userEmail = "test@example.com";
-        
+        testStory.setCollaborationCount(1);
+        assignmentPool.add(1L, 1);
+
         CollaborationEntity previousCollab = CollaborationEntity.builder()
                 .id(1L)
                 .text("Colaboración previa")
@@ -526,14 +560,11 @@ class StoryServiceImplTest {
                 .createdAt(LocalDateTime.now())
                 .build();
 
-        when(blockedStoryRepository.deleteExpiredBlocks(any())).thenReturn(0);
         when(userRepository.findByEmail(userEmail)).thenReturn(Optional.of(testUser));
-        when(blockedStoryRepository.findByUserEmail(userEmail)).thenReturn(Optional.empty());
-        when(blockedStoryRepository.findActiveBlocks(any())).thenReturn(Collections.emptyList());
-        when(storyRepository.findAll()).thenReturn(Arrays.asList(testStory));
-        when(collaborationRepository.countByStoryId(1L)).thenReturn(1L);
-        when(collaborationRepository.findByStoryIdOrderByOrderNumberDesc(1L))
-                .thenReturn(Arrays.asList(previousCollab));
+        when(blockedStoryRepository.findActiveByUserEmail(eq(userEmail), any())).thenReturn(Optional.empty());
+        when(storyRepository.findById(1L)).thenReturn(Optional.of(testStory));
+        when(collaborationRepository.findLastWithUserByStoryId(1L))
+                .thenReturn(Optional.of(previousCollab));
         when(blockedStoryRepository.save(any())).thenReturn(blockedStory);
 
         // When
@@ -549,7 +580,6 @@ class StoryServiceImplTest {
     @DisplayName("Debe lanzar excepción si usuario no existe")
     void shouldThrowExceptionIfUserNotFound() {
         // Given
-        when(blockedStoryRepository.deleteExpiredBlocks(any())).thenReturn(0);
         when(userRepository.findByEmail("nonexistent@example.com"))
                 .thenReturn(Optional.empty());
 
@@ -564,11 +594,18 @@ class StoryServiceImplTest {
     @Test
     @DisplayName("Debe desbloquear historia correctamente")
     void shouldUnlockStorySuccessfully() {
+        // Given
+        testStory.setCollaborationCount(3);
+        when(storyRepository.findById(1L)).thenReturn(Optional.of(testStory));
+
         // When
         storyService.unlockStory(1L);
 
         // Then
         verify(blockedStoryRepository).deleteByStoryId(1L);
+        verify(leaseTable).releaseAfterCommit(1L);
+        assertThat(assignmentPool.contains(1L)).isTrue(); // Vuelve al pool
+        verify(eventBroadcaster).publishReleasedAfterCommit(1L, true);
     }
 
     // ========== HISTORIAS COMPLETADAS ==========
@@ -577,118 +614,123 @@ class StoryServiceImplTest {
     @DisplayName("Debe obtener historias completadas con detalles")
     void shouldGetCompletedStoriesWithDetails() {
         // Given
-        testStory.setFinished(true);
-        testStory.setUpdatedAt(LocalDateTime.now());
-
-        CollaborationEntity firstCollab = CollaborationEntity.builder()
-                .id(1L)
-                .text("Primera colaboración")
-                .orderNumber(1)
-                .story(testStory)
-                .user(testUser)
-                .createdAt(LocalDateTime.now())
-                .build();
-
-        CollaborationEntity secondCollab = CollaborationEntity.builder()
-                .id(2L)
-                .text("Segunda colaboración")
-                .orderNumber(2)
-                .story(testStory)
-                .user(testUser)
-                .createdAt(LocalDateTime.now())
-                .build();
-
-        when(storyRepository.findAll()).thenReturn(Arrays.asList(testStory));
-        when(collaborationRepository.findByStoryIdWithUserOrderByOrderNumberAsc(1L))
-                .thenReturn(Arrays.asList(firstCollab, secondCollab));
+        when(completedStoryRepository.findPage(Limit.of(21)))
+                .thenReturn(List.of(completedRow(1L, LocalDateTime.now(), 1L, "Primera colaboración", 2)));
 
         // When
-        List<CompletedStoryDTO> result = storyService.getCompletedStories();
+        CompletedStoriesPageDTO result = storyService.getCompletedStories(null, null);
 
         // Then
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getId()).isEqualTo(1L);
-        assertThat(result.get(0).getFirstCollaboration()).isNotNull();
-        assertThat(result.get(0).getFirstCollaboration().getText()).isEqualTo("Primera colaboración");
-        assertThat(result.get(0).getTotalCollaborations()).isEqualTo(2);
+        assertThat(result.getStories()).hasSize(1);
+        CompletedStoryDTO story = result.getStories().get(0);
+        assertThat(story.getId()).isEqualTo(1L);
+        assertThat(story.getFirstCollaboration()).isNotNull();
+        assertThat(story.getFirstCollaboration().getText()).isEqualTo("Primera colaboración");
+        assertThat(story.getFirstCollaboration().getUser().getUsername()).isEqualTo("testuser");
+        assertThat(story.getTotalCollaborations()).isEqualTo(2);
+        assertThat(story.getWordCount()).isEqualTo(2);
+        assertThat(result.getNextCursor()).isNull();
+        verifyNoInteractions(collaborationRepository, userRepository);
     }
 
     @Test
-    @DisplayName("Debe excluir historias no finalizadas de completadas")
-    void shouldExcludeNonFinishedStoriesFromCompleted() {
+    @DisplayName("Debe devolver el cursor de la siguiente página si hay más historias")
+    void shouldReturnNextCursorWhenMoreStoriesExist() {
         // Given
-        testStory.setFinished(false);
-
-        when(storyRepository.findAll()).thenReturn(Arrays.asList(testStory));
+        LocalDateTime newer = LocalDateTime.now();
+        LocalDateTime older = newer.minusDays(1);
+        when(completedStoryRepository.findPage(Limit.of(3))).thenReturn(List.of(
+                completedRow(3L, newer, 30L, "c", 1),
+                completedRow(2L, older, 20L, "b", 1),
+                completedRow(1L, older.minusDays(1), 10L, "a", 1)));
 
         // When
-        List<CompletedStoryDTO> result = storyService.getCompletedStories();
+        CompletedStoriesPageDTO result = storyService.getCompletedStories(null, 2);
 
         // Then
-        assertThat(result).isEmpty();
+        assertThat(result.getStories()).extracting(CompletedStoryDTO::getId).containsExactly(3L, 2L);
+        assertThat(CompletedStoryCursor.decode(result.getNextCursor()))
+                .isEqualTo(new CompletedStoryCursor(older, 2L));
     }
 
     @Test
-    @DisplayName("Debe ordenar historias completadas por fecha descendente")
-    void shouldSortCompletedStoriesByDateDesc() {
+    @DisplayName("Debe continuar desde el cursor recibido")
+    void shouldContinueFromCursor() {
         // Given
-        StoryEntity oldStory = StoryEntity.builder()
-                .id(1L)
-                .extension(10)
-                .finished(true)
-                .createdAt(LocalDateTime.now().minusDays(2))
-                .build();
-
-        StoryEntity newStory = StoryEntity.builder()
-                .id(2L)
-                .extension(10)
-                .finished(true)
-                .createdAt(LocalDateTime.now())
-                .build();
-
-        when(storyRepository.findAll()).thenReturn(Arrays.asList(oldStory, newStory));
-        when(collaborationRepository.findByStoryIdWithUserOrderByOrderNumberAsc(anyLong()))
-                .thenReturn(Collections.emptyList());
+        LocalDateTime createdAt = LocalDateTime.now().minusDays(1);
+        String cursor = new CompletedStoryCursor(createdAt, 2L).encode();
+        when(completedStoryRepository.findPageAfter(createdAt, 2L, Limit.of(21)))
+                .thenReturn(List.of(completedRow(1L, createdAt.minusDays(1), 10L, "a", 1)));
 
         // When
-        List<CompletedStoryDTO> result = storyService.getCompletedStories();
+        CompletedStoriesPageDTO result = storyService.getCompletedStories(cursor, null);
 
         // Then
-        assertThat(result).hasSize(2);
-        assertThat(result.get(0).getId()).isEqualTo(2L); // Más reciente primero
-        assertThat(result.get(1).getId()).isEqualTo(1L);
+        assertThat(result.getStories()).extracting(CompletedStoryDTO::getId).containsExactly(1L);
+        assertThat(result.getNextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("Debe rechazar un cursor mal formado")
+    void shouldRejectMalformedCursor() {
+        assertThatThrownBy(() -> storyService.getCompletedStories("no-es-un-cursor", null))
+                .isInstanceOf(InvalidCursorException.class);
     }
 
     @Test
     @DisplayName("Debe manejar historia completada sin colaboraciones")
     void shouldHandleCompletedStoryWithoutCollaborations() {
         // Given
-        testStory.setFinished(true);
-
-        when(storyRepository.findAll()).thenReturn(Arrays.asList(testStory));
-        when(collaborationRepository.findByStoryIdWithUserOrderByOrderNumberAsc(1L))
-                .thenReturn(Collections.emptyList());
+        CompletedStoryEntity empty = CompletedStoryEntity.builder()
+                .storyId(1L)
+                .extension(10)
+                .createdAt(LocalDateTime.now())
+                .totalCollaborations(0)
+                .wordCount(0)
+                .build();
+        when(completedStoryRepository.findPage(any(Limit.class))).thenReturn(List.of(empty));
 
         // When
-        List<CompletedStoryDTO> result = storyService.getCompletedStories();
+        CompletedStoriesPageDTO result = storyService.getCompletedStories(null, null);
 
         // Then
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getFirstCollaboration()).isNull();
-        assertThat(result.get(0).getTotalCollaborations()).isEqualTo(0);
+        assertThat(result.getStories()).hasSize(1);
+        assertThat(result.getStories().get(0).getFirstCollaboration()).isNull();
+        assertThat(result.getStories().get(0).getTotalCollaborations()).isEqualTo(0);
     }
 
     @Test
     @DisplayName("Debe retornar lista vacía si no hay historias completadas")
     void shouldReturnEmptyListIfNoCompletedStories() {
         // Given
-        when(storyRepository.findAll()).thenReturn(Collections.emptyList());
+        when(completedStoryRepository.findPage(any(Limit.class))).thenReturn(Collections.emptyList());
 
         // When
-        List<CompletedStoryDTO> result = storyService.getCompletedStories();
+        CompletedStoriesPageDTO result = storyService.getCompletedStories(null, null);
 
         // Then
-        assertThat(result).isEmpty();
+        assertThat(result.getStories()).isEmpty();
+        assertThat(result.getNextCursor()).isNull();
+    }
+
+    private CompletedStoryEntity completedRow(long storyId, LocalDateTime createdAt, long collaborationId,
+                                              String text, int collaborationCount) {
+        return CompletedStoryEntity.builder()
+                .storyId(storyId)
+                .extension(10)
+                .createdAt(createdAt)
+                .updatedAt(createdAt)
+                .firstCollaborationId(collaborationId)
+                .firstText(text)
+                .firstOrderNumber(1)
+                .firstCreatedAt(createdAt)
+                .authorId(testUser.getId())
+                .authorUsername(testUser.getUsername())
+                .authorName(testUser.getName())
+                .authorSurname(testUser.getSurname())
+                .totalCollaborations(collaborationCount)
+                .wordCount(2)
+                .build();
     }
 
     @Test
@@ -699,10 +741,8 @@ class StoryServiceImplTest {
         LocalDateTime futureTime = LocalDateTime.now().plusMinutes(15);
         blockedStory.setBlockedUntil(futureTime);
 
-        when(blockedStoryRepository.deleteExpiredBlocks(any())).thenReturn(0);
         when(userRepository.findByEmail(userEmail)).thenReturn(Optional.of(testUser));
-        when(blockedStoryRepository.findByUserEmail(userEmail)).thenReturn(Optional.of(blockedStory));
-        when(collaborationRepository.countByStoryId(1L)).thenReturn(0L);
+        when(blockedStoryRepository.findActiveByUserEmail(eq(userEmail), any())).thenReturn(Optional.of(blockedStory));
 
         // When
         StoryAssignmentResponseDTO result = storyService.assignRandomAvailableStory(userEmail);
@@ -0,0 +1,284 @@
+package dev.lin.exquis.story;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.lin.exquis.blockedStory.BlockedStoryRepository;
+import dev.lin.exquis.collaboration.CollaborationEntity;
+import dev.lin.exquis.collaboration.CollaborationRepository;
+import dev.lin.exquis.collaboration.CollaborationService;
+import dev.lin.exquis.collaboration.dtos.CollaborationRequestDTO;
+import dev.lin.exquis.outbox.OutboxEventRepository;
+import dev.lin.exquis.outbox.OutboxRelay;
+import dev.lin.exquis.role.RoleEntity;
+import dev.lin.exquis.role.RoleRepository;
+import dev.lin.exquis.user.UserEntity;
+import dev.lin.exquis.user.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser
+@DisplayName("Instantáneas de historias finalizadas - Tests de Integración")
+class StorySnapshotIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CollaborationService collaborationService;
+
+    @Autowired
+    private StorySnapshotRepository snapshotRepository;
+
+    @Autowired
+    private OutboxRelay relay;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private CompletedStoryRepository completedStoryRepository;
+
+    @Autowired
+    private CollaborationRepository collaborationRepository;
+
+    @Autowired
+    private StoryRepository storyRepository;
+
+    @Autowired
+    private BlockedStoryRepository blockedStoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private AssignmentPool assignmentPool;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private StorySnapshotService snapshotService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${api-endpoint}")
+    private String apiEndpoint;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        RoleEntity userRole = roleRepository.findByName("USER")
+                .orElseGet(() -> roleRepository.save(new RoleEntity(null, "USER", null)));
+        userRepository.save(UserEntity.builder()
+                .username("reader")
+                .email("reader@example.com")
+                .name("Test")
+                .surname("User")
+                .password("encoded")
+                .roles(Set.of(userRole))
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        cleanUp();
+    }
+
+    @Test
+    @DisplayName("Una historia finalizada debe servirse de su instantánea con ETag y caché")
+    void shouldServeFinishedStoryFromSnapshot() throws Exception {
+        // Given
+        StoryEntity story = finishedStory("Érase una vez", "y colorín colorado");
+        relay.relay();
+        assertThat(snapshotRepository.existsById(story.getId())).isTrue();
+
+        // When
+        MvcResult result = mockMvc.perform(get(apiEndpoint + "/collaborations/story/" + story.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("max-age=86400")))
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].text").value("Érase una vez"))
+                .andExpect(jsonPath("$[1].user.username").value("reader"))
+                .andReturn();
+
+        // Then: mismo contenido que la lectura dinámica
+        String etag = result.getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).startsWith("\"").endsWith("\"");
+        assertThat(result.getResponse().getContentAsByteArray())
+                .isEqualTo(objectMapper.writeValueAsBytes(collaborationService.getCollaborationsByStory(story.getId())));
+
+        mockMvc.perform(get(apiEndpoint + "/collaborations/story/" + story.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+    }
+
+    @Test
+    @DisplayName("Debe servir la variante gzip precomprimida si el cliente la acepta")
+    void shouldServePrecompressedGzip() throws Exception {
+        // Given
+        String line = "Una frase que se repite para que comprimir merezca la pena. ".repeat(4);
+        StoryEntity story = finishedStory(line, line, line);
+        relay.relay();
+        StorySnapshotEntity snapshot = snapshotRepository.findById(story.getId()).orElseThrow();
+        assertThat(snapshot.getBodyGzip()).isNotNull();
+
+        // When
+        MvcResult result = mockMvc.perform(get(apiEndpoint + "/collaborations/story/" + story.getId())
+                        .header(HttpHeaders.ACCEPT_ENCODING, "br;q=1.0, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT_ENCODING)))
+                .andExpect(header().string(HttpHeaders.ETAG, snapshot.getGzipEtag()))
+                .andReturn();
+
+        // Then
+        byte[] compressed = result.getResponse().getContentAsByteArray();
+        assertThat(compressed).hasSizeLessThan(snapshot.getBody().length);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertThat(in.readAllBytes()).isEqualTo(snapshot.getBody());
+        }
+
+        mockMvc.perform(get(apiEndpoint + "/collaborations/story/" + story.getId())
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().string(HttpHeaders.ETAG, snapshot.getEtag()));
+    }
+
+    @Test
+    @DisplayName("Si falta la instantánea, la primera lectura debe generarla")
+    void shouldRenderMissingSnapshotOnRead() throws Exception {
+        // Given: finalizada, pero el relay aún no la ha procesado
+        StoryEntity story = finishedStory("Sin instantánea todavía");
+
+        // When / Then
+        mockMvc.perform(get(apiEndpoint + "/collaborations/story/" + story.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG));
+        assertThat(snapshotRepository.existsById(story.getId())).isTrue();
+    }
+
+    @Test
+    @DisplayName("Una historia abierta debe leerse sin instantánea")
+    void shouldServeOpenStoryDynamically() throws Exception {
+        // Given
+        StoryEntity story = storyRepository.save(StoryEntity.builder().extension(5).finished(false).build());
+        write(story, "Todavía en marcha");
+
+        // When / Then
+        mockMvc.perform(get(apiEndpoint + "/collaborations/story/" + story.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$", hasSize(1)));
+        assertThat(snapshotRepository.existsById(story.getId())).isFalse();
+    }
+
+    @Test
+    @DisplayName("Corregir una colaboración de una historia finalizada debe regenerar la instantánea")
+    void shouldRenderAgainAfterRevision() {
+        // Given
+        StoryEntity story = finishedStory("Texto con errata");
+        relay.relay();
+        String before = snapshotRepository.findById(story.getId()).orElseThrow().getEtag();
+        CollaborationEntity collaboration = collaborationRepository.findAll().get(0);
+
+        // When
+        collaborationService.updateCollaboration(collaboration.getId(),
+                new CollaborationRequestDTO("Texto corregido", story.getId()));
+        relay.relay();
+
+        // Then
+        assertThat(snapshotRepository.findById(story.getId()).orElseThrow().getEtag()).isNotEqualTo(before);
+    }
+
+    @Test
+    @DisplayName("Debe interpretar Accept-Encoding respetando q=0")
+    void shouldParseAcceptEncoding() {
+        assertThat(StorySnapshotService.acceptsGzip("gzip, deflate, br")).isTrue();
+        assertThat(StorySnapshotService.acceptsGzip("*")).isTrue();
+        assertThat(StorySnapshotService.acceptsGzip("GZIP;q=0.5")).isTrue();
+        assertThat(StorySnapshotService.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(StorySnapshotService.acceptsGzip("br")).isFalse();
+        assertThat(StorySnapshotService.acceptsGzip(null)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Una historia finalizada debe generar su instantánea aunque la caché la dé por abierta")
+    void shouldRenderDespiteStaleCachedStory() {
+        // Given: la caché de segundo nivel conserva la historia abierta
+        StoryEntity story = storyRepository.save(StoryEntity.builder().extension(5).finished(false).build());
+        storyRepository.findById(story.getId());
+        jdbcTemplate.update("UPDATE stories SET finished = true WHERE id = ?", story.getId());
+        assertThat(storyRepository.findById(story.getId()).orElseThrow().isFinished()).isFalse();
+
+        // When
+        Optional<StorySnapshotEntity> snapshot = snapshotService.render(story.getId());
+
+        // Then
+        assertThat(snapshot).isPresent();
+        assertThat(snapshotRepository.existsById(story.getId())).isTrue();
+    }
+
+    private StoryEntity finishedStory(String... texts) {
+        StoryEntity story = storyRepository.save(StoryEntity.builder().extension(texts.length).finished(false).build());
+        for (String text : texts) {
+            write(story, text);
+        }
+        return story;
+    }
+
+    private void write(StoryEntity story, String text) {
+        collaborationService.createCollaboration(new CollaborationRequestDTO(text, story.getId()), "reader@example.com");
+    }
+
+    private void cleanUp() {
+        outboxEventRepository.deleteAll();
+        snapshotRepository.deleteAll();
+        completedStoryRepository.deleteAll();
+        blockedStoryRepository.deleteAll();
+        collaborationRepository.deleteAll();
+        storyRepository.deleteAll();
+        userRepository.deleteAll();
+        assignmentPool.rebuild(List.of());
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        entityManagerFactory.getCache().evictAll();
+    }
+}
@@ -0,0 +1,148 @@
+package dev.lin.exquis.story;
+
+import dev.lin.exquis.collaboration.CollaborationRepository;
+import dev.lin.exquis.collaboration.LastOrderByStory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("UserEligibilityIndex - Tests Unitarios")
+class UserEligibilityIndexTest {
+
+    @Mock
+    private CollaborationRepository collaborationRepository;
+
+    private UserEligibilityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new UserEligibilityIndex(collaborationRepository, 1_000, 30);
+    }
+
+    @Test
+    @DisplayName("Debe excluir historias hasta que pasen 2 colaboraciones de otros")
+    void shouldExcludeUntilTwoOthersHaveWritten() {
+        // Given
+        when(collaborationRepository.findLastOrderNumbersByUser(1L))
+                .thenReturn(List.of(new LastOrderByStory(10L, 3)));
+
+        // When
+        AssignmentPool.Eligibility eligibility = index.eligibilityFor(1L);
+
+        // Then
+        assertThat(eligibility.test(10L, 3)).isFalse();
+        assertThat(eligibility.test(10L, 4)).isFalse();
+        assertThat(eligibility.test(10L, 5)).isTrue();
+        assertThat(eligibility.test(20L, 0)).isTrue(); // Nunca escribió en ella
+    }
+
+    @Test
+    @DisplayName("Debe cargar cada usuario una sola vez")
+    void shouldLoadEachUserOnce() {
+        // Given
+        when(collaborationRepository.findLastOrderNumbersByUser(1L)).thenReturn(List.of());
+
+        // When
+        index.eligibilityFor(1L);
+        index.eligibilityFor(1L);
+
+        // Then
+        verify(collaborationRepository, times(1)).findLastOrderNumbersByUser(1L);
+        assertThat(index.loadedUsers()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Debe actualizar el índice con las nuevas colaboraciones del usuario cargado")
+    void shouldRecordNewCollaborations() {
+        // Given
+        when(collaborationRepository.findLastOrderNumbersByUser(1L)).thenReturn(List.of());
+        AssignmentPool.Eligibility eligibility = index.eligibilityFor(1L);
+
+        // When
+        index.recordAfterCommit(1L, 10L, 6);
+        index.recordAfterCommit(1L, 10L, 2); // Un orden anterior no retrocede el índice
+
+        // Then
+        assertThat(eligibility.test(10L, 7)).isFalse();
+        assertThat(eligibility.test(10L, 8)).isTrue();
+    }
+
+    @Test
+    @DisplayName("No debe cargar usuarios al registrar colaboraciones")
+    void shouldNotLoadUsersOnRecord() {
+        // When
+        index.recordAfterCommit(2L, 10L, 1);
+
+        // Then
+        assertThat(index.loadedUsers()).isZero();
+        verifyNoInteractions(collaborationRepository);
+    }
+
+    @Test
+    @DisplayName("Debe recargar al usuario tras invalidarlo")
+    void shouldReloadAfterInvalidation() {
+        // Given
+        when(collaborationRepository.findLastOrderNumbersByUser(1L))
+                .thenReturn(List.of(new LastOrderByStory(10L, 3)))
+                .thenReturn(List.of());
+        index.eligibilityFor(1L);
+
+        // When
+        index.invalidateAfterCommit(1L);
+        AssignmentPool.Eligibility eligibility = index.eligibilityFor(1L);
+
+        // Then
+        assertThat(eligibility.test(10L, 3)).isTrue();
+        verify(collaborationRepository, times(2)).findLastOrderNumbersByUser(1L);
+    }
+
+    @Test
+    @DisplayName("Debe acotar el número de usuarios cargados")
+    void shouldBoundLoadedUsers() {
+        // Given
+        index = new UserEligibilityIndex(collaborationRepository, 1, 30);
+        when(collaborationRepository.findLastOrderNumbersByUser(anyLong())).thenReturn(List.of());
+
+        // When
+        index.eligibilityFor(1L);
+        index.eligibilityFor(2L);
+
+        // Then
+        assertThat(index.loadedUsers()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Una colaboración registrada durante la carga del usuario no debe perderse")
+    void shouldApplyRecordArrivingDuringLoad() throws Exception {
+        // Given: la carga lee la base de datos antes de que se confirme la colaboración
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch recorded = new CountDownLatch(1);
+        when(collaborationRepository.findLastOrderNumbersByUser(1L)).thenAnswer(invocation -> {
+            loading.countDown();
+            assertThat(recorded.await(5, TimeUnit.SECONDS)).isTrue();
+            return List.of();
+        });
+        CompletableFuture<AssignmentPool.Eligibility> eligibility =
+                CompletableFuture.supplyAsync(() -> index.eligibilityFor(1L));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // When
+        index.record(1L, 10L, 6);
+        recorded.countDown();
+
+        // Then
+        assertThat(eligibility.get(5, TimeUnit.SECONDS).test(10L, 7)).isFalse();
+    }
+}
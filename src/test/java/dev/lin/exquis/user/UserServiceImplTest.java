@@ -2,8 +2,11 @@ package dev.lin.exquis.user;
 
 import dev.lin.exquis.collaboration.CollaborationEntity;
 import dev.lin.exquis.collaboration.CollaborationRepository;
+import dev.lin.exquis.outbox.DomainEventOutbox;
 import dev.lin.exquis.role.RoleEntity;
 import dev.lin.exquis.role.RoleRepository;
+import dev.lin.exquis.security.TokenVersionCache;
+import dev.lin.exquis.story.StoryReadCache;
 import dev.lin.exquis.user.dtos.UserRequestDTO;
 import dev.lin.exquis.user.dtos.UserResponseDTO;
 import org.junit.jupiter.api.BeforeEach;
@@ -37,6 +40,15 @@ class UserServiceImplTest {
     @Mock
     private CollaborationRepository collaborationRepository;
 
+    @Mock
+    private DomainEventOutbox outbox;
+
+    @Mock
+    private StoryReadCache readCache;
+
+    @Mock
+    private TokenVersionCache tokenVersions;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -202,6 +214,7 @@ class UserServiceImplTest {
         // Then
         verify(collaborationRepository).saveAll(anyList());
         verify(userRepository).delete(testUser);
+        verify(tokenVersions).revokeAfterCommit(1L);
     }
 
     @Test
@@ -305,6 +318,8 @@ class UserServiceImplTest {
         // Then
         verify(passwordEncoder).encode("newPassword123");
         verify(userRepository).save(any(UserEntity.class));
+        assertThat(testUser.getTokenVersion()).isEqualTo(1);
+        verify(tokenVersions).changedAfterCommit(1L, 1);
     }
 
     @Test
@@ -329,6 +344,7 @@ class UserServiceImplTest {
 
         // Then
         verify(passwordEncoder, never()).encode(anyString());
+        verify(tokenVersions, never()).changedAfterCommit(anyLong(), anyInt());
     }
 
     @Test
@@ -358,6 +374,7 @@ class UserServiceImplTest {
         // Then
         verify(roleRepository).findByName("ADMIN");
         verify(userRepository).save(any(UserEntity.class));
+        verify(tokenVersions).changedAfterCommit(1L, 1);
     }
 
     @Test